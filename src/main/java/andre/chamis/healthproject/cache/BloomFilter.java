@@ -0,0 +1,139 @@
+package andre.chamis.healthproject.cache;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A fixed-size Bloom filter: a compact, probabilistic set that answers "definitely absent" or "maybe present".
+ * <p>
+ * Used in front of the database to reject lookups for values that were never stored, without keeping the values
+ * themselves in memory. A filter never forgets a value, so it must be rebuilt to drop removed values. Additions
+ * and lookups are thread-safe and never lock.
+ */
+public final class BloomFilter {
+    private static final double LN_2 = Math.log(2);
+
+    private final AtomicLongArray bits;
+    private final int bitCount;
+    private final int hashCount;
+
+    /**
+     * Constructs an empty BloomFilter sized for the expected number of values.
+     *
+     * @param expectedInsertions The number of values the filter is expected to hold.
+     * @param falsePositiveRate  The desired probability of {@link #mightContain} returning {@code true} for a value
+     *                           that was never added, once the filter holds {@code expectedInsertions} values.
+     */
+    public BloomFilter(int expectedInsertions, double falsePositiveRate) {
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("False positive rate must be between 0 and 1");
+        }
+
+        int insertions = Math.max(1, expectedInsertions);
+        long optimalBitCount = (long) Math.ceil(-insertions * Math.log(falsePositiveRate) / (LN_2 * LN_2));
+        long wordCount = Math.max(1, (optimalBitCount + Long.SIZE - 1) / Long.SIZE);
+
+        this.bits = new AtomicLongArray(Math.toIntExact(wordCount));
+        this.bitCount = Math.toIntExact(wordCount * Long.SIZE);
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / insertions * LN_2));
+    }
+
+    /**
+     * Adds a value to the filter.
+     *
+     * @param value The value to add.
+     */
+    public void put(CharSequence value) {
+        put(hash(value));
+    }
+
+    /**
+     * Adds a value to the filter, given its 64-bit hash.
+     *
+     * @param hash The 64-bit hash of the value, as computed by one of the {@code hash} methods.
+     */
+    public void put(long hash) {
+        int firstHash = (int) hash;
+        int secondHash = (int) (hash >>> 32);
+        for (int i = 0; i < hashCount; i++) {
+            int bit = bitIndex(firstHash + i * secondHash);
+            int word = bit >>> 6;
+            long mask = 1L << bit;
+            long current = bits.get(word);
+            while ((current & mask) == 0 && !bits.compareAndSet(word, current, current | mask)) {
+                current = bits.get(word);
+            }
+        }
+    }
+
+    /**
+     * Checks whether a value may have been added to the filter.
+     *
+     * @param value The value to check.
+     * @return {@code false} if the value was definitely never added, {@code true} if it may have been.
+     */
+    public boolean mightContain(CharSequence value) {
+        return mightContain(hash(value));
+    }
+
+    /**
+     * Checks whether a value may have been added to the filter, given its 64-bit hash.
+     *
+     * @param hash The 64-bit hash of the value, as computed by one of the {@code hash} methods.
+     * @return {@code false} if the value was definitely never added, {@code true} if it may have been.
+     */
+    public boolean mightContain(long hash) {
+        int firstHash = (int) hash;
+        int secondHash = (int) (hash >>> 32);
+        for (int i = 0; i < hashCount; i++) {
+            int bit = bitIndex(firstHash + i * secondHash);
+            if ((bits.get(bit >>> 6) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private int bitIndex(int combinedHash) {
+        return (combinedHash & Integer.MAX_VALUE) % bitCount;
+    }
+
+    /**
+     * Computes a well-mixed 64-bit hash of a character sequence without allocating.
+     *
+     * @param value The value to hash.
+     * @return The 64-bit hash of the value.
+     */
+    public static long hash(CharSequence value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash = (hash ^ value.charAt(i)) * 0x100000001b3L;
+        }
+
+        return mix(hash);
+    }
+
+    /**
+     * Computes a well-mixed 64-bit hash of a byte array without allocating.
+     *
+     * @param value The value to hash.
+     * @return The 64-bit hash of the value.
+     */
+    public static long hash(byte[] value) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value) {
+            hash = (hash ^ (b & 0xff)) * 0x100000001b3L;
+        }
+
+        return mix(hash);
+    }
+
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
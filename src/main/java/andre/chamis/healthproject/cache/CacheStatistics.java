@@ -0,0 +1,139 @@
+package andre.chamis.healthproject.cache;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters describing how a cache is being used.
+ * <p>
+ * Counters are {@link LongAdder}s, so recording from many request threads does not contend on a single memory
+ * location. Values read while the cache is in use are a close approximation, not an atomic snapshot.
+ */
+public final class CacheStatistics {
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder loadFailures = new LongAdder();
+    private final LongAdder totalLoadTimeNanos = new LongAdder();
+    private final LongAdder sharedLoads = new LongAdder();
+    private final LongAdder refreshes = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    /**
+     * Records a lookup that found a live entry.
+     */
+    public void recordHit() {
+        hits.increment();
+    }
+
+    /**
+     * Records a lookup that found no entry, or an expired one.
+     */
+    public void recordMiss() {
+        misses.increment();
+    }
+
+    /**
+     * Records a load from the backing store after a miss.
+     *
+     * @param loadTimeNanos How long the load took, in nanoseconds.
+     * @param isSuccessful  Whether the load completed without throwing.
+     */
+    public void recordLoad(long loadTimeNanos, boolean isSuccessful) {
+        loads.increment();
+        totalLoadTimeNanos.add(loadTimeNanos);
+        if (!isSuccessful) {
+            loadFailures.increment();
+        }
+    }
+
+    /**
+     * Records a miss that waited for a load already in flight instead of running its own.
+     */
+    public void recordSharedLoad() {
+        sharedLoads.increment();
+    }
+
+    /**
+     * Records a background reload of an entry that was about to expire.
+     */
+    public void recordRefresh() {
+        refreshes.increment();
+    }
+
+    /**
+     * Records an entry dropped to keep the cache within its maximum size.
+     */
+    public void recordEviction() {
+        evictions.increment();
+    }
+
+    /**
+     * Records entries dropped because they expired.
+     *
+     * @param count The number of expired entries dropped.
+     */
+    public void recordExpirations(int count) {
+        if (count > 0) {
+            expirations.add(count);
+        }
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getLoads() {
+        return loads.sum();
+    }
+
+    public long getLoadFailures() {
+        return loadFailures.sum();
+    }
+
+    public long getSharedLoads() {
+        return sharedLoads.sum();
+    }
+
+    public long getRefreshes() {
+        return refreshes.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    public long getExpirations() {
+        return expirations.sum();
+    }
+
+    /**
+     * Calculates the share of lookups that were served from the cache.
+     *
+     * @return The hit rate between 0 and 1, or 0 if the cache was never read.
+     */
+    public double getHitRate() {
+        long hitCount = getHits();
+        long lookupCount = hitCount + getMisses();
+        return lookupCount == 0 ? 0 : (double) hitCount / lookupCount;
+    }
+
+    /**
+     * Calculates the average time spent loading values after a miss.
+     *
+     * @return The average load time in milliseconds, or 0 if nothing was loaded.
+     */
+    public double getAverageLoadTimeMillis() {
+        long loadCount = getLoads();
+        if (loadCount == 0) {
+            return 0;
+        }
+
+        return (double) totalLoadTimeNanos.sum() / loadCount / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
@@ -0,0 +1,42 @@
+package andre.chamis.healthproject.cache;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Converts values to and from fixed-width binary records, so they can be stored outside the Java heap.
+ * <p>
+ * The key and the expiration of a value are stored by the cache itself, so the codec only handles the remaining
+ * fields.
+ *
+ * @param <ValueType> The type of values encoded.
+ */
+public interface FixedWidthCodec<ValueType> {
+    /**
+     * Retrieves the number of bytes every record takes.
+     *
+     * @return The width of a record, in bytes.
+     */
+    int width();
+
+    /**
+     * Writes the fields of a value into a record.
+     *
+     * @param value  The value to write.
+     * @param buffer The buffer holding the record.
+     * @param offset The index of the first byte of the record. Exactly {@link #width()} bytes may be written.
+     */
+    void write(ValueType value, ByteBuffer buffer, int offset);
+
+    /**
+     * Rebuilds a value from a record. Must not throw on any input, as records read without a lock may be torn; such
+     * reads are discarded by the cache.
+     *
+     * @param key             The key of the value.
+     * @param expiresAtMillis The expiration of the value in epoch milliseconds, or {@link Long#MAX_VALUE} if it never
+     *                        expires.
+     * @param buffer          The buffer holding the record.
+     * @param offset          The index of the first byte of the record.
+     * @return The rebuilt value.
+     */
+    ValueType read(long key, long expiresAtMillis, ByteBuffer buffer, int offset);
+}
@@ -1,61 +1,171 @@
 package andre.chamis.healthproject.cache;
 
-import java.util.HashMap;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
 import java.util.function.Function;
 
 /**
  * An abstract class representing an in-memory cache.
+ * <p>
+ * The cache can optionally be bounded: once it holds more than {@code maxSize} entries, entries that were not read
+ * since they were last inspected are evicted first (second-chance / CLOCK eviction, an approximation of LRU).
+ * Each entry can also carry its own expiration date, computed from the value when it is stored; expired entries are
+ * never returned and are dropped either when accessed or by {@link #evictExpired()}.
+ * <p>
+ * Reads ({@link #get}, {@link #containsKey}) never take a lock. Writes are striped by the underlying
+ * {@link ConcurrentHashMap}; only eviction and {@link #initializeCache} serialize on a dedicated lock, and readers
+ * never wait for it.
+ * <p>
+ * Lookups, loads, evictions and expirations are counted in the cache's {@link CacheStatistics}. Keys written through
+ * {@link #put} or removed are published to other instances, see {@link ManagedCache#setInvalidationPublisher}.
+ * <p>
+ * {@link #getOrLoad} makes concurrent misses for the same key share one load, and can refresh entries in the
+ * background shortly before they expire, see {@link #enableRefreshAhead}.
  *
  * @param <KeyType>   The type of keys used in the cache.
  * @param <ValueType> The type of values stored in the cache.
  */
-public abstract class InMemoryCache<KeyType, ValueType> {
+public abstract class InMemoryCache<KeyType, ValueType> implements ManagedCache {
+    /**
+     * Value used for {@code maxSize} to represent a cache without a size limit. Any negative value has the same effect.
+     */
+    public static final int UNBOUNDED = -1;
+
     private final Function<ValueType, KeyType> keyExtractorFunction;
+    private final Function<ValueType, Instant> expirationFunction;
+    private final int maxSize;
+    private final Map<KeyType, CacheEntry<KeyType, ValueType>> cache = new ConcurrentHashMap<>();
 
     /**
-     * Constructs an InMemoryCache with a specified key extractor function.
+     * Entries of a bounded cache in insertion order, used as the eviction clock. May contain stale entries that were
+     * already replaced or removed from the map; those are skipped when polled.
+     */
+    private final Queue<CacheEntry<KeyType, ValueType>> evictionQueue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger evictionQueueSize = new AtomicInteger();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private final CacheStatistics statistics = new CacheStatistics();
+    private final SingleFlightLoader<KeyType, ValueType> singleFlightLoader = new SingleFlightLoader<>(statistics);
+    private long refreshAheadMillis;
+    private volatile Consumer<String> invalidationPublisher = key -> {
+    };
+
+    /**
+     * Constructs an unbounded InMemoryCache whose entries never expire.
      *
      * @param keyExtractorFunction The function to extract keys from values.
      */
     public InMemoryCache(Function<ValueType, KeyType> keyExtractorFunction) {
+        this(keyExtractorFunction, UNBOUNDED, value -> null);
+    }
+
+    /**
+     * Constructs a bounded InMemoryCache with per-entry expiration.
+     *
+     * @param keyExtractorFunction The function to extract keys from values.
+     * @param maxSize              The maximum number of entries kept in the cache, or {@link #UNBOUNDED}.
+     * @param expirationFunction   The function that computes when a value expires. It may return {@code null}
+     *                             for values that never expire.
+     */
+    public InMemoryCache(
+            Function<ValueType, KeyType> keyExtractorFunction,
+            int maxSize,
+            Function<ValueType, Instant> expirationFunction
+    ) {
         this.keyExtractorFunction = keyExtractorFunction;
+        this.expirationFunction = expirationFunction;
+        this.maxSize = maxSize;
     }
 
-    private final Map<KeyType, ValueType> cache = new HashMap<>();
+    /**
+     * Makes {@link #getOrLoad} reload an entry in the background when it is read within the given time before it
+     * expires, so frequently read entries are replaced before they expire instead of causing a miss.
+     * <p>
+     * Only useful for caches whose expiration is computed from the moment a value is stored; when it comes from the
+     * value itself, a reloaded entry would expire at the same instant.
+     *
+     * @param refreshAhead How long before expiring an entry is reloaded, or {@code null} to disable.
+     */
+    protected void enableRefreshAhead(Duration refreshAhead) {
+        this.refreshAheadMillis = refreshAhead == null ? 0 : refreshAhead.toMillis();
+    }
 
     private KeyType getKey(ValueType value) {
         return keyExtractorFunction.apply(value);
     }
 
+    private boolean isBounded() {
+        return maxSize >= 0;
+    }
+
+    private CacheEntry<KeyType, ValueType> createEntry(ValueType value) {
+        Instant expiresAt = expirationFunction.apply(value);
+        long expiresAtMillis = expiresAt == null ? Long.MAX_VALUE : expiresAt.toEpochMilli();
+        return new CacheEntry<>(getKey(value), value, expiresAtMillis);
+    }
+
     /**
-     * Retrieves the underlying cache map.
+     * Stores an entry and, for bounded caches, registers it on the eviction clock.
      *
-     * @return The map containing stored key-value pairs.
+     * @param entry The entry to store.
      */
-    protected synchronized Map<KeyType, ValueType> getCache() {
-        return cache;
+    private void store(CacheEntry<KeyType, ValueType> entry) {
+        cache.put(entry.key, entry);
+
+        if (isBounded()) {
+            evictionQueue.offer(entry);
+            evictionQueueSize.incrementAndGet();
+        }
     }
 
     /**
      * Adds a key-value pair to the cache.
+     * <p>
+     * If the cache grows past its maximum size, entries are evicted.
      *
      * @param value The value to store in the cache.
      */
-    public synchronized void put(ValueType value) {
-        cache.put(getKey(value), value);
+    public void put(ValueType value) {
+        CacheEntry<KeyType, ValueType> entry = createEntry(value);
+        singleFlightLoader.cancel(entry.key);
+        store(entry);
+        evictIfNeeded();
+        publishInvalidation(entry.key);
+    }
+
+    /**
+     * Stores the result of a load without publishing it, as it matches what other instances would load. A value
+     * that no longer exists is removed.
+     *
+     * @param key         The key that was loaded.
+     * @param loadedValue The loaded value.
+     */
+    private void storeLoaded(KeyType key, Optional<ValueType> loadedValue) {
+        if (loadedValue.isEmpty()) {
+            cache.remove(key);
+            return;
+        }
+
+        store(createEntry(loadedValue.get()));
+        evictIfNeeded();
     }
 
     /**
-     * Checks if the cache contains a specific key.
+     * Checks if the cache contains a specific, non-expired key.
      *
      * @param key The key to check for existence in the cache.
      * @return {@code true} if the key is found, otherwise {@code false}.
      */
-    public synchronized boolean containsKey(KeyType key) {
-        return cache.containsKey(key);
+    public boolean containsKey(KeyType key) {
+        return get(key).isPresent();
     }
 
     /**
@@ -63,42 +173,162 @@ public abstract class InMemoryCache<KeyType, ValueType> {
      *
      * @param key The key of the value to remove from the cache.
      */
-    public synchronized void remove(KeyType key) {
+    public void remove(KeyType key) {
+        if (key == null) {
+            return;
+        }
+
+        singleFlightLoader.cancel(key);
         cache.remove(key);
+        publishInvalidation(key);
+    }
+
+    @Override
+    public void invalidate(String key) {
+        KeyType parsedKey = parseKey(key);
+        if (parsedKey != null) {
+            singleFlightLoader.cancel(parsedKey);
+            cache.remove(parsedKey);
+        }
+    }
+
+    /**
+     * Converts a key received from another instance back to the key type of the cache. The default implementation
+     * only supports caches keyed by strings; caches with other key types must override it.
+     *
+     * @param key The key, as published by {@link #publishInvalidation}.
+     * @return The key of the cache.
+     */
+    @SuppressWarnings("unchecked")
+    protected KeyType parseKey(String key) {
+        return (KeyType) key;
+    }
+
+    @Override
+    public void setInvalidationPublisher(Consumer<String> invalidationPublisher) {
+        this.invalidationPublisher = invalidationPublisher;
+    }
+
+    private void publishInvalidation(KeyType key) {
+        invalidationPublisher.accept(String.valueOf(key));
     }
 
     /**
      * Retrieves a value from the cache based on the provided key.
+     * <p>
+     * An expired entry is removed from the cache and reported as not found.
      *
      * @param key The key of the value to retrieve.
      * @return An {@link Optional} containing the value if found, or empty if not found.
      */
-    public synchronized Optional<ValueType> get(KeyType key) {
-        ValueType value = cache.get(key);
-        return Optional.ofNullable(value);
+    public Optional<ValueType> get(KeyType key) {
+        CacheEntry<KeyType, ValueType> entry = getEntry(key);
+        return entry == null ? Optional.empty() : Optional.of(entry.value);
+    }
+
+    /**
+     * Retrieves a live entry, recording the lookup in the cache statistics.
+     *
+     * @param key The key of the entry to retrieve.
+     * @return The entry, or {@code null} if not found or expired.
+     */
+    private CacheEntry<KeyType, ValueType> getEntry(KeyType key) {
+        if (key == null) {
+            return null;
+        }
+
+        CacheEntry<KeyType, ValueType> entry = cache.get(key);
+        if (entry == null) {
+            statistics.recordMiss();
+            return null;
+        }
+
+        if (entry.isExpiredNow()) {
+            if (cache.remove(key, entry)) {
+                statistics.recordExpirations(1);
+            }
+            statistics.recordMiss();
+            return null;
+        }
+
+        entry.markAccessed();
+        statistics.recordHit();
+        return entry;
+    }
+
+    /**
+     * Retrieves a value from the cache, loading and caching it when it is not found.
+     * <p>
+     * Concurrent misses for the same key wait for a single call to the loader. When refresh-ahead is enabled, a hit
+     * on an entry about to expire also schedules a background reload. The time spent in the loader is recorded in
+     * the cache statistics.
+     *
+     * @param key    The key of the value to retrieve.
+     * @param loader The function that loads the value from the backing store.
+     * @return An {@link Optional} containing the cached or loaded value, or empty if the loader found nothing.
+     */
+    public Optional<ValueType> getOrLoad(KeyType key, Function<KeyType, Optional<ValueType>> loader) {
+        if (key == null) {
+            return Optional.empty();
+        }
+
+        CacheEntry<KeyType, ValueType> entry = getEntry(key);
+        if (entry == null) {
+            return singleFlightLoader.load(key, loader, this::storeLoaded);
+        }
+
+        if (isDueForRefresh(entry.expiresAtMillis)) {
+            singleFlightLoader.refresh(key, loader, this::storeLoaded);
+        }
+
+        return Optional.of(entry.value);
+    }
+
+    private boolean isDueForRefresh(long expiresAtMillis) {
+        return refreshAheadMillis > 0
+                && expiresAtMillis != Long.MAX_VALUE
+                && expiresAtMillis - System.currentTimeMillis() <= refreshAheadMillis;
     }
 
     /**
      * Initializes the cache with a list of values and a key extractor function.
      * <p>
-     * This method clears the existing cache and populates it with the provided values.
+     * This method clears the existing cache and populates it with the provided values. Readers are never blocked
+     * and may observe the cache while it is being repopulated.
      *
      * @param values The list of values to populate the cache with.
      */
-    public synchronized void initializeCache(List<ValueType> values) {
-        cache.clear();
+    public void initializeCache(List<ValueType> values) {
+        evictionLock.lock();
+        try {
+            singleFlightLoader.cancelAll();
+            cache.clear();
+            evictionQueue.clear();
+            evictionQueueSize.set(0);
+        } finally {
+            evictionLock.unlock();
+        }
+
         addMultiple(values);
     }
 
     /**
      * Adds multiple values to the cache using a key extractor function.
+     * <p>
+     * Values that are already expired are not added.
      *
      * @param values The list of values to add to the cache.
      */
-    public synchronized void addMultiple(List<ValueType> values) {
+    public void addMultiple(List<ValueType> values) {
+        long now = System.currentTimeMillis();
         for (ValueType value : values) {
-            put(value);
+            CacheEntry<KeyType, ValueType> entry = createEntry(value);
+            if (!entry.isExpired(now)) {
+                store(entry);
+            }
         }
+
+        evictIfNeeded();
     }
 
     /**
@@ -106,18 +336,182 @@ public abstract class InMemoryCache<KeyType, ValueType> {
      *
      * @param values The list of values to delete from the cache.
      */
-    public synchronized void deleteFromList(List<ValueType> values) {
+    public void deleteFromList(List<ValueType> values) {
         for (ValueType value : values) {
             remove(getKey(value));
         }
     }
 
+    /**
+     * Removes every expired entry from the cache.
+     *
+     * @return The number of entries removed.
+     */
+    public int evictExpired() {
+        long now = System.currentTimeMillis();
+        int evicted = 0;
+
+        for (CacheEntry<KeyType, ValueType> entry : cache.values()) {
+            if (entry.isExpired(now) && cache.remove(entry.key, entry)) {
+                evicted++;
+            }
+        }
+
+        statistics.recordExpirations(evicted);
+        return evicted;
+    }
+
+    /**
+     * Evicts entries until the cache is back within its maximum size.
+     * <p>
+     * Only one thread evicts at a time; other writers do not wait for it, so the cache may briefly hold a few entries
+     * more than {@code maxSize}.
+     */
+    private void evictIfNeeded() {
+        if (!isBounded()) {
+            return;
+        }
+
+        boolean isOverCapacity = cache.size() > maxSize;
+        boolean hasTooManyStaleEntries = evictionQueueSize.get() > 2 * cache.size() + 64;
+        if ((!isOverCapacity && !hasTooManyStaleEntries) || !evictionLock.tryLock()) {
+            return;
+        }
+
+        try {
+            while (cache.size() > maxSize) {
+                CacheEntry<KeyType, ValueType> candidate = pollEvictionQueue();
+                if (candidate == null) {
+                    break;
+                }
+
+                if (cache.get(candidate.key) != candidate) {
+                    continue; // Stale: replaced or removed after being queued
+                }
+
+                if (candidate.clearAccessed()) {
+                    requeue(candidate); // Second chance for entries read since the last pass
+                    continue;
+                }
+
+                if (cache.remove(candidate.key, candidate)) {
+                    statistics.recordEviction();
+                }
+            }
+
+            if (evictionQueueSize.get() > 2 * cache.size() + 64) {
+                compactEvictionQueue();
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Drops stale entries from the eviction queue, keeping live entries in their current order.
+     */
+    private void compactEvictionQueue() {
+        int queued = evictionQueueSize.get();
+        for (int i = 0; i < queued; i++) {
+            CacheEntry<KeyType, ValueType> entry = pollEvictionQueue();
+            if (entry == null) {
+                return;
+            }
+
+            if (cache.get(entry.key) == entry) {
+                requeue(entry);
+            }
+        }
+    }
+
+    private CacheEntry<KeyType, ValueType> pollEvictionQueue() {
+        CacheEntry<KeyType, ValueType> entry = evictionQueue.poll();
+        if (entry != null) {
+            evictionQueueSize.decrementAndGet();
+        }
+
+        return entry;
+    }
+
+    private void requeue(CacheEntry<KeyType, ValueType> entry) {
+        evictionQueue.offer(entry);
+        evictionQueueSize.incrementAndGet();
+    }
+
     /**
      * Retrieves the size of the cache.
      *
      * @return The number of key-value pairs in the cache.
      */
-    public synchronized int getSize() {
+    public int getSize() {
         return cache.size();
     }
+
+    /**
+     * Retrieves the maximum number of entries the cache can hold.
+     *
+     * @return The maximum size of the cache, or {@link #UNBOUNDED}.
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    @Override
+    public CacheStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * A value stored in the cache together with the moment it expires and its eviction clock bit.
+     *
+     * @param <KeyType>   The type of the key.
+     * @param <ValueType> The type of the cached value.
+     */
+    private static final class CacheEntry<KeyType, ValueType> {
+        private final KeyType key;
+        private final ValueType value;
+        private final long expiresAtMillis;
+        private volatile boolean accessed;
+
+        private CacheEntry(KeyType key, ValueType value, long expiresAtMillis) {
+            this.key = key;
+            this.value = value;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+
+        private boolean isExpired(long nowMillis) {
+            return nowMillis >= expiresAtMillis;
+        }
+
+        /**
+         * Checks the entry against the current time, skipping the clock read for entries that never expire.
+         */
+        private boolean isExpiredNow() {
+            return expiresAtMillis != Long.MAX_VALUE && isExpired(System.currentTimeMillis());
+        }
+
+        /**
+         * Sets the clock bit. The bit is only written when it changes, so hot entries do not turn every read into a
+         * shared memory write.
+         */
+        private void markAccessed() {
+            if (!accessed) {
+                accessed = true;
+            }
+        }
+
+        /**
+         * Clears the clock bit.
+         *
+         * @return {@code true} if the entry had been accessed since the bit was last cleared.
+         */
+        private boolean clearAccessed() {
+            if (accessed) {
+                accessed = false;
+                return true;
+            }
+
+            return false;
+        }
+    }
 }
@@ -0,0 +1,770 @@
+package andre.chamis.healthproject.cache;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * An abstract in-memory cache specialized for primitive {@code long} keys.
+ * <p>
+ * Entries live in open-addressing tables (parallel {@code long[]} keys, values and expiration dates), so an entry
+ * costs no boxed key and no map node. The key space is split into segments, each guarded by its own
+ * {@link StampedLock}: lookups use optimistic reads and allocate nothing, writes only lock one segment.
+ * <p>
+ * Like {@link InMemoryCache}, the cache can be bounded, in which case each segment evicts with a CLOCK
+ * (second-chance) policy, preferring expired entries. The bound is split evenly across segments, never exceeding
+ * {@code maxSize} in total, so the cache may hold slightly fewer entries than {@code maxSize} before it starts
+ * evicting.
+ * <p>
+ * Lookups, loads, evictions and expirations are counted in the cache's {@link CacheStatistics}. Keys written through
+ * {@link #put} or removed are published to other instances, see {@link ManagedCache#setInvalidationPublisher}.
+ * <p>
+ * {@link #getOrLoad} makes concurrent misses for the same key share one load, and can refresh entries in the
+ * background shortly before they expire, see {@link #enableRefreshAhead}. Values found by something other than their
+ * key can be cached with {@link #loadAndStore}, and subclasses can keep secondary indexes up to date through
+ * {@link #onStore}.
+ *
+ * @param <ValueType> The type of values stored in the cache.
+ */
+public abstract class LongKeyedInMemoryCache<ValueType> implements ManagedCache {
+    private static final int SEGMENT_COUNT = 16;
+    private static final int SEGMENT_SHIFT = Integer.SIZE - Integer.numberOfTrailingZeros(SEGMENT_COUNT);
+    private static final int INITIAL_SEGMENT_CAPACITY = 16;
+    private static final int WRITE_STRIPES = 256;
+    private static final float LOAD_FACTOR = 0.75f;
+    private static final long NEVER_EXPIRES = Long.MAX_VALUE;
+
+    private final ToLongFunction<ValueType> keyExtractorFunction;
+    private final Function<ValueType, Instant> expirationFunction;
+    private final int maxSize;
+    private final Segment[] segments = new Segment[SEGMENT_COUNT];
+    private final CacheStatistics statistics = new CacheStatistics();
+    private final SingleFlightLoader<Long, ValueType> singleFlightLoader = new SingleFlightLoader<>(statistics);
+    private long refreshAheadMillis;
+    private volatile Consumer<String> invalidationPublisher = key -> {
+    };
+
+    /**
+     * Constructs a LongKeyedInMemoryCache.
+     *
+     * @param keyExtractorFunction The function to extract keys from values.
+     * @param maxSize              The maximum number of entries kept in the cache, or a negative value for an
+     *                             unbounded cache.
+     * @param expirationFunction   The function that computes when a value expires. It may return {@code null}
+     *                             for values that never expire.
+     */
+    public LongKeyedInMemoryCache(
+            ToLongFunction<ValueType> keyExtractorFunction,
+            int maxSize,
+            Function<ValueType, Instant> expirationFunction
+    ) {
+        this.keyExtractorFunction = keyExtractorFunction;
+        this.expirationFunction = expirationFunction;
+        this.maxSize = maxSize;
+
+        for (int i = 0; i < SEGMENT_COUNT; i++) {
+            // The shares add up to maxSize, so a cache smaller than the segment count leaves some segments empty
+            int maxEntries = maxSize < 0
+                    ? Integer.MAX_VALUE
+                    : maxSize / SEGMENT_COUNT + (i < maxSize % SEGMENT_COUNT ? 1 : 0);
+            segments[i] = new Segment(maxEntries, statistics);
+        }
+    }
+
+    /**
+     * Makes {@link #getOrLoad} reload an entry in the background when it is read within the given time before it
+     * expires, so frequently read entries are replaced before they expire instead of causing a miss.
+     * <p>
+     * Only useful for caches whose expiration is computed from the moment a value is stored; when it comes from the
+     * value itself, a reloaded entry would expire at the same instant.
+     *
+     * @param refreshAhead How long before expiring an entry is reloaded, or {@code null} to disable.
+     */
+    protected void enableRefreshAhead(Duration refreshAhead) {
+        this.refreshAheadMillis = refreshAhead == null ? 0 : refreshAhead.toMillis();
+    }
+
+    /**
+     * Spreads the bits of a key, so sequential ids land on different segments and slots.
+     */
+    static int hash(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return (int) key;
+    }
+
+    private Segment segmentFor(int hash) {
+        return segments[hash >>> SEGMENT_SHIFT];
+    }
+
+    private long getExpiresAtMillis(ValueType value) {
+        Instant expiresAt = expirationFunction.apply(value);
+        return expiresAt == null ? NEVER_EXPIRES : expiresAt.toEpochMilli();
+    }
+
+    private static boolean isExpired(long expiresAtMillis, long nowMillis) {
+        return nowMillis >= expiresAtMillis;
+    }
+
+    /**
+     * Adds a value to the cache, evicting another entry of the same segment if it is full.
+     *
+     * @param value The value to store in the cache.
+     */
+    public void put(ValueType value) {
+        long key = keyExtractorFunction.applyAsLong(value);
+        singleFlightLoader.cancel(key);
+        store(value);
+        invalidationPublisher.accept(Long.toString(key));
+    }
+
+    private void store(ValueType value) {
+        long key = keyExtractorFunction.applyAsLong(value);
+        int hash = hash(key);
+        segmentFor(hash).put(key, hash, value, getExpiresAtMillis(value));
+        onStore(value);
+    }
+
+    /**
+     * Called after a value is stored, by any of the methods that store values. Does nothing by default.
+     * <p>
+     * Subclasses can use it to index values by other attributes. Such indexes are updated after the entry, so a
+     * lookup through them must check that the entry it finds still matches.
+     *
+     * @param value The value that was stored.
+     */
+    protected void onStore(ValueType value) {
+    }
+
+    /**
+     * Loads a value by something other than its key, such as a unique attribute, and stores it without publishing
+     * it. The value is not stored if its key was written or removed while it was being loaded, as it may then be
+     * older than the cached state. Writes are tracked by stripes of keys, so a write to another key of the same
+     * stripe rarely skips the store as well.
+     *
+     * @param loader The function that loads the value from the backing store.
+     * @return The loaded value, or empty if the loader found nothing.
+     */
+    public Optional<ValueType> loadAndStore(Supplier<Optional<ValueType>> loader) {
+        long[] writeCounts = new long[SEGMENT_COUNT];
+        for (int i = 0; i < SEGMENT_COUNT; i++) {
+            writeCounts[i] = segments[i].writeCount;
+        }
+
+        long loadStart = System.nanoTime();
+        Optional<ValueType> loadedValue;
+        try {
+            loadedValue = loader.get();
+        } catch (RuntimeException | Error e) {
+            statistics.recordLoad(System.nanoTime() - loadStart, false);
+            throw e;
+        }
+        statistics.recordLoad(System.nanoTime() - loadStart, true);
+
+        if (loadedValue.isPresent()) {
+            ValueType value = loadedValue.get();
+            long key = keyExtractorFunction.applyAsLong(value);
+            int hash = hash(key);
+            int segmentIndex = hash >>> SEGMENT_SHIFT;
+            long expiresAt = getExpiresAtMillis(value);
+            if (segments[segmentIndex].putIfUnchanged(key, hash, value, expiresAt, writeCounts[segmentIndex])) {
+                onStore(value);
+            }
+        }
+
+        return loadedValue;
+    }
+
+    /**
+     * Retrieves a value from the cache without allocating.
+     *
+     * @param key The key of the value to retrieve.
+     * @return The value, or {@code null} if it is not cached or has expired.
+     */
+    @SuppressWarnings("unchecked")
+    public ValueType getIfPresent(long key) {
+        int hash = hash(key);
+        ValueType value = (ValueType) segmentFor(hash).get(key, hash);
+        if (value == null) {
+            statistics.recordMiss();
+        } else {
+            statistics.recordHit();
+        }
+
+        return value;
+    }
+
+    /**
+     * Retrieves a value from the cache, loading and caching it when it is not found.
+     * <p>
+     * Concurrent misses for the same key wait for a single call to the loader. When refresh-ahead is enabled, a hit
+     * on an entry about to expire also schedules a background reload. The time spent in the loader is recorded in
+     * the cache statistics.
+     *
+     * @param key    The key of the value to retrieve.
+     * @param loader The function that loads the value from the backing store.
+     * @return An {@link Optional} containing the cached or loaded value, or empty if the loader found nothing.
+     */
+    public Optional<ValueType> getOrLoad(long key, Function<Long, Optional<ValueType>> loader) {
+        ValueType valueFromCache = getIfPresent(key);
+        if (valueFromCache == null) {
+            return singleFlightLoader.load(key, loader, this::storeLoaded);
+        }
+
+        if (refreshAheadMillis > 0 && isDueForRefresh(key)) {
+            singleFlightLoader.refresh(key, loader, this::storeLoaded);
+        }
+
+        return Optional.of(valueFromCache);
+    }
+
+    private boolean isDueForRefresh(long key) {
+        int hash = hash(key);
+        long expiresAt = segmentFor(hash).getExpiresAtMillis(key, hash);
+        return expiresAt != NEVER_EXPIRES && expiresAt - System.currentTimeMillis() <= refreshAheadMillis;
+    }
+
+    /**
+     * Stores the result of a load without publishing it, as it matches what other instances would load. A value
+     * that no longer exists is removed.
+     *
+     * @param key         The key that was loaded.
+     * @param loadedValue The loaded value.
+     */
+    private void storeLoaded(long key, Optional<ValueType> loadedValue) {
+        if (loadedValue.isPresent()) {
+            store(loadedValue.get());
+            return;
+        }
+
+        int hash = hash(key);
+        segmentFor(hash).remove(key, hash);
+    }
+
+    /**
+     * Retrieves a value from the cache without recording the lookup in the statistics or marking the entry as
+     * recently used. Meant for maintenance of the cache itself, such as checking secondary indexes.
+     *
+     * @param key The key of the value to retrieve.
+     * @return The value, or {@code null} if it is not cached or has expired.
+     */
+    @SuppressWarnings("unchecked")
+    protected ValueType peek(long key) {
+        int hash = hash(key);
+        return (ValueType) segmentFor(hash).peek(key, hash);
+    }
+
+    /**
+     * Retrieves a value from the cache based on the provided key.
+     *
+     * @param key The key of the value to retrieve.
+     * @return An {@link Optional} containing the value if found, or empty if not found.
+     */
+    public Optional<ValueType> get(long key) {
+        return Optional.ofNullable(getIfPresent(key));
+    }
+
+    /**
+     * Checks if the cache contains a specific, non-expired key.
+     *
+     * @param key The key to check for existence in the cache.
+     * @return {@code true} if the key is found, otherwise {@code false}.
+     */
+    public boolean containsKey(long key) {
+        return getIfPresent(key) != null;
+    }
+
+    /**
+     * Removes a value from the cache.
+     *
+     * @param key The key of the value to remove from the cache.
+     */
+    public void remove(long key) {
+        singleFlightLoader.cancel(key);
+        int hash = hash(key);
+        segmentFor(hash).remove(key, hash);
+        invalidationPublisher.accept(Long.toString(key));
+    }
+
+    @Override
+    public void invalidate(String key) {
+        long parsedKey = Long.parseLong(key);
+        singleFlightLoader.cancel(parsedKey);
+        int hash = hash(parsedKey);
+        segmentFor(hash).remove(parsedKey, hash);
+    }
+
+    @Override
+    public void setInvalidationPublisher(Consumer<String> invalidationPublisher) {
+        this.invalidationPublisher = invalidationPublisher;
+    }
+
+    /**
+     * Initializes the cache with a list of values.
+     * <p>
+     * This method clears the existing cache and populates it with the provided values.
+     *
+     * @param values The list of values to populate the cache with.
+     */
+    public void initializeCache(List<ValueType> values) {
+        singleFlightLoader.cancelAll();
+        for (Segment segment : segments) {
+            segment.clear();
+        }
+
+        addMultiple(values);
+    }
+
+    /**
+     * Adds multiple values to the cache. Values that are already expired are not added.
+     *
+     * @param values The list of values to add to the cache.
+     */
+    public void addMultiple(List<ValueType> values) {
+        long now = System.currentTimeMillis();
+        for (ValueType value : values) {
+            long expiresAt = getExpiresAtMillis(value);
+            if (isExpired(expiresAt, now)) {
+                continue;
+            }
+
+            long key = keyExtractorFunction.applyAsLong(value);
+            int hash = hash(key);
+            segmentFor(hash).put(key, hash, value, expiresAt);
+            onStore(value);
+        }
+    }
+
+    /**
+     * Deletes multiple values from the cache.
+     *
+     * @param values The list of values to delete from the cache.
+     */
+    public void deleteFromList(List<ValueType> values) {
+        for (ValueType value : values) {
+            remove(keyExtractorFunction.applyAsLong(value));
+        }
+    }
+
+    @Override
+    public int evictExpired() {
+        long now = System.currentTimeMillis();
+        int evicted = 0;
+        for (Segment segment : segments) {
+            evicted += segment.evictExpired(now);
+        }
+
+        statistics.recordExpirations(evicted);
+        return evicted;
+    }
+
+    @Override
+    public int getSize() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size;
+        }
+
+        return size;
+    }
+
+    @Override
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    @Override
+    public CacheStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * A linear-probing hash table. Arrays are replaced together on resize, so a reader always sees matching arrays.
+     */
+    private static final class Table {
+        private final long[] keys;
+        private final Object[] values;
+        private final long[] expiresAt;
+        private final byte[] accessed;
+        private final int mask;
+        private final int threshold;
+
+        private Table(int capacity) {
+            keys = new long[capacity];
+            values = new Object[capacity];
+            expiresAt = new long[capacity];
+            accessed = new byte[capacity];
+            mask = capacity - 1;
+            threshold = (int) (capacity * LOAD_FACTOR);
+        }
+
+        /**
+         * Finds the slot holding a key. The probe is bounded by the table length, so a reader racing a writer
+         * always terminates; such a read is discarded by the caller when its stamp fails validation.
+         *
+         * @return The slot index, or {@code -1} if the key is not in the table.
+         */
+        private int find(long key, int hash) {
+            int slot = hash & mask;
+            for (int probes = 0; probes <= mask; probes++) {
+                if (values[slot] == null) {
+                    return -1;
+                }
+
+                if (keys[slot] == key) {
+                    return slot;
+                }
+
+                slot = (slot + 1) & mask;
+            }
+
+            return -1;
+        }
+
+        private void insert(long key, int hash, Object value, long expiresAtMillis) {
+            int slot = hash & mask;
+            while (values[slot] != null) {
+                slot = (slot + 1) & mask;
+            }
+
+            keys[slot] = key;
+            values[slot] = value;
+            expiresAt[slot] = expiresAtMillis;
+            accessed[slot] = 0;
+        }
+
+        /**
+         * Deletes the entry at a slot using backward-shift deletion, so no tombstones are needed.
+         */
+        private void deleteAt(int slot) {
+            int free = slot;
+            int next = slot;
+            while (true) {
+                next = (next + 1) & mask;
+                if (values[next] == null) {
+                    break;
+                }
+
+                int home = hash(keys[next]) & mask;
+                boolean homeBetweenFreeAndNext = free <= next
+                        ? free < home && home <= next
+                        : free < home || home <= next;
+                if (homeBetweenFreeAndNext) {
+                    continue;
+                }
+
+                keys[free] = keys[next];
+                values[free] = values[next];
+                expiresAt[free] = expiresAt[next];
+                accessed[free] = accessed[next];
+                free = next;
+            }
+
+            values[free] = null;
+            accessed[free] = 0;
+        }
+    }
+
+    /**
+     * A slice of the cache with its own table and lock.
+     */
+    private static final class Segment {
+        private final StampedLock lock = new StampedLock();
+        private final int maxEntries;
+        private final CacheStatistics statistics;
+        private volatile Table table = new Table(INITIAL_SEGMENT_CAPACITY);
+        private volatile int size;
+        private int clockHand;
+
+        /**
+         * Incremented by every write or removal, so a load can tell which writes happened while it ran.
+         */
+        private volatile long writeCount;
+
+        /**
+         * The {@link #writeCount} of the last write or removal of a key, by stripe of key hashes. A load only
+         * conflicts with writes to keys of the same stripe, rather than with every write to the segment.
+         */
+        private final long[] lastWriteCountByStripe = new long[WRITE_STRIPES];
+
+        private Segment(int maxEntries, CacheStatistics statistics) {
+            this.maxEntries = maxEntries;
+            this.statistics = statistics;
+        }
+
+        private Object get(long key, int hash) {
+            long stamp = lock.tryOptimisticRead();
+            if (stamp != 0) {
+                Table table = this.table;
+                int slot = table.find(key, hash);
+                Object value = slot < 0 ? null : table.values[slot];
+                long expiresAt = slot < 0 ? NEVER_EXPIRES : table.expiresAt[slot];
+                if (lock.validate(stamp)) {
+                    return resolve(table, slot, value, expiresAt);
+                }
+            }
+
+            stamp = lock.readLock();
+            try {
+                Table table = this.table;
+                int slot = table.find(key, hash);
+                if (slot < 0) {
+                    return null;
+                }
+
+                return resolve(table, slot, table.values[slot], table.expiresAt[slot]);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        /**
+         * Turns a validated read into a result, setting the clock bit of entries that are returned. Expired entries
+         * are left in place for the next write or sweep to remove.
+         */
+        private Object resolve(Table table, int slot, Object value, long expiresAt) {
+            if (value == null) {
+                return null;
+            }
+
+            if (expiresAt != NEVER_EXPIRES && isExpired(expiresAt, System.currentTimeMillis())) {
+                return null;
+            }
+
+            if (table.accessed[slot] == 0) {
+                table.accessed[slot] = 1;
+            }
+
+            return value;
+        }
+
+        /**
+         * Reads an entry without touching its clock bit.
+         *
+         * @return The value, or {@code null} if the key is not in the segment or has expired.
+         */
+        private Object peek(long key, int hash) {
+            long stamp = lock.readLock();
+            try {
+                Table table = this.table;
+                int slot = table.find(key, hash);
+                if (slot < 0 || isExpired(table.expiresAt[slot], System.currentTimeMillis())) {
+                    return null;
+                }
+
+                return table.values[slot];
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        /**
+         * Reads the expiration of an entry.
+         *
+         * @return The expiration in epoch milliseconds, or {@link #NEVER_EXPIRES} if the key is not in the segment.
+         */
+        private long getExpiresAtMillis(long key, int hash) {
+            long stamp = lock.tryOptimisticRead();
+            if (stamp != 0) {
+                Table table = this.table;
+                int slot = table.find(key, hash);
+                long expiresAt = slot < 0 ? NEVER_EXPIRES : table.expiresAt[slot];
+                if (lock.validate(stamp)) {
+                    return expiresAt;
+                }
+            }
+
+            stamp = lock.readLock();
+            try {
+                Table table = this.table;
+                int slot = table.find(key, hash);
+                return slot < 0 ? NEVER_EXPIRES : table.expiresAt[slot];
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        private void put(long key, int hash, Object value, long expiresAtMillis) {
+            long stamp = lock.writeLock();
+            try {
+                recordWrite(hash);
+                insertOrReplace(key, hash, value, expiresAtMillis);
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        /**
+         * Stores an entry only if no key of its stripe was written since {@code loadStartWriteCount} was read.
+         *
+         * @return {@code true} if the entry was stored.
+         */
+        private boolean putIfUnchanged(
+                long key,
+                int hash,
+                Object value,
+                long expiresAtMillis,
+                long loadStartWriteCount
+        ) {
+            long stamp = lock.writeLock();
+            try {
+                if (lastWriteCountByStripe[hash & (WRITE_STRIPES - 1)] > loadStartWriteCount) {
+                    return false;
+                }
+
+                recordWrite(hash);
+                return insertOrReplace(key, hash, value, expiresAtMillis);
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        /**
+         * Records a write or removal of a key. Must hold the write lock.
+         */
+        private void recordWrite(int hash) {
+            long count = writeCount + 1;
+            writeCount = count;
+            lastWriteCountByStripe[hash & (WRITE_STRIPES - 1)] = count;
+        }
+
+        /**
+         * Stores an entry, replacing the value of the key or evicting another entry if the segment is full. Must hold
+         * the write lock.
+         *
+         * @return {@code true} if the entry was stored, {@code false} if the segment is full and nothing could be
+         * evicted.
+         */
+        private boolean insertOrReplace(long key, int hash, Object value, long expiresAtMillis) {
+            Table table = this.table;
+            int slot = table.find(key, hash);
+            if (slot >= 0) {
+                table.values[slot] = value;
+                table.expiresAt[slot] = expiresAtMillis;
+                return true;
+            }
+
+            if (size >= maxEntries && !evictOne()) {
+                return false;
+            }
+
+            if (size + 1 > table.threshold) {
+                table = resize(table);
+            }
+
+            table.insert(key, hash, value, expiresAtMillis);
+            size++;
+            return true;
+        }
+
+        private void remove(long key, int hash) {
+            long stamp = lock.writeLock();
+            try {
+                recordWrite(hash);
+                Table table = this.table;
+                int slot = table.find(key, hash);
+                if (slot >= 0) {
+                    table.deleteAt(slot);
+                    size--;
+                }
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        /**
+         * Evicts one entry using the CLOCK policy: expired entries and entries not read since the hand last passed
+         * are evicted, the others get their bit cleared and a second chance. Must hold the write lock.
+         *
+         * @return {@code true} if an entry was evicted.
+         */
+        private boolean evictOne() {
+            Table table = this.table;
+            int capacity = table.values.length;
+            long now = System.currentTimeMillis();
+
+            for (int scanned = 0; scanned < 2 * capacity; scanned++) {
+                int slot = clockHand;
+                if (table.values[slot] != null) {
+                    boolean isExpired = isExpired(table.expiresAt[slot], now);
+                    if (isExpired || table.accessed[slot] == 0) {
+                        table.deleteAt(slot);
+                        size--;
+                        if (isExpired) {
+                            statistics.recordExpirations(1);
+                        } else {
+                            statistics.recordEviction();
+                        }
+                        return true;
+                    }
+
+                    table.accessed[slot] = 0;
+                }
+
+                clockHand = (slot + 1) & table.mask;
+            }
+
+            return false;
+        }
+
+        private Table resize(Table table) {
+            Table resized = new Table(table.values.length * 2);
+            for (int slot = 0; slot < table.values.length; slot++) {
+                if (table.values[slot] != null) {
+                    resized.insert(table.keys[slot], hash(table.keys[slot]), table.values[slot], table.expiresAt[slot]);
+                }
+            }
+
+            this.table = resized;
+            clockHand = 0;
+            return resized;
+        }
+
+        private int evictExpired(long now) {
+            long stamp = lock.writeLock();
+            try {
+                Table table = this.table;
+                int evicted = 0;
+                int slot = 0;
+                while (slot < table.values.length) {
+                    if (table.values[slot] != null && isExpired(table.expiresAt[slot], now)) {
+                        // Backward shift may move another entry into this slot, so look at it again
+                        table.deleteAt(slot);
+                        size--;
+                        evicted++;
+                    } else {
+                        slot++;
+                    }
+                }
+
+                return evicted;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        private void clear() {
+            long stamp = lock.writeLock();
+            try {
+                long count = writeCount + 1;
+                writeCount = count;
+                Arrays.fill(lastWriteCountByStripe, count);
+                table = new Table(INITIAL_SEGMENT_CAPACITY);
+                size = 0;
+                clockHand = 0;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package andre.chamis.healthproject.cache;
+
+import java.util.function.Consumer;
+
+/**
+ * Operations shared by every in-memory cache, regardless of how it stores its entries.
+ * <p>
+ * Used by maintenance jobs and admin endpoints that need to act on all caches at once.
+ */
+public interface ManagedCache {
+    /**
+     * Retrieves the name used to identify the cache in logs and statistics.
+     *
+     * @return The name of the cache.
+     */
+    default String getName() {
+        return getClass().getSimpleName();
+    }
+
+    /**
+     * Removes every expired entry from the cache.
+     *
+     * @return The number of entries removed.
+     */
+    int evictExpired();
+
+    /**
+     * Retrieves the size of the cache.
+     *
+     * @return The number of entries in the cache.
+     */
+    int getSize();
+
+    /**
+     * Retrieves the maximum number of entries the cache can hold.
+     *
+     * @return The maximum size of the cache, or a negative value if the cache is unbounded.
+     */
+    int getMaxSize();
+
+    /**
+     * Retrieves the usage counters of the cache.
+     *
+     * @return The statistics of the cache.
+     */
+    CacheStatistics getStatistics();
+
+    /**
+     * Retrieves the memory the cache holds outside the Java heap.
+     *
+     * @return The number of bytes allocated off-heap, or 0 if the cache stores its entries on the heap.
+     */
+    default long getOffHeapBytes() {
+        return 0;
+    }
+
+    /**
+     * Checks whether the cache holds copies of shared data that other instances may change, and must therefore take
+     * part in cross-instance invalidation.
+     *
+     * @return {@code true} if writes to this cache must be published to other instances.
+     */
+    default boolean isInvalidatedAcrossInstances() {
+        return true;
+    }
+
+    /**
+     * Drops an entry because another instance changed it. Unlike removing it, this is not published again.
+     *
+     * @param key The key of the entry, as a string.
+     */
+    void invalidate(String key);
+
+    /**
+     * Sets the function called with the key of every entry stored with {@code put} or removed. Bulk loads, entries
+     * loaded after a miss, evictions and expirations are not published.
+     *
+     * @param invalidationPublisher The function that publishes a key to other instances.
+     */
+    void setInvalidationPublisher(Consumer<String> invalidationPublisher);
+}
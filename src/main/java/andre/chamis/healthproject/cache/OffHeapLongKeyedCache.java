@@ -0,0 +1,653 @@
+package andre.chamis.healthproject.cache;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * An abstract cache for primitive {@code long} keys that keeps its entries outside the Java heap.
+ * <p>
+ * Every entry is a fixed-width record in a direct {@link ByteBuffer}: the key, the expiration and the fields written
+ * by a {@link FixedWidthCodec}. The garbage collector sees one buffer per segment instead of an object graph per
+ * entry, so a large cache of long-lived entries adds nothing to collection work. Values are rebuilt by the codec on
+ * every read, so callers always get a copy: changing it does not change the cache.
+ * <p>
+ * Otherwise, it works like {@link LongKeyedInMemoryCache}: segments guarded by their own {@link StampedLock}, linear
+ * probing with backward-shift deletion, CLOCK eviction when bounded, statistics, shared loads and invalidation across
+ * instances. Segments start small and double up to the bound; the buffer replaced by a resize is freed once it is
+ * collected. The memory held by the buffers is reported by {@link #getOffHeapBytes()}.
+ *
+ * @param <ValueType> The type of values stored in the cache.
+ */
+public abstract class OffHeapLongKeyedCache<ValueType> implements ManagedCache {
+    private static final int SEGMENT_COUNT = 16;
+    private static final int SEGMENT_SHIFT = Integer.SIZE - Integer.numberOfTrailingZeros(SEGMENT_COUNT);
+    private static final int INITIAL_SEGMENT_CAPACITY = 16;
+    private static final float LOAD_FACTOR = 0.75f;
+    private static final long NEVER_EXPIRES = Long.MAX_VALUE;
+
+    private static final int KEY_OFFSET = 0;
+    private static final int EXPIRES_AT_OFFSET = 8;
+    private static final int STATE_OFFSET = 16;
+    private static final int ACCESSED_OFFSET = 17;
+    private static final int HEADER_WIDTH = 24;
+    private static final byte EMPTY = 0;
+    private static final byte USED = 1;
+
+    private final ToLongFunction<ValueType> keyExtractorFunction;
+    private final Function<ValueType, Instant> expirationFunction;
+    private final FixedWidthCodec<ValueType> codec;
+    private final int slotWidth;
+    private final int maxSize;
+    private final Segment[] segments;
+    private final CacheStatistics statistics = new CacheStatistics();
+    private final SingleFlightLoader<Long, ValueType> singleFlightLoader = new SingleFlightLoader<>(statistics);
+    private volatile Consumer<String> invalidationPublisher = key -> {
+    };
+
+    /**
+     * Constructs an OffHeapLongKeyedCache.
+     *
+     * @param keyExtractorFunction The function to extract keys from values.
+     * @param maxSize              The maximum number of entries kept in the cache, or a negative value for an
+     *                             unbounded cache.
+     * @param expirationFunction   The function that computes when a value expires. It may return {@code null}
+     *                             for values that never expire.
+     * @param codec                The codec that stores the remaining fields of the values.
+     */
+    public OffHeapLongKeyedCache(
+            ToLongFunction<ValueType> keyExtractorFunction,
+            int maxSize,
+            Function<ValueType, Instant> expirationFunction,
+            FixedWidthCodec<ValueType> codec
+    ) {
+        this.keyExtractorFunction = keyExtractorFunction;
+        this.expirationFunction = expirationFunction;
+        this.codec = codec;
+        this.slotWidth = HEADER_WIDTH + (codec.width() + Long.BYTES - 1) / Long.BYTES * Long.BYTES;
+        this.maxSize = maxSize;
+
+        int maxEntriesPerSegment;
+        if (maxSize < 0) {
+            maxEntriesPerSegment = Integer.MAX_VALUE;
+        } else if (maxSize == 0) {
+            maxEntriesPerSegment = 0;
+        } else {
+            maxEntriesPerSegment = Math.max(1, maxSize / SEGMENT_COUNT);
+        }
+        @SuppressWarnings("unchecked")
+        Segment[] segments = (Segment[]) new OffHeapLongKeyedCache<?>.Segment[SEGMENT_COUNT];
+        this.segments = segments;
+        for (int i = 0; i < SEGMENT_COUNT; i++) {
+            segments[i] = new Segment(maxEntriesPerSegment);
+        }
+    }
+
+    private Segment segmentFor(int hash) {
+        return segments[hash >>> SEGMENT_SHIFT];
+    }
+
+    private long getExpiresAtMillis(ValueType value) {
+        Instant expiresAt = expirationFunction.apply(value);
+        return expiresAt == null ? NEVER_EXPIRES : expiresAt.toEpochMilli();
+    }
+
+    private static boolean isExpired(long expiresAtMillis, long nowMillis) {
+        return nowMillis >= expiresAtMillis;
+    }
+
+    /**
+     * Adds a value to the cache, evicting another entry of the same segment if it is full.
+     *
+     * @param value The value to store in the cache.
+     */
+    public void put(ValueType value) {
+        long key = keyExtractorFunction.applyAsLong(value);
+        singleFlightLoader.cancel(key);
+        store(value);
+        invalidationPublisher.accept(Long.toString(key));
+    }
+
+    /**
+     * Replaces a value that is still in the cache, atomically with respect to removals. Unlike
+     * {@link #getIfPresent(long)} followed by {@link #put(Object)}, an entry removed in between is not added back.
+     * <p>
+     * The replacement is not published. Meant for changes other instances do not need to see right away, such as a
+     * later expiration: an instance holding the previous value drops it when it expires and loads the new one.
+     *
+     * @param value The new value.
+     * @return {@code true} if the value was replaced, {@code false} if its key was not cached or had expired.
+     */
+    public boolean replaceIfPresent(ValueType value) {
+        long key = keyExtractorFunction.applyAsLong(value);
+        int hash = LongKeyedInMemoryCache.hash(key);
+        if (!segmentFor(hash).replace(key, hash, value, getExpiresAtMillis(value))) {
+            return false;
+        }
+
+        singleFlightLoader.cancel(key);
+        return true;
+    }
+
+    private void store(ValueType value) {
+        long key = keyExtractorFunction.applyAsLong(value);
+        int hash = LongKeyedInMemoryCache.hash(key);
+        segmentFor(hash).put(key, hash, value, getExpiresAtMillis(value));
+    }
+
+    /**
+     * Retrieves a copy of a value from the cache.
+     *
+     * @param key The key of the value to retrieve.
+     * @return The value, or {@code null} if it is not cached or has expired.
+     */
+    public ValueType getIfPresent(long key) {
+        int hash = LongKeyedInMemoryCache.hash(key);
+        ValueType value = segmentFor(hash).get(key, hash);
+        if (value == null) {
+            statistics.recordMiss();
+        } else {
+            statistics.recordHit();
+        }
+
+        return value;
+    }
+
+    /**
+     * Retrieves a value from the cache, loading and caching it when it is not found. Concurrent misses for the same
+     * key wait for a single call to the loader, whose time is recorded in the cache statistics.
+     *
+     * @param key    The key of the value to retrieve.
+     * @param loader The function that loads the value from the backing store.
+     * @return An {@link Optional} containing the cached or loaded value, or empty if the loader found nothing.
+     */
+    public Optional<ValueType> getOrLoad(long key, Function<Long, Optional<ValueType>> loader) {
+        ValueType valueFromCache = getIfPresent(key);
+        if (valueFromCache != null) {
+            return Optional.of(valueFromCache);
+        }
+
+        return singleFlightLoader.load(key, loader, this::storeLoaded);
+    }
+
+    /**
+     * Stores the result of a load without publishing it, as it matches what other instances would load. A value
+     * that no longer exists is removed.
+     *
+     * @param key         The key that was loaded.
+     * @param loadedValue The loaded value.
+     */
+    private void storeLoaded(long key, Optional<ValueType> loadedValue) {
+        if (loadedValue.isPresent()) {
+            store(loadedValue.get());
+            return;
+        }
+
+        int hash = LongKeyedInMemoryCache.hash(key);
+        segmentFor(hash).remove(key, hash);
+    }
+
+    /**
+     * Retrieves a copy of a value from the cache based on the provided key.
+     *
+     * @param key The key of the value to retrieve.
+     * @return An {@link Optional} containing the value if found, or empty if not found.
+     */
+    public Optional<ValueType> get(long key) {
+        return Optional.ofNullable(getIfPresent(key));
+    }
+
+    /**
+     * Checks if the cache contains a specific, non-expired key.
+     *
+     * @param key The key to check for existence in the cache.
+     * @return {@code true} if the key is found, otherwise {@code false}.
+     */
+    public boolean containsKey(long key) {
+        return getIfPresent(key) != null;
+    }
+
+    /**
+     * Removes a value from the cache.
+     *
+     * @param key The key of the value to remove from the cache.
+     */
+    public void remove(long key) {
+        singleFlightLoader.cancel(key);
+        int hash = LongKeyedInMemoryCache.hash(key);
+        segmentFor(hash).remove(key, hash);
+        invalidationPublisher.accept(Long.toString(key));
+    }
+
+    @Override
+    public void invalidate(String key) {
+        long parsedKey = Long.parseLong(key);
+        singleFlightLoader.cancel(parsedKey);
+        int hash = LongKeyedInMemoryCache.hash(parsedKey);
+        segmentFor(hash).remove(parsedKey, hash);
+    }
+
+    @Override
+    public void setInvalidationPublisher(Consumer<String> invalidationPublisher) {
+        this.invalidationPublisher = invalidationPublisher;
+    }
+
+    /**
+     * Initializes the cache with a list of values, releasing the memory held by the previous entries.
+     *
+     * @param values The list of values to populate the cache with.
+     */
+    public void initializeCache(List<ValueType> values) {
+        singleFlightLoader.cancelAll();
+        for (Segment segment : segments) {
+            segment.clear();
+        }
+
+        addMultiple(values);
+    }
+
+    /**
+     * Adds multiple values to the cache. Values that are already expired are not added.
+     *
+     * @param values The list of values to add to the cache.
+     */
+    public void addMultiple(List<ValueType> values) {
+        long now = System.currentTimeMillis();
+        for (ValueType value : values) {
+            long expiresAt = getExpiresAtMillis(value);
+            if (isExpired(expiresAt, now)) {
+                continue;
+            }
+
+            long key = keyExtractorFunction.applyAsLong(value);
+            int hash = LongKeyedInMemoryCache.hash(key);
+            segmentFor(hash).put(key, hash, value, expiresAt);
+        }
+    }
+
+    /**
+     * Deletes multiple values from the cache.
+     *
+     * @param values The list of values to delete from the cache.
+     */
+    public void deleteFromList(List<ValueType> values) {
+        for (ValueType value : values) {
+            remove(keyExtractorFunction.applyAsLong(value));
+        }
+    }
+
+    @Override
+    public int evictExpired() {
+        long now = System.currentTimeMillis();
+        int evicted = 0;
+        for (Segment segment : segments) {
+            evicted += segment.evictExpired(now);
+        }
+
+        statistics.recordExpirations(evicted);
+        return evicted;
+    }
+
+    @Override
+    public int getSize() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size;
+        }
+
+        return size;
+    }
+
+    @Override
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    @Override
+    public CacheStatistics getStatistics() {
+        return statistics;
+    }
+
+    @Override
+    public long getOffHeapBytes() {
+        long bytes = 0;
+        for (Segment segment : segments) {
+            bytes += segment.table.buffer.capacity();
+        }
+
+        return bytes;
+    }
+
+    /**
+     * A linear-probing hash table of fixed-width slots in a direct buffer. Each slot holds the key, the expiration,
+     * whether it is used, its clock bit and the record written by the codec.
+     */
+    private final class Table {
+        private final ByteBuffer buffer;
+        private final int mask;
+        private final int threshold;
+
+        private Table(int capacity) {
+            buffer = ByteBuffer.allocateDirect(Math.multiplyExact(capacity, slotWidth));
+            mask = capacity - 1;
+            threshold = (int) (capacity * LOAD_FACTOR);
+        }
+
+        private int capacity() {
+            return mask + 1;
+        }
+
+        private int offset(int slot) {
+            return slot * slotWidth;
+        }
+
+        private boolean isUsed(int slot) {
+            return buffer.get(offset(slot) + STATE_OFFSET) == USED;
+        }
+
+        private long key(int slot) {
+            return buffer.getLong(offset(slot) + KEY_OFFSET);
+        }
+
+        private long expiresAt(int slot) {
+            return buffer.getLong(offset(slot) + EXPIRES_AT_OFFSET);
+        }
+
+        private boolean isAccessed(int slot) {
+            return buffer.get(offset(slot) + ACCESSED_OFFSET) != 0;
+        }
+
+        private void setAccessed(int slot, boolean accessed) {
+            buffer.put(offset(slot) + ACCESSED_OFFSET, accessed ? (byte) 1 : 0);
+        }
+
+        private ValueType read(int slot) {
+            return codec.read(key(slot), expiresAt(slot), buffer, offset(slot) + HEADER_WIDTH);
+        }
+
+        /**
+         * Finds the slot holding a key. The probe is bounded by the table length, so a reader racing a writer
+         * always terminates; such a read is discarded by the caller when its stamp fails validation.
+         *
+         * @return The slot index, or {@code -1} if the key is not in the table.
+         */
+        private int find(long key, int hash) {
+            int slot = hash & mask;
+            for (int probes = 0; probes <= mask; probes++) {
+                if (!isUsed(slot)) {
+                    return -1;
+                }
+
+                if (key(slot) == key) {
+                    return slot;
+                }
+
+                slot = (slot + 1) & mask;
+            }
+
+            return -1;
+        }
+
+        private void write(int slot, ValueType value, long expiresAtMillis) {
+            buffer.putLong(offset(slot) + EXPIRES_AT_OFFSET, expiresAtMillis);
+            codec.write(value, buffer, offset(slot) + HEADER_WIDTH);
+        }
+
+        private int freeSlotFor(int hash) {
+            int slot = hash & mask;
+            while (isUsed(slot)) {
+                slot = (slot + 1) & mask;
+            }
+
+            return slot;
+        }
+
+        private void insert(long key, int hash, ValueType value, long expiresAtMillis) {
+            int slot = freeSlotFor(hash);
+            buffer.putLong(offset(slot) + KEY_OFFSET, key);
+            write(slot, value, expiresAtMillis);
+            setAccessed(slot, false);
+            buffer.put(offset(slot) + STATE_OFFSET, USED);
+        }
+
+        /**
+         * Copies a slot of another table, as is, into this one.
+         */
+        private void insertCopy(Table source, int sourceSlot) {
+            int slot = freeSlotFor(LongKeyedInMemoryCache.hash(source.key(sourceSlot)));
+            buffer.put(offset(slot), source.buffer, source.offset(sourceSlot), slotWidth);
+        }
+
+        /**
+         * Deletes the entry at a slot using backward-shift deletion, so no tombstones are needed.
+         */
+        private void deleteAt(int slot) {
+            int free = slot;
+            int next = slot;
+            while (true) {
+                next = (next + 1) & mask;
+                if (!isUsed(next)) {
+                    break;
+                }
+
+                int home = LongKeyedInMemoryCache.hash(key(next)) & mask;
+                boolean homeBetweenFreeAndNext = free <= next
+                        ? free < home && home <= next
+                        : free < home || home <= next;
+                if (homeBetweenFreeAndNext) {
+                    continue;
+                }
+
+                buffer.put(offset(free), buffer, offset(next), slotWidth);
+                free = next;
+            }
+
+            buffer.put(offset(free) + STATE_OFFSET, EMPTY);
+            setAccessed(free, false);
+        }
+    }
+
+    /**
+     * A slice of the cache with its own table and lock.
+     */
+    private final class Segment {
+        private final StampedLock lock = new StampedLock();
+        private final int maxEntries;
+        private volatile Table table = new Table(INITIAL_SEGMENT_CAPACITY);
+        private volatile int size;
+        private int clockHand;
+
+        private Segment(int maxEntries) {
+            this.maxEntries = maxEntries;
+        }
+
+        private ValueType get(long key, int hash) {
+            long stamp = lock.tryOptimisticRead();
+            if (stamp != 0) {
+                Table table = this.table;
+                int slot = table.find(key, hash);
+                ValueType value = slot < 0 ? null : readIfLive(table, slot);
+                if (lock.validate(stamp)) {
+                    markAccessed(table, slot, value);
+                    return value;
+                }
+            }
+
+            stamp = lock.readLock();
+            try {
+                Table table = this.table;
+                int slot = table.find(key, hash);
+                ValueType value = slot < 0 ? null : readIfLive(table, slot);
+                markAccessed(table, slot, value);
+                return value;
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        /**
+         * Rebuilds the value at a slot, unless it expired. Expired entries are left in place for the next write or
+         * sweep to remove.
+         */
+        private ValueType readIfLive(Table table, int slot) {
+            long expiresAt = table.expiresAt(slot);
+            if (expiresAt != NEVER_EXPIRES && isExpired(expiresAt, System.currentTimeMillis())) {
+                return null;
+            }
+
+            return table.read(slot);
+        }
+
+        /**
+         * Sets the clock bit of an entry that is returned. Done without the write lock, like
+         * {@link LongKeyedInMemoryCache}: a bit lost to a concurrent write only makes the entry a candidate for
+         * eviction one round earlier.
+         */
+        private void markAccessed(Table table, int slot, ValueType value) {
+            if (value != null && !table.isAccessed(slot)) {
+                table.setAccessed(slot, true);
+            }
+        }
+
+        private void put(long key, int hash, ValueType value, long expiresAtMillis) {
+            long stamp = lock.writeLock();
+            try {
+                Table table = this.table;
+                int slot = table.find(key, hash);
+                if (slot >= 0) {
+                    table.write(slot, value, expiresAtMillis);
+                    return;
+                }
+
+                if (size >= maxEntries && !evictOne()) {
+                    return;
+                }
+
+                if (size + 1 > table.threshold) {
+                    table = resize(table);
+                }
+
+                table.insert(key, hash, value, expiresAtMillis);
+                size++;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        private boolean replace(long key, int hash, ValueType value, long expiresAtMillis) {
+            long stamp = lock.writeLock();
+            try {
+                Table table = this.table;
+                int slot = table.find(key, hash);
+                if (slot < 0 || isExpired(table.expiresAt(slot), System.currentTimeMillis())) {
+                    return false;
+                }
+
+                table.write(slot, value, expiresAtMillis);
+                return true;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        private void remove(long key, int hash) {
+            long stamp = lock.writeLock();
+            try {
+                Table table = this.table;
+                int slot = table.find(key, hash);
+                if (slot >= 0) {
+                    table.deleteAt(slot);
+                    size--;
+                }
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        /**
+         * Evicts one entry using the CLOCK policy, as {@link LongKeyedInMemoryCache} does. Must hold the write lock.
+         *
+         * @return {@code true} if an entry was evicted.
+         */
+        private boolean evictOne() {
+            Table table = this.table;
+            int capacity = table.capacity();
+            long now = System.currentTimeMillis();
+
+            for (int scanned = 0; scanned < 2 * capacity; scanned++) {
+                int slot = clockHand;
+                if (table.isUsed(slot)) {
+                    boolean isExpired = isExpired(table.expiresAt(slot), now);
+                    if (isExpired || !table.isAccessed(slot)) {
+                        table.deleteAt(slot);
+                        size--;
+                        if (isExpired) {
+                            statistics.recordExpirations(1);
+                        } else {
+                            statistics.recordEviction();
+                        }
+                        return true;
+                    }
+
+                    table.setAccessed(slot, false);
+                }
+
+                clockHand = (slot + 1) & table.mask;
+            }
+
+            return false;
+        }
+
+        private Table resize(Table table) {
+            Table resized = new Table(table.capacity() * 2);
+            for (int slot = 0; slot < table.capacity(); slot++) {
+                if (table.isUsed(slot)) {
+                    resized.insertCopy(table, slot);
+                }
+            }
+
+            this.table = resized;
+            clockHand = 0;
+            return resized;
+        }
+
+        private int evictExpired(long now) {
+            long stamp = lock.writeLock();
+            try {
+                Table table = this.table;
+                int evicted = 0;
+                int slot = 0;
+                while (slot < table.capacity()) {
+                    if (table.isUsed(slot) && isExpired(table.expiresAt(slot), now)) {
+                        // Backward shift may move another entry into this slot, so look at it again
+                        table.deleteAt(slot);
+                        size--;
+                        evicted++;
+                    } else {
+                        slot++;
+                    }
+                }
+
+                return evicted;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        private void clear() {
+            long stamp = lock.writeLock();
+            try {
+                table = new Table(INITIAL_SEGMENT_CAPACITY);
+                size = 0;
+                clockHand = 0;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package andre.chamis.healthproject.cache;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Coordinates the loads of a cache so that concurrent misses for the same key share a single call to the loader.
+ * <p>
+ * The first thread to miss a key runs the loader; the others wait for its result. A write to the key while a load
+ * is in flight cancels it: the loaded value is still returned to the threads waiting for it, but it is not stored,
+ * so a load that read the database before the write never overwrites the newer state.
+ * <p>
+ * Loads can also run in the background to refresh an entry before it expires (refresh-ahead). Those run on a small
+ * shared pool and are dropped when the pool is saturated, as the entry is still served until it expires.
+ *
+ * @param <KeyType>   The type of keys used in the cache.
+ * @param <ValueType> The type of values stored in the cache.
+ */
+@Slf4j
+final class SingleFlightLoader<KeyType, ValueType> {
+    private static final ThreadPoolExecutor REFRESH_EXECUTOR = createRefreshExecutor();
+
+    private final Map<KeyType, CompletableFuture<Optional<ValueType>>> inFlightLoads = new ConcurrentHashMap<>();
+    private final CacheStatistics statistics;
+
+    SingleFlightLoader(CacheStatistics statistics) {
+        this.statistics = statistics;
+    }
+
+    private static ThreadPoolExecutor createRefreshExecutor() {
+        AtomicInteger threadCount = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                2,
+                2,
+                60,
+                TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(1_024),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "cache-refresh-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+        );
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Loads the value of a key, or waits for the load already in flight for it.
+     *
+     * @param key      The key to load.
+     * @param loader   The function that loads the value from the backing store.
+     * @param onLoaded Called with the key and the loaded value if no write to the key happened during the load.
+     *                 Runs while the key is locked against writers, so it must only update the cache.
+     * @return The loaded value.
+     */
+    Optional<ValueType> load(
+            KeyType key,
+            Function<KeyType, Optional<ValueType>> loader,
+            BiConsumer<KeyType, Optional<ValueType>> onLoaded
+    ) {
+        while (true) {
+            CompletableFuture<Optional<ValueType>> future = new CompletableFuture<>();
+            CompletableFuture<Optional<ValueType>> inFlightLoad = inFlightLoads.putIfAbsent(key, future);
+            if (inFlightLoad == null) {
+                return run(key, loader, onLoaded, future);
+            }
+
+            statistics.recordSharedLoad();
+            Optional<ValueType> sharedValue = await(inFlightLoad);
+            if (sharedValue != null) {
+                return sharedValue;
+            }
+            // The in-flight load was a refresh that could not be scheduled, load again
+        }
+    }
+
+    /**
+     * Reloads the value of a key in the background, unless a load for it is already in flight.
+     *
+     * @param key      The key to reload.
+     * @param loader   The function that loads the value from the backing store.
+     * @param onLoaded Called with the key and the loaded value, see {@link #load}.
+     */
+    void refresh(
+            KeyType key,
+            Function<KeyType, Optional<ValueType>> loader,
+            BiConsumer<KeyType, Optional<ValueType>> onLoaded
+    ) {
+        if (inFlightLoads.containsKey(key)) {
+            return;
+        }
+
+        CompletableFuture<Optional<ValueType>> future = new CompletableFuture<>();
+        if (inFlightLoads.putIfAbsent(key, future) != null) {
+            return;
+        }
+
+        try {
+            REFRESH_EXECUTOR.execute(() -> {
+                try {
+                    run(key, loader, onLoaded, future);
+                } catch (RuntimeException e) {
+                    log.warn("Failed to refresh cache entry [{}]", key, e);
+                }
+            });
+            statistics.recordRefresh();
+        } catch (RejectedExecutionException e) {
+            inFlightLoads.remove(key, future);
+            future.complete(null);
+        }
+    }
+
+    /**
+     * Cancels the load in flight for a key, if any, so its result is not stored. Must be called by every write.
+     *
+     * @param key The key that was written.
+     */
+    void cancel(KeyType key) {
+        if (!inFlightLoads.isEmpty()) {
+            inFlightLoads.remove(key);
+        }
+    }
+
+    /**
+     * Cancels every load in flight.
+     */
+    void cancelAll() {
+        inFlightLoads.clear();
+    }
+
+    private Optional<ValueType> run(
+            KeyType key,
+            Function<KeyType, Optional<ValueType>> loader,
+            BiConsumer<KeyType, Optional<ValueType>> onLoaded,
+            CompletableFuture<Optional<ValueType>> future
+    ) {
+        long loadStart = System.nanoTime();
+        Optional<ValueType> loadedValue;
+        try {
+            loadedValue = loader.apply(key);
+        } catch (RuntimeException | Error e) {
+            statistics.recordLoad(System.nanoTime() - loadStart, false);
+            inFlightLoads.remove(key, future);
+            future.completeExceptionally(e);
+            throw e;
+        }
+
+        statistics.recordLoad(System.nanoTime() - loadStart, true);
+        inFlightLoads.computeIfPresent(key, (inFlightKey, inFlightLoad) -> {
+            if (inFlightLoad != future) {
+                return inFlightLoad;
+            }
+
+            onLoaded.accept(key, loadedValue);
+            return null;
+        });
+        future.complete(loadedValue);
+
+        return loadedValue;
+    }
+
+    /**
+     * Waits for a load in flight, rethrowing its failure.
+     *
+     * @return The loaded value, or {@code null} if the load did not run.
+     */
+    private Optional<ValueType> await(CompletableFuture<Optional<ValueType>> inFlightLoad) {
+        try {
+            return inFlightLoad.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package andre.chamis.healthproject.cache.invalidation;
+
+import andre.chamis.healthproject.cache.ManagedCache;
+import jakarta.annotation.PostConstruct;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Keeps the in-memory caches of every running instance consistent.
+ * <p>
+ * Every {@link ManagedCache} that is {@link ManagedCache#isInvalidatedAcrossInstances() shared across instances}
+ * publishes the keys it writes or removes through the configured {@link CacheInvalidationChannel}. When another
+ * instance publishes a key, the local entry is dropped, so the next read loads the current value from the database.
+ * Messages may arrive more than once; dropping an entry is idempotent.
+ * <p>
+ * Notices that other instances must act on, rather than drop a cache entry for, are published under a name of their
+ * own and delivered to the listener registered for that name with {@link #subscribe}.
+ * <p>
+ * The latency of each applied message is measured from its publication, using the publisher's clock, so it also
+ * reflects clock skew between hosts.
+ */
+@Slf4j
+@Component
+public class CacheInvalidationBus {
+    private final CacheInvalidationChannel channel;
+    private final List<ManagedCache> caches;
+    private final Map<String, ManagedCache> cachesByName = new ConcurrentHashMap<>();
+    private final Map<String, Consumer<String>> listenersByName = new ConcurrentHashMap<>();
+
+    /**
+     * The identifier of this instance, used to skip the messages it published itself.
+     */
+    @Getter
+    private final String instanceId = UUID.randomUUID().toString();
+
+    private final LongAdder publishedMessages = new LongAdder();
+    private final LongAdder appliedMessages = new LongAdder();
+    private final LongAdder unknownCacheMessages = new LongAdder();
+    private final LongAdder totalLatencyMillis = new LongAdder();
+    private final LongAccumulator maxLatencyMillis = new LongAccumulator(Math::max, 0);
+
+    public CacheInvalidationBus(CacheInvalidationChannel channel, List<ManagedCache> caches) {
+        this.channel = channel;
+        this.caches = caches;
+    }
+
+    /**
+     * Connects every shared cache to the channel.
+     */
+    @PostConstruct
+    public void connectCaches() {
+        for (ManagedCache cache : caches) {
+            if (!cache.isInvalidatedAcrossInstances()) {
+                continue;
+            }
+
+            cachesByName.put(cache.getName(), cache);
+            cache.setInvalidationPublisher(key -> publish(cache.getName(), key));
+        }
+
+        channel.subscribe(this::onMessage);
+        log.info("Cache invalidation bus connected [{} caches] as instance [{}]", cachesByName.size(), instanceId);
+    }
+
+    /**
+     * Registers the listener of the messages published under a name that is not a cache. Only messages of other
+     * instances are delivered to it.
+     *
+     * @param name     The name the messages are published under.
+     * @param listener The consumer of the key of each message.
+     */
+    public void subscribe(String name, Consumer<String> listener) {
+        listenersByName.put(name, listener);
+    }
+
+    /**
+     * Publishes that an entry changed, so the other instances drop it, or a notice for the listeners registered
+     * under {@code cacheName}.
+     *
+     * @param cacheName The name of the cache holding the entry, or of the listeners of the notice.
+     * @param key       The key of the entry.
+     */
+    public void publish(String cacheName, String key) {
+        channel.publish(new CacheInvalidationMessage(0, cacheName, key, instanceId, System.currentTimeMillis()));
+        publishedMessages.increment();
+    }
+
+    /**
+     * Applies a message delivered by the channel. Messages published by this instance are ignored.
+     *
+     * @param message The delivered message.
+     */
+    private void onMessage(CacheInvalidationMessage message) {
+        if (instanceId.equals(message.originInstanceId())) {
+            return;
+        }
+
+        ManagedCache cache = cachesByName.get(message.cacheName());
+        Consumer<String> listener = listenersByName.get(message.cacheName());
+        if (cache != null) {
+            cache.invalidate(message.key());
+        } else if (listener != null) {
+            listener.accept(message.key());
+        } else {
+            unknownCacheMessages.increment();
+            log.warn("Received cache invalidation for unknown cache [{}]", message.cacheName());
+            return;
+        }
+
+        long latencyMillis = Math.max(0, System.currentTimeMillis() - message.publishedAtMillis());
+        appliedMessages.increment();
+        totalLatencyMillis.add(latencyMillis);
+        maxLatencyMillis.accumulate(latencyMillis);
+    }
+
+    /**
+     * Deletes messages kept for redelivery that are older than the given instant.
+     *
+     * @param publishedBefore The instant before which messages are deleted.
+     * @return The number of messages deleted.
+     */
+    public int purgeMessagesPublishedBefore(Instant publishedBefore) {
+        return channel.purgeMessagesPublishedBefore(publishedBefore);
+    }
+
+    public long getPublishedMessages() {
+        return publishedMessages.sum();
+    }
+
+    public long getAppliedMessages() {
+        return appliedMessages.sum();
+    }
+
+    public long getUnknownCacheMessages() {
+        return unknownCacheMessages.sum();
+    }
+
+    public long getMaxLatencyMillis() {
+        return maxLatencyMillis.get();
+    }
+
+    /**
+     * Calculates the average time between the publication of a message and its application on this instance.
+     *
+     * @return The average latency in milliseconds, or 0 if no message was applied.
+     */
+    public double getAverageLatencyMillis() {
+        long applied = getAppliedMessages();
+        return applied == 0 ? 0 : (double) totalLatencyMillis.sum() / applied;
+    }
+}
@@ -0,0 +1,37 @@
+package andre.chamis.healthproject.cache.invalidation;
+
+import java.time.Instant;
+import java.util.function.Consumer;
+
+/**
+ * Transport carrying {@link CacheInvalidationMessage}s between application instances.
+ * <p>
+ * Implementations must deliver every published message to every subscriber at least once, including the instance
+ * that published it; duplicates and self-deliveries are filtered by {@link CacheInvalidationBus}.
+ */
+public interface CacheInvalidationChannel {
+    /**
+     * Publishes a message to every instance.
+     * <p>
+     * When called inside a transaction, implementations backed by the database deliver the message only once the
+     * transaction commits.
+     *
+     * @param message The message to publish.
+     */
+    void publish(CacheInvalidationMessage message);
+
+    /**
+     * Registers a consumer for every message delivered by the channel.
+     *
+     * @param subscriber The consumer of delivered messages.
+     */
+    void subscribe(Consumer<CacheInvalidationMessage> subscriber);
+
+    /**
+     * Deletes messages kept for redelivery that are older than the given instant.
+     *
+     * @param publishedBefore The instant before which messages are deleted.
+     * @return The number of messages deleted.
+     */
+    int purgeMessagesPublishedBefore(Instant publishedBefore);
+}
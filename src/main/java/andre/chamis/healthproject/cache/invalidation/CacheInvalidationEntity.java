@@ -0,0 +1,48 @@
+package andre.chamis.healthproject.cache.invalidation;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.Instant;
+
+/**
+ * Represents a message of the {@link PostgresCacheInvalidationChannel}, kept for redelivery until it is purged.
+ * <p>
+ * Only mapped so the table is managed with the rest of the schema; the channel reads and writes it with plain SQL.
+ */
+@Data
+@Entity
+@Table(name = "cache_invalidations")
+public class CacheInvalidationEntity {
+    /**
+     * The position of the message in the channel.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    /**
+     * The name of the cache the entry belongs to.
+     */
+    @Column(name = "cache_name", nullable = false)
+    private String cacheName;
+
+    /**
+     * The key of the entry, as a string.
+     */
+    @Column(name = "cache_key", nullable = false)
+    private String cacheKey;
+
+    /**
+     * The instance that published the message.
+     */
+    @Column(name = "origin_instance_id", nullable = false, length = 64)
+    private String originInstanceId;
+
+    /**
+     * When the message was published, by the publisher's clock.
+     */
+    @Column(name = "published_at", nullable = false)
+    private Instant publishedAt;
+}
@@ -0,0 +1,20 @@
+package andre.chamis.healthproject.cache.invalidation;
+
+/**
+ * A notice that an entry of a cache changed and must be dropped by every other instance.
+ *
+ * @param id                The position of the message in the channel, or {@code 0} if the channel does not number
+ *                          its messages.
+ * @param cacheName         The name of the cache the entry belongs to.
+ * @param key               The key of the entry, as a string.
+ * @param originInstanceId  The instance that published the message.
+ * @param publishedAtMillis The wall-clock time at which the message was published, in epoch milliseconds.
+ */
+public record CacheInvalidationMessage(
+        long id,
+        String cacheName,
+        String key,
+        String originInstanceId,
+        long publishedAtMillis
+) {
+}
@@ -0,0 +1,38 @@
+package andre.chamis.healthproject.cache.invalidation;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * A {@link CacheInvalidationChannel} that delivers messages to subscribers of the same process, synchronously.
+ * <p>
+ * Used when a single instance is running and in tests, where several buses can share one channel to stand in for
+ * several instances.
+ */
+@Component
+@ConditionalOnProperty(name = "cache.invalidation.channel", havingValue = "loopback", matchIfMissing = true)
+public class LoopbackCacheInvalidationChannel implements CacheInvalidationChannel {
+    private final List<Consumer<CacheInvalidationMessage>> subscribers = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(CacheInvalidationMessage message) {
+        for (Consumer<CacheInvalidationMessage> subscriber : subscribers) {
+            subscriber.accept(message);
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<CacheInvalidationMessage> subscriber) {
+        subscribers.add(subscriber);
+    }
+
+    @Override
+    public int purgeMessagesPublishedBefore(Instant publishedBefore) {
+        return 0;
+    }
+}
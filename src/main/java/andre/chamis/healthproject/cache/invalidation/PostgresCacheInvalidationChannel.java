@@ -0,0 +1,376 @@
+package andre.chamis.healthproject.cache.invalidation;
+
+import andre.chamis.healthproject.properties.CacheProperties;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.*;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * A {@link CacheInvalidationChannel} backed by Postgres.
+ * <p>
+ * Messages are appended to the {@code cache_invalidations} table, mapped by {@link CacheInvalidationEntity}, and
+ * announced with {@code NOTIFY}. Publishing only queues a message, so writes never wait for a round trip: a publisher
+ * thread inserts every queued message in one batch and sends a single notification per batch. A message published
+ * inside a transaction is only queued once the transaction commits, so other instances never see a message for a
+ * rolled back write. When the queue is full, the caller inserts its message itself. Messages still queued when the
+ * instance stops are written before it does; if the database is unreachable, a batch is retried at every poll
+ * interval.
+ * <p>
+ * {@code NOTIFY} alone is fire-and-forget: notifications sent while a listener is disconnected are lost. Here a
+ * notification is only a wake-up call. The listener thread reads every row after the last id it delivered, also
+ * when it reconnects and at every poll interval, so no message is missed (at-least-once delivery). Rows are kept
+ * for {@code cache.invalidation.retention} and then purged.
+ * <p>
+ * Ids are taken when a row is inserted, not when it is committed, so a row may become visible after a row with a
+ * higher id was already delivered. Skipped ids are therefore remembered and looked up again until they show up or
+ * {@link #GAP_TIMEOUT_MILLIS} passes, which means the transaction that took them was rolled back.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "cache.invalidation.channel", havingValue = "postgres")
+// The schema, including the message table, is created with the entity manager
+@DependsOn("entityManagerFactory")
+public class PostgresCacheInvalidationChannel implements CacheInvalidationChannel {
+    private static final String NOTIFICATION_CHANNEL = "cache_invalidations";
+    private static final int FETCH_SIZE = 500;
+    private static final int MAX_TRACKED_GAPS = 10_000;
+    private static final int MAX_QUEUED_MESSAGES = 10_000;
+    private static final int MAX_PUBLISH_BATCH_SIZE = 500;
+    private static final long GAP_TIMEOUT_MILLIS = 60_000;
+    private static final String INSERT_MESSAGE_QUERY = """
+            INSERT INTO cache_invalidations (cache_name, cache_key, origin_instance_id, published_at)
+            VALUES (:cacheName, :key, :originInstanceId, :publishedAt)
+            """;
+
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final DataSourceProperties dataSourceProperties;
+    private final CacheProperties cacheProperties;
+    private final PlatformTransactionManager transactionManager;
+    private final List<Consumer<CacheInvalidationMessage>> subscribers = new CopyOnWriteArrayList<>();
+    private final BlockingQueue<CacheInvalidationMessage> queuedMessages =
+            new ArrayBlockingQueue<>(MAX_QUEUED_MESSAGES);
+
+    private volatile boolean running;
+    private Thread listenerThread;
+    private Thread publisherThread;
+    private TransactionTemplate separateTransactionTemplate;
+    private long lastDeliveredId;
+
+    /**
+     * Ids skipped by the listener, mapped to when they were first skipped. Only used by the listener thread.
+     */
+    private final Map<Long, Long> pendingGaps = new LinkedHashMap<>();
+
+    /**
+     * Starts listening from the newest message, since the caches were just loaded from the database and older
+     * messages no longer apply, and starts the publisher thread.
+     */
+    @PostConstruct
+    void start() {
+        Long newestId = namedParameterJdbcTemplate.getJdbcTemplate()
+                .queryForObject("SELECT COALESCE(MAX(id), 0) FROM cache_invalidations", Long.class);
+        lastDeliveredId = newestId == null ? 0 : newestId;
+
+        separateTransactionTemplate = new TransactionTemplate(transactionManager);
+        separateTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        running = true;
+        listenerThread = new Thread(this::listen, "cache-invalidation-listener");
+        listenerThread.setDaemon(true);
+        listenerThread.start();
+
+        publisherThread = new Thread(this::publishQueuedMessages, "cache-invalidation-publisher");
+        publisherThread.setDaemon(true);
+        publisherThread.start();
+    }
+
+    /**
+     * Stops listening, then waits for the publisher thread to write the messages still queued.
+     *
+     * @throws InterruptedException If interrupted while waiting for the publisher thread.
+     */
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        listenerThread.interrupt();
+        publisherThread.interrupt();
+        publisherThread.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    @Override
+    public void publish(CacheInvalidationMessage message) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(message);
+                }
+            });
+        } else {
+            enqueue(message);
+        }
+    }
+
+    /**
+     * Queues a message for the publisher thread, or inserts it on the calling thread if the queue is full or the
+     * publisher has stopped. That insert runs in a transaction of its own, as the caller may be completing one.
+     */
+    private void enqueue(CacheInvalidationMessage message) {
+        if (!running || !queuedMessages.offer(message)) {
+            separateTransactionTemplate.executeWithoutResult(status -> insertMessages(List.of(message)));
+        }
+    }
+
+    /**
+     * Publisher loop: takes every queued message, up to {@link #MAX_PUBLISH_BATCH_SIZE}, and inserts them together.
+     * Keeps going until the queue is empty once stopped.
+     */
+    private void publishQueuedMessages() {
+        long pollIntervalMillis = cacheProperties.getInvalidation().getPollInterval().toMillis();
+        List<CacheInvalidationMessage> batch = new ArrayList<>(MAX_PUBLISH_BATCH_SIZE);
+        while (running || !queuedMessages.isEmpty() || !batch.isEmpty()) {
+            try {
+                if (batch.isEmpty()) {
+                    CacheInvalidationMessage first = queuedMessages.poll(pollIntervalMillis, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+
+                    batch.add(first);
+                    queuedMessages.drainTo(batch, MAX_PUBLISH_BATCH_SIZE - 1);
+                }
+
+                insertMessages(batch);
+                batch.clear();
+            } catch (InterruptedException e) {
+                // Interrupted to stop: the loop still writes the messages already queued
+            } catch (DataAccessException e) {
+                if (!running) {
+                    log.error("Could not publish [{} cache invalidations] while stopping", batch.size(), e);
+                    batch.clear();
+                    queuedMessages.clear();
+                    return;
+                }
+
+                log.warn(
+                        "Could not publish [{} cache invalidations], retrying in [{} ms]",
+                        batch.size(),
+                        pollIntervalMillis,
+                        e
+                );
+                try {
+                    Thread.sleep(pollIntervalMillis);
+                } catch (InterruptedException interruptedException) {
+                    // Interrupted to stop: the batch is retried once more
+                }
+            }
+        }
+    }
+
+    /**
+     * Inserts messages in one batch and wakes up the listeners with a single notification.
+     */
+    private void insertMessages(List<CacheInvalidationMessage> messages) {
+        SqlParameterSource[] batch = new SqlParameterSource[messages.size()];
+        for (int i = 0; i < batch.length; i++) {
+            CacheInvalidationMessage message = messages.get(i);
+            batch[i] = new MapSqlParameterSource()
+                    .addValue("cacheName", message.cacheName())
+                    .addValue("key", message.key())
+                    .addValue("originInstanceId", message.originInstanceId())
+                    .addValue("publishedAt", Timestamp.from(Instant.ofEpochMilli(message.publishedAtMillis())));
+        }
+
+        namedParameterJdbcTemplate.batchUpdate(INSERT_MESSAGE_QUERY, batch);
+        namedParameterJdbcTemplate.query(
+                "SELECT pg_notify(:notificationChannel, '')",
+                new MapSqlParameterSource("notificationChannel", NOTIFICATION_CHANNEL),
+                resultSet -> null
+        );
+    }
+
+    @Override
+    public void subscribe(Consumer<CacheInvalidationMessage> subscriber) {
+        subscribers.add(subscriber);
+    }
+
+    @Override
+    public int purgeMessagesPublishedBefore(Instant publishedBefore) {
+        return namedParameterJdbcTemplate.update(
+                "DELETE FROM cache_invalidations WHERE published_at < :publishedBefore",
+                new MapSqlParameterSource("publishedBefore", Timestamp.from(publishedBefore))
+        );
+    }
+
+    /**
+     * Listener loop: waits for notifications on a dedicated connection and delivers every new message. Connection
+     * failures are retried after the poll interval, resuming from the last delivered message.
+     */
+    private void listen() {
+        int pollIntervalMillis = (int) cacheProperties.getInvalidation().getPollInterval().toMillis();
+
+        while (running) {
+            try (Connection connection = openConnection()) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + NOTIFICATION_CHANNEL);
+                }
+
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    deliverNewMessages(connection);
+                    pgConnection.getNotifications(pollIntervalMillis);
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+
+                log.warn("Cache invalidation listener lost its connection, retrying in [{} ms]", pollIntervalMillis, e);
+                try {
+                    Thread.sleep(pollIntervalMillis);
+                } catch (InterruptedException interruptedException) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Opens a connection outside the pool, as it is held for as long as the application runs.
+     */
+    private Connection openConnection() throws SQLException {
+        return DriverManager.getConnection(
+                dataSourceProperties.determineUrl(),
+                dataSourceProperties.determineUsername(),
+                dataSourceProperties.determinePassword()
+        );
+    }
+
+    /**
+     * Reads and delivers every message after the last delivered one, in id order, then any skipped message that
+     * has since been committed.
+     */
+    private void deliverNewMessages(Connection connection) throws SQLException {
+        String query = """
+                SELECT id, cache_name, cache_key, origin_instance_id, published_at
+                FROM cache_invalidations
+                WHERE id > ?
+                ORDER BY id
+                LIMIT ?
+                """;
+
+        boolean hasMoreMessages = true;
+        while (hasMoreMessages) {
+            int delivered = 0;
+            try (PreparedStatement statement = connection.prepareStatement(query)) {
+                statement.setLong(1, lastDeliveredId);
+                statement.setInt(2, FETCH_SIZE);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        CacheInvalidationMessage message = readMessage(resultSet);
+                        trackGapsBefore(message.id());
+                        deliver(message);
+                        lastDeliveredId = message.id();
+                        delivered++;
+                    }
+                }
+            }
+
+            hasMoreMessages = delivered == FETCH_SIZE;
+        }
+
+        deliverLateMessages(connection);
+    }
+
+    /**
+     * Remembers the ids between the last delivered message and the next one, as they may still be committed.
+     */
+    private void trackGapsBefore(long id) {
+        long now = System.currentTimeMillis();
+        long firstMissingId = Math.max(lastDeliveredId + 1, id - MAX_TRACKED_GAPS);
+        for (long missingId = firstMissingId; missingId < id; missingId++) {
+            pendingGaps.putIfAbsent(missingId, now);
+        }
+
+        while (pendingGaps.size() > MAX_TRACKED_GAPS) {
+            pendingGaps.remove(pendingGaps.keySet().iterator().next());
+        }
+    }
+
+    /**
+     * Looks up skipped ids again, delivering the ones committed since and forgetting the ones that timed out.
+     */
+    private void deliverLateMessages(Connection connection) throws SQLException {
+        long now = System.currentTimeMillis();
+        pendingGaps.values().removeIf(firstSkippedAt -> now - firstSkippedAt > GAP_TIMEOUT_MILLIS);
+        if (pendingGaps.isEmpty()) {
+            return;
+        }
+
+        String query = """
+                SELECT id, cache_name, cache_key, origin_instance_id, published_at
+                FROM cache_invalidations
+                WHERE id = ANY(?)
+                """;
+
+        try (PreparedStatement statement = connection.prepareStatement(query)) {
+            statement.setArray(1, connection.createArrayOf("bigint", pendingGaps.keySet().toArray()));
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    CacheInvalidationMessage message = readMessage(resultSet);
+                    pendingGaps.remove(message.id());
+                    deliver(message);
+                }
+            }
+        }
+    }
+
+    private CacheInvalidationMessage readMessage(ResultSet resultSet) throws SQLException {
+        return new CacheInvalidationMessage(
+                resultSet.getLong("id"),
+                resultSet.getString("cache_name"),
+                resultSet.getString("cache_key"),
+                resultSet.getString("origin_instance_id"),
+                resultSet.getTimestamp("published_at").getTime()
+        );
+    }
+
+    private void deliver(CacheInvalidationMessage message) {
+        for (Consumer<CacheInvalidationMessage> subscriber : subscribers) {
+            try {
+                subscriber.accept(message);
+            } catch (RuntimeException e) {
+                log.error("Failed to apply cache invalidation [{}]", message, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package andre.chamis.healthproject.context;
+
+import andre.chamis.healthproject.domain.user.model.User;
+
+/**
+ * An immutable snapshot of the authenticated user, taken once per request when the access token is authorized, so
+ * the interceptors and services checking the user's state don't load it again.
+ * <p>
+ * It reflects the user as of authentication: changes made to the user later in the same request are not seen here.
+ * Code that changes the user must load it with {@code UserService.findCurrentUser()}.
+ *
+ * @param userId                 The ID of the user.
+ * @param username               The username of the user.
+ * @param email                  The email of the user.
+ * @param stripeClientId         The ID of the user's Stripe customer, if any.
+ * @param isActive               Whether the user is active.
+ * @param isRegistrationComplete Whether the user has completed registration.
+ * @param isPaymentActive        Whether the user has an active paid subscription.
+ * @param clockedIn              Whether the user is clocked in, or {@code null} if never clocked in.
+ * @param clockedInAt            The ID of the patient the user is clocked in at, if any.
+ */
+public record PrincipalSnapshot(
+        Long userId,
+        String username,
+        String email,
+        String stripeClientId,
+        boolean isActive,
+        boolean isRegistrationComplete,
+        boolean isPaymentActive,
+        Boolean clockedIn,
+        Long clockedInAt
+) {
+    /**
+     * Creates a {@link PrincipalSnapshot} instance from a {@link User}.
+     *
+     * @param user The authenticated user.
+     * @return A {@link PrincipalSnapshot} of the user's current state.
+     */
+    public static PrincipalSnapshot fromUser(User user) {
+        return new PrincipalSnapshot(
+                user.getUserId(),
+                user.getUsername(),
+                user.getEmail(),
+                user.getStripeClientId(),
+                user.isActive(),
+                user.isRegistrationComplete(),
+                user.isPaymentActive(),
+                user.getClockedIn(),
+                user.getClockedInAt()
+        );
+    }
+}
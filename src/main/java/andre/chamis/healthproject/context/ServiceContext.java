@@ -5,33 +5,42 @@ import lombok.extern.slf4j.Slf4j;
 import org.slf4j.MDC;
 
 import java.time.Instant;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
 
 /**
  * A utility class for managing contextual information within service operations.
+ * <p>
+ * Each thread reaches its context through a {@link ThreadLocal}, so no lock is taken to get it. A context is only
+ * seen by another thread when it is explicitly handed over with {@link #wrap(Runnable)}, {@link #wrap(Callable)} or
+ * {@link #propagating(Executor)}, as done for {@code @Async} methods; the messages and exceptions it collects may
+ * then be added from both threads, so they are kept in thread-safe lists.
  */
 @Data
 @Slf4j
 public class ServiceContext {
-    public static String EXECUTION_ID_KEY = "execution-id";
-    private static ThreadLocal<ServiceContext> threadLocal = new ThreadLocal<>();
+    public static final String EXECUTION_ID_KEY = "execution-id";
+    private static final ThreadLocal<ServiceContext> threadLocal = new ThreadLocal<>();
     private String executionId;
 
-    private List<String> metadataMessages = new ArrayList<>();
-    private List<Exception> exceptions = new ArrayList<>();
+    private List<String> metadataMessages = new CopyOnWriteArrayList<>();
+    private List<Exception> exceptions = new CopyOnWriteArrayList<>();
     private Instant startTime;
     private Instant endTime;
     private Long sessionId;
     private Long userId;
+    private PrincipalSnapshot principal;
 
     /**
      * Retrieves the current ServiceContext associated with the current thread. If no context exists, a new one is created.
      *
      * @return The current ServiceContext.
      */
-    public synchronized static ServiceContext getContext() {
+    public static ServiceContext getContext() {
         return getContext(null);
     }
 
@@ -42,7 +51,7 @@ public class ServiceContext {
      * @param executionId An optional execution ID to associate with the context.
      * @return The current ServiceContext.
      */
-    public synchronized static ServiceContext getContext(String executionId) {
+    public static ServiceContext getContext(String executionId) {
         ServiceContext context = threadLocal.get();
         if (context == null) {
             return createNewContext(executionId);
@@ -95,7 +104,7 @@ public class ServiceContext {
      *
      * @param ex The exception to add.
      */
-    public synchronized static void addException(Exception ex) {
+    public static void addException(Exception ex) {
         getContext().exceptions.add(ex);
     }
 
@@ -104,7 +113,76 @@ public class ServiceContext {
      *
      * @param message The message to add.
      */
-    public synchronized static void addMessage(String message) {
+    public static void addMessage(String message) {
         getContext().metadataMessages.add(message);
     }
+
+    /**
+     * Wraps a task so it runs with the context and logging context of the calling thread, restoring the ones of the
+     * running thread afterwards. Use it to hand work over to another thread, such as a forked or pooled thread.
+     *
+     * @param task The task to wrap.
+     * @return The wrapped task.
+     */
+    public static Runnable wrap(Runnable task) {
+        ServiceContext context = threadLocal.get();
+        Map<String, String> loggingContext = MDC.getCopyOfContextMap();
+        return () -> {
+            ServiceContext previousContext = threadLocal.get();
+            Map<String, String> previousLoggingContext = MDC.getCopyOfContextMap();
+            install(context, loggingContext);
+            try {
+                task.run();
+            } finally {
+                install(previousContext, previousLoggingContext);
+            }
+        };
+    }
+
+    /**
+     * Wraps a task so it runs with the context and logging context of the calling thread, see
+     * {@link #wrap(Runnable)}.
+     *
+     * @param task The task to wrap.
+     * @param <T>  The type of the result of the task.
+     * @return The wrapped task.
+     */
+    public static <T> Callable<T> wrap(Callable<T> task) {
+        ServiceContext context = threadLocal.get();
+        Map<String, String> loggingContext = MDC.getCopyOfContextMap();
+        return () -> {
+            ServiceContext previousContext = threadLocal.get();
+            Map<String, String> previousLoggingContext = MDC.getCopyOfContextMap();
+            install(context, loggingContext);
+            try {
+                return task.call();
+            } finally {
+                install(previousContext, previousLoggingContext);
+            }
+        };
+    }
+
+    /**
+     * Wraps an executor so every task submitted to it runs with the context of the thread that submitted it.
+     *
+     * @param executor The executor to wrap.
+     * @return The wrapped executor.
+     */
+    public static Executor propagating(Executor executor) {
+        return task -> executor.execute(wrap(task));
+    }
+
+    private static void install(ServiceContext context, Map<String, String> loggingContext) {
+        if (context == null) {
+            threadLocal.remove();
+        } else {
+            threadLocal.set(context);
+        }
+
+        if (loggingContext == null) {
+            MDC.clear();
+        } else {
+            MDC.setContextMap(loggingContext);
+        }
+    }
 }
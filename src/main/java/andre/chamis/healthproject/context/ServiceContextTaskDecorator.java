@@ -0,0 +1,20 @@
+package andre.chamis.healthproject.context;
+
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hands the {@link ServiceContext} of the calling thread over to {@code @Async} methods, such as
+ * {@code EmailService.sendSimpleMail}, so their logs carry the execution ID of the request that started them.
+ * <p>
+ * Picked up by the application task executor that runs {@code @Async} methods.
+ */
+@Component
+public class ServiceContextTaskDecorator implements TaskDecorator {
+    @NonNull
+    @Override
+    public Runnable decorate(@NonNull Runnable runnable) {
+        return ServiceContext.wrap(runnable);
+    }
+}
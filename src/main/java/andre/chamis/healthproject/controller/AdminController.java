@@ -0,0 +1,134 @@
+package andre.chamis.healthproject.controller;
+
+import andre.chamis.healthproject.domain.admin.dto.GetCacheInvalidationStatisticsDTO;
+import andre.chamis.healthproject.domain.admin.dto.GetCacheStatisticsDTO;
+import andre.chamis.healthproject.domain.admin.dto.GetGroupCommitStatisticsDTO;
+import andre.chamis.healthproject.domain.admin.dto.GetLoggingStatisticsDTO;
+import andre.chamis.healthproject.domain.admin.dto.GetPasswordHashingStatisticsDTO;
+import andre.chamis.healthproject.domain.admin.dto.GetRateLimitStatisticsDTO;
+import andre.chamis.healthproject.domain.admin.dto.GetRouteLatencyStatisticsDTO;
+import andre.chamis.healthproject.domain.admin.dto.GetSessionActivityStatisticsDTO;
+import andre.chamis.healthproject.domain.auth.annotation.AdminAuthenticated;
+import andre.chamis.healthproject.infra.request.response.ResponseMessage;
+import andre.chamis.healthproject.infra.request.response.ResponseMessageBuilder;
+import andre.chamis.healthproject.service.AdminService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * Controller class exposing the internal statistics of this instance to operators.
+ */
+@RestController
+@AdminAuthenticated
+@RequiredArgsConstructor
+@RequestMapping("/admin")
+public class AdminController {
+    private final AdminService adminService;
+
+    /**
+     * Retrieves hit, miss, load, eviction and size statistics of every in-memory cache.
+     *
+     * @return ResponseEntity containing the statistics of each cache.
+     */
+    @GetMapping("/caches")
+    public ResponseEntity<ResponseMessage<List<GetCacheStatisticsDTO>>> getCacheStatistics() {
+        List<GetCacheStatisticsDTO> cacheStatistics = adminService.getCacheStatistics();
+        return ResponseMessageBuilder.build(cacheStatistics, HttpStatus.OK);
+    }
+
+    /**
+     * Retrieves how many cache invalidations this instance published and applied, and how long they took to arrive.
+     *
+     * @return ResponseEntity containing the invalidation statistics of this instance.
+     */
+    @GetMapping("/caches/invalidation")
+    public ResponseEntity<ResponseMessage<GetCacheInvalidationStatisticsDTO>> getCacheInvalidationStatistics() {
+        GetCacheInvalidationStatisticsDTO statistics = adminService.getCacheInvalidationStatistics();
+        return ResponseMessageBuilder.build(statistics, HttpStatus.OK);
+    }
+
+    /**
+     * Retrieves the queue depth, wait times and rejections of the password hashing executor.
+     *
+     * @return ResponseEntity containing the password hashing statistics of this instance.
+     */
+    @GetMapping("/password-hashing")
+    public ResponseEntity<ResponseMessage<GetPasswordHashingStatisticsDTO>> getPasswordHashingStatistics() {
+        GetPasswordHashingStatisticsDTO statistics = adminService.getPasswordHashingStatistics();
+        return ResponseMessageBuilder.build(statistics, HttpStatus.OK);
+    }
+
+    /**
+     * Retrieves how many requests each rate limit allowed and rejected, and how many keys it tracks.
+     *
+     * @return ResponseEntity containing the statistics of each rate limit.
+     */
+    @GetMapping("/rate-limits")
+    public ResponseEntity<ResponseMessage<List<GetRateLimitStatisticsDTO>>> getRateLimitStatistics() {
+        List<GetRateLimitStatisticsDTO> statistics = adminService.getRateLimitStatistics();
+        return ResponseMessageBuilder.build(statistics, HttpStatus.OK);
+    }
+
+    /**
+     * Retrieves how many transactions the group commit writer committed, and how many writes they held.
+     *
+     * @return ResponseEntity containing the group commit statistics of this instance.
+     */
+    @GetMapping("/group-commit")
+    public ResponseEntity<ResponseMessage<GetGroupCommitStatisticsDTO>> getGroupCommitStatistics() {
+        GetGroupCommitStatisticsDTO statistics = adminService.getGroupCommitStatistics();
+        return ResponseMessageBuilder.build(statistics, HttpStatus.OK);
+    }
+
+    /**
+     * Retrieves how many session last-seen times are pending, were written, and extended a session.
+     *
+     * @return ResponseEntity containing the sliding session statistics of this instance.
+     */
+    @GetMapping("/sessions/activity")
+    public ResponseEntity<ResponseMessage<GetSessionActivityStatisticsDTO>> getSessionActivityStatistics() {
+        GetSessionActivityStatisticsDTO statistics = adminService.getSessionActivityStatistics();
+        return ResponseMessageBuilder.build(statistics, HttpStatus.OK);
+    }
+
+    /**
+     * Retrieves the latency percentiles of every route and response status of this instance, since it started or
+     * since the last reset.
+     *
+     * @return ResponseEntity containing the latencies of each route and status.
+     */
+    @GetMapping("/latency")
+    public ResponseEntity<ResponseMessage<List<GetRouteLatencyStatisticsDTO>>> getRouteLatencyStatistics() {
+        List<GetRouteLatencyStatisticsDTO> statistics = adminService.getRouteLatencyStatistics(false);
+        return ResponseMessageBuilder.build(statistics, HttpStatus.OK);
+    }
+
+    /**
+     * Resets the latency histograms of this instance, so the next interval starts now.
+     *
+     * @return ResponseEntity containing the latencies of each route and status over the interval that just ended.
+     */
+    @PostMapping("/latency/reset")
+    public ResponseEntity<ResponseMessage<List<GetRouteLatencyStatisticsDTO>>> resetRouteLatencyStatistics() {
+        List<GetRouteLatencyStatisticsDTO> statistics = adminService.getRouteLatencyStatistics(true);
+        return ResponseMessageBuilder.build(statistics, HttpStatus.OK);
+    }
+
+    /**
+     * Retrieves how many log lines were suppressed by sampling, or dropped because the log queue was full.
+     *
+     * @return ResponseEntity containing the logging statistics of this instance.
+     */
+    @GetMapping("/logging")
+    public ResponseEntity<ResponseMessage<GetLoggingStatisticsDTO>> getLoggingStatistics() {
+        GetLoggingStatisticsDTO statistics = adminService.getLoggingStatistics();
+        return ResponseMessageBuilder.build(statistics, HttpStatus.OK);
+    }
+}
@@ -4,6 +4,7 @@ package andre.chamis.healthproject.controller;
 import andre.chamis.healthproject.domain.auth.annotation.ClientAuthenticated;
 import andre.chamis.healthproject.domain.auth.annotation.JwtAuthenticated;
 import andre.chamis.healthproject.domain.auth.annotation.NonAuthenticated;
+import andre.chamis.healthproject.domain.auth.annotation.RateLimited;
 import andre.chamis.healthproject.domain.auth.dto.ForgotPasswordRequest;
 import andre.chamis.healthproject.domain.auth.dto.RefreshTokensDTO;
 import andre.chamis.healthproject.domain.auth.dto.TokensDTO;
@@ -35,6 +36,7 @@ public class AuthController {
      * @return ResponseEntity containing the generated tokens and a status code.
      */
     @ClientAuthenticated
+    @RateLimited("login")
     @PostMapping("login")
     public ResponseEntity<ResponseMessage<TokensDTO>> login(@RequestBody LoginDTO loginDTO) {
         TokensDTO tokensDTO = authorizationService.authenticateUser(loginDTO);
@@ -67,6 +69,7 @@ public class AuthController {
     }
 
     @NonAuthenticated
+    @RateLimited("forgot-password")
     @PostMapping("forgot-password")
     public ResponseEntity<ResponseMessage<Void>> handleForgotPassword(@RequestBody ForgotPasswordRequest forgotPasswordRequest) {
         authorizationService.handleForgotPassword(forgotPasswordRequest);
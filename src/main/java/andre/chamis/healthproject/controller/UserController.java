@@ -2,6 +2,7 @@ package andre.chamis.healthproject.controller;
 
 import andre.chamis.healthproject.domain.auth.annotation.ClientAuthenticated;
 import andre.chamis.healthproject.domain.auth.annotation.JwtAuthenticated;
+import andre.chamis.healthproject.domain.auth.annotation.RateLimited;
 import andre.chamis.healthproject.domain.auth.annotation.RequiresPaidSubscription;
 import andre.chamis.healthproject.domain.health.attendance.dto.GetAttendanceDTO;
 import andre.chamis.healthproject.domain.health.collaborator.dto.CreateCollaboratorDTO;
@@ -54,6 +55,7 @@ public class UserController {
      * @return A ResponseEntity containing a ResponseMessage with the registered user's information on success.
      */
     @ClientAuthenticated
+    @RateLimited("register")
     @PostMapping("register")
     public ResponseEntity<ResponseMessage<GetUserDTO>> register(@RequestBody CreateUserDTO createUserDTO) {
         GetUserDTO getUserDTO = userService.handleRegisterUser(createUserDTO);
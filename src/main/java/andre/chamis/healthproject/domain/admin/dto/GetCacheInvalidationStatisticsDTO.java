@@ -0,0 +1,39 @@
+package andre.chamis.healthproject.domain.admin.dto;
+
+import andre.chamis.healthproject.cache.invalidation.CacheInvalidationBus;
+
+/**
+ * Data Transfer Object (DTO) describing the cross-instance cache invalidation of this instance.
+ *
+ * @param instanceId            The identifier of this instance on the invalidation channel.
+ * @param publishedMessages     The number of invalidations this instance published.
+ * @param appliedMessages       The number of invalidations from other instances applied to the local caches.
+ * @param unknownCacheMessages  The number of invalidations received for caches this instance does not have.
+ * @param averageLatencyMillis  The average time between publication and application, in milliseconds.
+ * @param maxLatencyMillis      The longest time between publication and application, in milliseconds.
+ */
+public record GetCacheInvalidationStatisticsDTO(
+        String instanceId,
+        long publishedMessages,
+        long appliedMessages,
+        long unknownCacheMessages,
+        double averageLatencyMillis,
+        long maxLatencyMillis
+) {
+    /**
+     * Creates a {@link GetCacheInvalidationStatisticsDTO} instance from a {@link CacheInvalidationBus}.
+     *
+     * @param bus The invalidation bus to describe.
+     * @return A {@link GetCacheInvalidationStatisticsDTO} with the current statistics of the bus.
+     */
+    public static GetCacheInvalidationStatisticsDTO fromBus(CacheInvalidationBus bus) {
+        return new GetCacheInvalidationStatisticsDTO(
+                bus.getInstanceId(),
+                bus.getPublishedMessages(),
+                bus.getAppliedMessages(),
+                bus.getUnknownCacheMessages(),
+                bus.getAverageLatencyMillis(),
+                bus.getMaxLatencyMillis()
+        );
+    }
+}
@@ -0,0 +1,65 @@
+package andre.chamis.healthproject.domain.admin.dto;
+
+import andre.chamis.healthproject.cache.CacheStatistics;
+import andre.chamis.healthproject.cache.ManagedCache;
+
+/**
+ * Data Transfer Object (DTO) describing the usage of an in-memory cache.
+ *
+ * @param name                   The name of the cache.
+ * @param size                   The number of entries currently in the cache.
+ * @param maxSize                The maximum number of entries, or a negative value if the cache is unbounded.
+ * @param offHeapBytes           The memory held by the cache outside the Java heap, in bytes.
+ * @param hits                   The number of lookups served from the cache.
+ * @param misses                 The number of lookups not served from the cache.
+ * @param hitRate                The share of lookups served from the cache, between 0 and 1.
+ * @param loads                  The number of loads from the backing store after a miss.
+ * @param loadFailures           The number of loads that threw.
+ * @param averageLoadTimeMillis  The average time spent loading after a miss, in milliseconds.
+ * @param sharedLoads            The number of misses that waited for a load already in flight.
+ * @param refreshes              The number of background reloads of entries about to expire.
+ * @param evictions              The number of entries dropped to keep the cache within its maximum size.
+ * @param expirations            The number of entries dropped because they expired.
+ */
+public record GetCacheStatisticsDTO(
+        String name,
+        int size,
+        int maxSize,
+        long offHeapBytes,
+        long hits,
+        long misses,
+        double hitRate,
+        long loads,
+        long loadFailures,
+        double averageLoadTimeMillis,
+        long sharedLoads,
+        long refreshes,
+        long evictions,
+        long expirations
+) {
+    /**
+     * Creates a {@link GetCacheStatisticsDTO} instance from a {@link ManagedCache}.
+     *
+     * @param cache The cache to describe.
+     * @return A {@link GetCacheStatisticsDTO} with the current statistics of the cache.
+     */
+    public static GetCacheStatisticsDTO fromCache(ManagedCache cache) {
+        CacheStatistics statistics = cache.getStatistics();
+        return new GetCacheStatisticsDTO(
+                cache.getName(),
+                cache.getSize(),
+                cache.getMaxSize(),
+                cache.getOffHeapBytes(),
+                statistics.getHits(),
+                statistics.getMisses(),
+                statistics.getHitRate(),
+                statistics.getLoads(),
+                statistics.getLoadFailures(),
+                statistics.getAverageLoadTimeMillis(),
+                statistics.getSharedLoads(),
+                statistics.getRefreshes(),
+                statistics.getEvictions(),
+                statistics.getExpirations()
+        );
+    }
+}
@@ -0,0 +1,36 @@
+package andre.chamis.healthproject.domain.admin.dto;
+
+import andre.chamis.healthproject.infra.persistence.GroupCommitExecutor;
+
+/**
+ * Data Transfer Object (DTO) describing the group commits of this instance.
+ *
+ * @param commits         The number of transactions committed by the group commit writer.
+ * @param committedWrites The number of writes committed in those transactions.
+ * @param failedBatches   The number of transactions that failed and had their writes committed one by one.
+ * @param timedOutWrites  The number of writes not committed by the writer within the maximum wait.
+ * @param queueDepth      The number of writes waiting for the next commit.
+ */
+public record GetGroupCommitStatisticsDTO(
+        long commits,
+        long committedWrites,
+        long failedBatches,
+        long timedOutWrites,
+        int queueDepth
+) {
+    /**
+     * Creates a {@link GetGroupCommitStatisticsDTO} instance from a {@link GroupCommitExecutor}.
+     *
+     * @param executor The group commit executor to describe.
+     * @return A {@link GetGroupCommitStatisticsDTO} with the current statistics of the executor.
+     */
+    public static GetGroupCommitStatisticsDTO fromExecutor(GroupCommitExecutor executor) {
+        return new GetGroupCommitStatisticsDTO(
+                executor.getCommits(),
+                executor.getCommittedWrites(),
+                executor.getFailedBatches(),
+                executor.getTimedOutWrites(),
+                executor.getQueueDepth()
+        );
+    }
+}
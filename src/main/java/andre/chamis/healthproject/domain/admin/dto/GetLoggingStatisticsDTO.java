@@ -0,0 +1,61 @@
+package andre.chamis.healthproject.domain.admin.dto;
+
+import andre.chamis.healthproject.infra.logging.CountingAsyncAppender;
+import andre.chamis.healthproject.infra.logging.SamplingTurboFilter;
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+
+import java.util.Iterator;
+import java.util.function.LongSupplier;
+
+/**
+ * Data Transfer Object (DTO) describing the lines this instance did not log.
+ *
+ * @param suppressedEvents The number of lines suppressed by the sampling of noisy loggers.
+ * @param discardedEvents  The number of lines below {@code WARN} discarded because the log queue was nearly full.
+ * @param droppedEvents    The approximate number of lines dropped because the log queue was full.
+ * @param queueDepth       The number of lines waiting to be written.
+ * @param queueCapacity    How many lines may wait to be written.
+ */
+public record GetLoggingStatisticsDTO(
+        long suppressedEvents,
+        long discardedEvents,
+        long droppedEvents,
+        int queueDepth,
+        int queueCapacity
+) {
+    /**
+     * Creates a {@link GetLoggingStatisticsDTO} instance from the counters published in a {@link LoggerContext} by
+     * {@link SamplingTurboFilter} and {@link CountingAsyncAppender}, and the asynchronous appenders of its root
+     * logger. Counters that are not configured are described as zeros.
+     *
+     * @param context The logger context to describe.
+     * @return A {@link GetLoggingStatisticsDTO} with the current statistics of the context.
+     */
+    public static GetLoggingStatisticsDTO fromLoggerContext(LoggerContext context) {
+        int queueDepth = 0;
+        int queueCapacity = 0;
+        Iterator<Appender<ILoggingEvent>> appenders = context.getLogger(Logger.ROOT_LOGGER_NAME).iteratorForAppenders();
+        while (appenders.hasNext()) {
+            if (appenders.next() instanceof AsyncAppender asyncAppender) {
+                queueDepth += asyncAppender.getNumberOfElementsInQueue();
+                queueCapacity += asyncAppender.getQueueSize();
+            }
+        }
+
+        return new GetLoggingStatisticsDTO(
+                getCounter(context, SamplingTurboFilter.SUPPRESSED_EVENTS_KEY),
+                getCounter(context, CountingAsyncAppender.DISCARDED_EVENTS_KEY),
+                getCounter(context, CountingAsyncAppender.DROPPED_EVENTS_KEY),
+                queueDepth,
+                queueCapacity
+        );
+    }
+
+    private static long getCounter(LoggerContext context, String key) {
+        return context.getObject(key) instanceof LongSupplier counter ? counter.getAsLong() : 0;
+    }
+}
@@ -0,0 +1,51 @@
+package andre.chamis.healthproject.domain.admin.dto;
+
+import andre.chamis.healthproject.service.PasswordHashingService;
+
+/**
+ * Data Transfer Object (DTO) describing the password hashing executor of this instance.
+ *
+ * @param threads           The number of hashing threads.
+ * @param activeTasks       The number of hashes currently running.
+ * @param queueDepth        The number of hashes waiting for a thread.
+ * @param queueCapacity     How many hashes may wait for a thread.
+ * @param completedTasks    The number of hashes that ran.
+ * @param rejectedTasks     The number of hashes rejected without running, answered with 429 or 503.
+ * @param timedOutTasks     The number of hashes given up on after the maximum wait, answered with 503.
+ * @param averageWaitMillis The average time hashes waited for a thread, in milliseconds.
+ * @param maxWaitMillis     The longest time a hash waited for a thread, in milliseconds.
+ * @param averageRunMillis  The average time a hash took to run, in milliseconds.
+ */
+public record GetPasswordHashingStatisticsDTO(
+        int threads,
+        int activeTasks,
+        int queueDepth,
+        int queueCapacity,
+        long completedTasks,
+        long rejectedTasks,
+        long timedOutTasks,
+        double averageWaitMillis,
+        double maxWaitMillis,
+        double averageRunMillis
+) {
+    /**
+     * Creates a {@link GetPasswordHashingStatisticsDTO} instance from a {@link PasswordHashingService}.
+     *
+     * @param service The password hashing service to describe.
+     * @return A {@link GetPasswordHashingStatisticsDTO} with the current statistics of the service.
+     */
+    public static GetPasswordHashingStatisticsDTO fromService(PasswordHashingService service) {
+        return new GetPasswordHashingStatisticsDTO(
+                service.getThreads(),
+                service.getActiveTasks(),
+                service.getQueueDepth(),
+                service.getQueueCapacity(),
+                service.getCompletedTasks(),
+                service.getRejectedTasks(),
+                service.getTimedOutTasks(),
+                service.getAverageWaitMillis(),
+                service.getMaxWaitMillis(),
+                service.getAverageRunMillis()
+        );
+    }
+}
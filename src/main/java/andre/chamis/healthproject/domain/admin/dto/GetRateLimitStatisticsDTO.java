@@ -0,0 +1,53 @@
+package andre.chamis.healthproject.domain.admin.dto;
+
+import andre.chamis.healthproject.infra.ratelimit.RateLimitKey;
+import andre.chamis.healthproject.infra.ratelimit.TokenBucketRateLimiter;
+
+/**
+ * Data Transfer Object (DTO) describing the rate limit of an endpoint by one key.
+ *
+ * @param endpoint             The name of the endpoint.
+ * @param key                  The attribute requests are throttled by.
+ * @param capacity             The number of requests allowed at once, and refilled every period.
+ * @param period               The time it takes for an emptied bucket to be full again, as an ISO-8601 duration.
+ * @param trackedKeys          The number of buckets currently held.
+ * @param allowedRequests      The number of requests allowed.
+ * @param rejectedRequests     The number of requests rejected with 429.
+ * @param evictedActiveBuckets The number of buckets still in use dropped to make room for new keys, because the
+ *                             limit held too many keys.
+ */
+public record GetRateLimitStatisticsDTO(
+        String endpoint,
+        RateLimitKey key,
+        int capacity,
+        String period,
+        int trackedKeys,
+        long allowedRequests,
+        long rejectedRequests,
+        long evictedActiveBuckets
+) {
+    /**
+     * Creates a {@link GetRateLimitStatisticsDTO} instance from a {@link TokenBucketRateLimiter}.
+     *
+     * @param endpoint The name of the endpoint.
+     * @param key      The attribute the limiter throttles by.
+     * @param limiter  The limiter to describe.
+     * @return A {@link GetRateLimitStatisticsDTO} with the current statistics of the limiter.
+     */
+    public static GetRateLimitStatisticsDTO fromLimiter(
+            String endpoint,
+            RateLimitKey key,
+            TokenBucketRateLimiter limiter
+    ) {
+        return new GetRateLimitStatisticsDTO(
+                endpoint,
+                key,
+                limiter.getCapacity(),
+                limiter.getPeriod().toString(),
+                limiter.getTrackedKeys(),
+                limiter.getAllowedRequests(),
+                limiter.getRejectedRequests(),
+                limiter.getEvictedActiveBuckets()
+        );
+    }
+}
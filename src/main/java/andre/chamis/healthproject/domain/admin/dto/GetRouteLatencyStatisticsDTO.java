@@ -0,0 +1,57 @@
+package andre.chamis.healthproject.domain.admin.dto;
+
+import andre.chamis.healthproject.infra.metrics.LatencyHistogram;
+import andre.chamis.healthproject.service.LatencyMetricsService;
+
+/**
+ * Data Transfer Object (DTO) describing the latencies of the requests to a route that got the same status.
+ * Percentiles are at most 6.25% above the exact value.
+ *
+ * @param method     The HTTP method of the requests.
+ * @param route      The route pattern the requests matched.
+ * @param status     The HTTP status of the responses.
+ * @param count      The number of requests.
+ * @param meanMillis The mean latency, in milliseconds.
+ * @param p50Millis  The median latency, in milliseconds.
+ * @param p90Millis  The 90th percentile latency, in milliseconds.
+ * @param p95Millis  The 95th percentile latency, in milliseconds.
+ * @param p99Millis  The 99th percentile latency, in milliseconds.
+ * @param maxMillis  The highest latency, in milliseconds.
+ */
+public record GetRouteLatencyStatisticsDTO(
+        String method,
+        String route,
+        int status,
+        long count,
+        double meanMillis,
+        double p50Millis,
+        double p90Millis,
+        double p95Millis,
+        double p99Millis,
+        double maxMillis
+) {
+    /**
+     * Creates a {@link GetRouteLatencyStatisticsDTO} instance from a {@link LatencyHistogram.Snapshot}.
+     *
+     * @param key      The route and status the snapshot was recorded for.
+     * @param snapshot The snapshot to describe.
+     * @return A {@link GetRouteLatencyStatisticsDTO} with the latencies of the snapshot.
+     */
+    public static GetRouteLatencyStatisticsDTO fromSnapshot(
+            LatencyMetricsService.RouteKey key,
+            LatencyHistogram.Snapshot snapshot
+    ) {
+        return new GetRouteLatencyStatisticsDTO(
+                key.method(),
+                key.route(),
+                key.status(),
+                snapshot.getCount(),
+                snapshot.getMeanMicros() / 1_000,
+                snapshot.getPercentileMicros(50) / 1_000.0,
+                snapshot.getPercentileMicros(90) / 1_000.0,
+                snapshot.getPercentileMicros(95) / 1_000.0,
+                snapshot.getPercentileMicros(99) / 1_000.0,
+                snapshot.getMaxMicros() / 1_000.0
+        );
+    }
+}
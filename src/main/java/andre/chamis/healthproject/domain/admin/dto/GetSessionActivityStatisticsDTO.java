@@ -0,0 +1,33 @@
+package andre.chamis.healthproject.domain.admin.dto;
+
+import andre.chamis.healthproject.domain.auth.session.repository.SessionRepository;
+
+/**
+ * Data Transfer Object (DTO) describing the sliding session updates of this instance.
+ *
+ * @param pendingUpdates   The number of sessions seen since the last flush, waiting to be extended.
+ * @param flushedUpdates   The number of last-seen times written to the database.
+ * @param extendedSessions The number of those writes that extended a session.
+ * @param failedFlushes    The number of flushes that failed and were retried.
+ */
+public record GetSessionActivityStatisticsDTO(
+        int pendingUpdates,
+        long flushedUpdates,
+        long extendedSessions,
+        long failedFlushes
+) {
+    /**
+     * Creates a {@link GetSessionActivityStatisticsDTO} instance from a {@link SessionRepository}.
+     *
+     * @param repository The session repository to describe.
+     * @return A {@link GetSessionActivityStatisticsDTO} with the current statistics of the repository.
+     */
+    public static GetSessionActivityStatisticsDTO fromRepository(SessionRepository repository) {
+        return new GetSessionActivityStatisticsDTO(
+                repository.getPendingLastSeenUpdates(),
+                repository.getFlushedLastSeenUpdates(),
+                repository.getExtendedSessions(),
+                repository.getFailedLastSeenFlushes()
+        );
+    }
+}
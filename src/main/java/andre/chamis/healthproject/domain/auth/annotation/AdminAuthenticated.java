@@ -0,0 +1,15 @@
+package andre.chamis.healthproject.domain.auth.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Custom annotation used to indicate that a method or controller is reserved to operators, who authenticate with the
+ * admin key.
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface AdminAuthenticated {
+}
@@ -0,0 +1,19 @@
+package andre.chamis.healthproject.domain.auth.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Custom annotation used to indicate that an endpoint is throttled with the limits configured on
+ * {@code rate-limit.endpoints.<value>}.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RateLimited {
+    /**
+     * @return The name of the endpoint in the configuration.
+     */
+    String value();
+}
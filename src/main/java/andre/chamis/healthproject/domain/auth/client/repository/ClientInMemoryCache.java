@@ -2,6 +2,7 @@ package andre.chamis.healthproject.domain.auth.client.repository;
 
 import andre.chamis.healthproject.cache.InMemoryCache;
 import andre.chamis.healthproject.domain.auth.client.model.Client;
+import andre.chamis.healthproject.properties.CacheProperties;
 import org.springframework.stereotype.Repository;
 
 
@@ -11,7 +12,7 @@ import org.springframework.stereotype.Repository;
  */
 @Repository
 class ClientInMemoryCache extends InMemoryCache<String, Client> {
-    public ClientInMemoryCache() {
-        super(Client::getPublicKey);
+    public ClientInMemoryCache(CacheProperties cacheProperties) {
+        super(Client::getPublicKey, cacheProperties.getClient().getMaxSize(), client -> null);
     }
 }
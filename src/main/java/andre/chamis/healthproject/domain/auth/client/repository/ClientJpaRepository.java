@@ -1,9 +1,12 @@
 package andre.chamis.healthproject.domain.auth.client.repository;
 
 import andre.chamis.healthproject.domain.auth.client.model.Client;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -20,4 +23,21 @@ interface ClientJpaRepository extends JpaRepository<Client, Long> {
      * @return An Optional containing the client if found, otherwise empty.
      */
     Optional<Client> findClientByPublicKey(String key);
+
+    /**
+     * Retrieves the public keys of every client, without loading the clients themselves.
+     *
+     * @return A list with the public key of each client.
+     */
+    @Query("SELECT c.publicKey FROM Client c")
+    List<String> findAllPublicKeys();
+
+    /**
+     * Retrieves a page of clients ordered by ID, starting after the last ID of the previous page.
+     *
+     * @param id    The ID after which the page starts.
+     * @param limit The maximum number of clients in the page.
+     * @return The list of clients in the page.
+     */
+    List<Client> findAllByIdGreaterThanOrderById(Long id, Limit limit);
 }
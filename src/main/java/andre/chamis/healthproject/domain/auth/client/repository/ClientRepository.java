@@ -1,8 +1,10 @@
 package andre.chamis.healthproject.domain.auth.client.repository;
 
+import andre.chamis.healthproject.cache.BloomFilter;
 import andre.chamis.healthproject.domain.auth.client.model.Client;
-import jakarta.annotation.PostConstruct;
+import andre.chamis.healthproject.properties.CacheProperties;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -13,35 +15,105 @@ import java.util.Optional;
 public class ClientRepository {
     private final ClientJpaRepository clientJpaRepository;
     private final ClientInMemoryCache clientInMemoryCache;
+    private final UnknownClientKeyCache unknownClientKeyCache;
+    private final CacheProperties cacheProperties;
 
     /**
-     * Initializes the in-memory cache with data from the database.
+     * Membership filter of every registered public key. Keys it rejects are unknown without asking the database.
+     * {@code null} until first built, in which case every key is looked up.
+     */
+    private volatile BloomFilter clientKeyFilter;
+
+    /**
+     * Loads the clients into the in-memory cache, one page at a time, then builds the client key filter. Stops
+     * loading clients early once the cache is full.
+     *
+     * @return The number of clients added to the cache.
+     */
+    public int warmUpCache() {
+        int pageSize = cacheProperties.getWarmup().getPageSize();
+        int maxSize = clientInMemoryCache.getMaxSize();
+        long lastId = Long.MIN_VALUE;
+        int warmedUpClients = 0;
+
+        List<Client> page;
+        do {
+            page = clientJpaRepository.findAllByIdGreaterThanOrderById(lastId, Limit.of(pageSize));
+            if (page.isEmpty()) {
+                break;
+            }
+
+            clientInMemoryCache.addMultiple(page);
+            lastId = page.get(page.size() - 1).getId();
+            warmedUpClients += page.size();
+        } while (page.size() == pageSize && (maxSize < 0 || clientInMemoryCache.getSize() < maxSize));
+
+        refreshClientKeyFilter();
+        return warmedUpClients;
+    }
+
+    /**
+     * Rebuilds the client key filter from the public keys currently in the database, making clients registered
+     * since the last rebuild visible.
      *
-     * @return The number of clients loaded into the cache.
+     * @return The number of keys in the rebuilt filter.
      */
-    @PostConstruct
-    public int initializeCache() {
-        List<Client> clients = clientJpaRepository.findAll();
-        clientInMemoryCache.initializeCache(clients);
-        return clientInMemoryCache.getSize();
+    public int refreshClientKeyFilter() {
+        List<String> publicKeys = clientJpaRepository.findAllPublicKeys();
+        replaceClientKeyFilter(publicKeys);
+        return publicKeys.size();
     }
 
     /**
-     * Finds a client by its API key, first checking the in-memory cache and then the database if not found in cache.
+     * Builds a filter holding the given keys and swaps it in. Keys in the list are also dropped from the negative
+     * cache, so a client registered after its key was looked up does not stay hidden until the entry expires.
+     *
+     * @param publicKeys The public keys of every registered client.
+     */
+    private void replaceClientKeyFilter(List<String> publicKeys) {
+        BloomFilter filter = new BloomFilter(
+                publicKeys.size(),
+                cacheProperties.getClientKeyFilter().getFalsePositiveRate()
+        );
+        for (String publicKey : publicKeys) {
+            if (publicKey != null) {
+                filter.put(publicKey);
+            }
+        }
+
+        clientKeyFilter = filter;
+        unknownClientKeyCache.deleteFromList(publicKeys);
+    }
+
+    /**
+     * Finds a client by its API key.
+     * <p>
+     * Keys rejected by the client key filter or recently not found are reported as missing without a database
+     * query. Otherwise, the in-memory cache is checked, then the database; keys not found in the database are
+     * remembered in the negative cache.
      *
      * @param apiKey The API key of the client to be found.
      * @return An @{@link  Optional} containing the found client or empty if not found.
      */
     public Optional<Client> findClientByKey(String apiKey) {
-        Optional<Client> resultFromCache = clientInMemoryCache.get(apiKey);
-        if (resultFromCache.isPresent()) {
-            return resultFromCache;
+        if (apiKey == null) {
+            return Optional.empty();
         }
 
-        Optional<Client> resultFromDatabase = clientJpaRepository.findClientByPublicKey(apiKey);
+        BloomFilter filter = clientKeyFilter;
+        if (filter != null && !filter.mightContain(apiKey)) {
+            return Optional.empty();
+        }
 
-        resultFromDatabase.ifPresent(clientInMemoryCache::put);
+        if (unknownClientKeyCache.containsKey(apiKey)) {
+            return Optional.empty();
+        }
+
+        Optional<Client> client = clientInMemoryCache.getOrLoad(apiKey, clientJpaRepository::findClientByPublicKey);
+        if (client.isEmpty()) {
+            unknownClientKeyCache.put(apiKey);
+        }
 
-        return resultFromDatabase;
+        return client;
     }
 }
@@ -0,0 +1,33 @@
+package andre.chamis.healthproject.domain.auth.client.repository;
+
+import andre.chamis.healthproject.cache.InMemoryCache;
+import andre.chamis.healthproject.properties.CacheProperties;
+import org.springframework.stereotype.Repository;
+
+import java.util.function.Function;
+
+
+/**
+ * Represents a negative cache of client keys that were looked up in the database and not found.
+ * <p>
+ * Entries expire shortly after being stored, as configured on {@code cache.unknown-client}, so a client registered
+ * after its key was looked up becomes visible without a restart.
+ */
+@Repository
+class UnknownClientKeyCache extends InMemoryCache<String, String> {
+    public UnknownClientKeyCache(CacheProperties cacheProperties) {
+        super(
+                Function.identity(),
+                cacheProperties.getUnknownClient().getMaxSize(),
+                key -> cacheProperties.getUnknownClient().calculateExpirationFromNow()
+        );
+    }
+
+    /**
+     * Unknown keys are local knowledge: publishing them would let a scanner flood the other instances.
+     */
+    @Override
+    public boolean isInvalidatedAcrossInstances() {
+        return false;
+    }
+}
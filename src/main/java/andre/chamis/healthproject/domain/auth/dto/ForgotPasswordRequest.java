@@ -1,5 +1,7 @@
 package andre.chamis.healthproject.domain.auth.dto;
 
-public record ForgotPasswordRequest(String email) {
+import andre.chamis.healthproject.infra.ratelimit.EmailIdentifiedRequest;
+
+public record ForgotPasswordRequest(String email) implements EmailIdentifiedRequest {
 
 }
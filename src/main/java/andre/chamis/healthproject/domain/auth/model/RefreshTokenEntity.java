@@ -11,7 +11,8 @@ import java.util.Date;
 @Data
 @Entity
 @Table(name = "refresh_tokens", indexes = {
-        @Index(name = "token_index", columnList = "token")
+        @Index(name = "refresh_token_digest_index", columnList = "token_digest", unique = true),
+        @Index(name = "refresh_token_username_index", columnList = "username")
 })
 public class RefreshTokenEntity {
     /**
@@ -28,9 +29,11 @@ public class RefreshTokenEntity {
     private String username;
 
     /**
-     * The token string representing the refresh token.
+     * The fixed-length digest identifying the refresh token. The token itself is not stored, see
+     * {@link andre.chamis.healthproject.domain.auth.repository.RefreshTokenEntityRepository#digest(String)}.
      */
-    private String token;
+    @Column(name = "token_digest", length = 16)
+    private byte[] tokenDigest;
 
     /**
      * The token string representing the refresh token.
@@ -0,0 +1,37 @@
+package andre.chamis.healthproject.domain.auth.model;
+
+import java.time.Instant;
+
+/**
+ * The claims of a user token that was issued or verified by this application.
+ * <p>
+ * Holding one means the signature and issuer were already checked, so the rest of the request reads the claims from
+ * here instead of decoding the token again.
+ *
+ * @param token            The encoded token.
+ * @param subject          The username the token was issued to.
+ * @param sessionId        The ID of the session the token belongs to.
+ * @param issuedAt         When the token was issued, truncated to seconds.
+ * @param expiresAt        When the token expires, truncated to seconds.
+ * @param userId           The ID of the user the session belongs to, only carried by access tokens.
+ * @param sessionExpiresAt When the session expires, truncated to seconds, only carried by access tokens.
+ */
+public record TokenClaims(
+        String token,
+        String subject,
+        Long sessionId,
+        Instant issuedAt,
+        Instant expiresAt,
+        Long userId,
+        Instant sessionExpiresAt
+) {
+    /**
+     * Checks whether the token carries what is needed to authorize a request without loading its session. Access
+     * tokens issued before these claims were added do not.
+     *
+     * @return {@code true} if the user ID and session expiration are present.
+     */
+    public boolean carriesSession() {
+        return sessionId != null && userId != null && sessionExpiresAt != null;
+    }
+}
@@ -1,10 +1,15 @@
 package andre.chamis.healthproject.domain.auth.repository;
 
 import andre.chamis.healthproject.domain.auth.model.RefreshTokenEntity;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.Date;
+import java.util.stream.Stream;
 
 /**
  * Repository interface for managing refresh token entities using JPA.
@@ -12,19 +17,29 @@ import java.util.Date;
 @Repository
 interface RefreshTokenEntityJpaRepository extends JpaRepository<RefreshTokenEntity, Long> {
     /**
-     * Deletes a refresh token by its token value.
+     * Deletes a refresh token by its digest.
      *
-     * @param token The token value of the refresh token to delete.
+     * @param tokenDigest The digest of the refresh token to delete.
      */
-    void deleteByToken(String token);
+    void deleteByTokenDigest(byte[] tokenDigest);
 
     /**
-     * Checks if a refresh token with the given token value exists.
+     * Checks if a refresh token with the given digest exists.
      *
-     * @param token The token value to check for existence.
-     * @return {@code true} if a refresh token with the given token value exists, otherwise {@code false}.
+     * @param tokenDigest The digest to check for existence.
+     * @return {@code true} if a refresh token with the given digest exists, otherwise {@code false}.
      */
-    boolean existsByToken(String token);
+    boolean existsByTokenDigest(byte[] tokenDigest);
+
+    /**
+     * Streams the digest of every stored refresh token, fetching them from the database in chunks. Must be called in
+     * a transaction, and the stream must be closed.
+     *
+     * @return The digests of the stored refresh tokens.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT r.tokenDigest FROM RefreshTokenEntity r WHERE r.tokenDigest IS NOT NULL")
+    Stream<byte[]> streamAllTokenDigests();
 
     /**
      * Deletes all refresh tokens that have an expiration date before the specified date.
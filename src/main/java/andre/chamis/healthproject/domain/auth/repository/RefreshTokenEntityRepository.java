@@ -1,20 +1,71 @@
 package andre.chamis.healthproject.domain.auth.repository;
 
+import andre.chamis.healthproject.cache.BloomFilter;
 import andre.chamis.healthproject.domain.auth.model.RefreshTokenEntity;
+import andre.chamis.healthproject.properties.CacheProperties;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Repository;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.Arrays;
 import java.util.Date;
+import java.util.Iterator;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
 
 /**
  * Repository class for managing refresh token entities using JPA.
+ * <p>
+ * Tokens are stored and looked up by a 16-byte digest instead of the encoded token, keeping the table and its index
+ * narrow, and a leaked table does not contain usable tokens.
  */
 @Repository
 @RequiredArgsConstructor
 public class RefreshTokenEntityRepository {
+    /**
+     * How long before a rebuild of the issued token filter a token must have been issued for the filter to be
+     * trusted: the token may still have been on its way to the database, or issued by an instance whose clock is
+     * ahead.
+     */
+    private static final Duration ISSUED_TOKEN_FILTER_MARGIN = Duration.ofMinutes(1);
+
     private final RefreshTokenEntityJpaRepository jpaRepository;
+    private final CacheProperties cacheProperties;
+
+    /**
+     * Membership filter of the tokens stored on the database when it was built, with the instant it was built at.
+     * {@code null} until first built, in which case every token is looked up.
+     */
+    private volatile IssuedTokenFilter issuedTokenFilter;
+
+    /**
+     * Serializes rebuilds of the issued token filter.
+     */
+    private final ReentrantLock issuedTokenFilterRefreshLock = new ReentrantLock();
+
+    private record IssuedTokenFilter(BloomFilter filter, Instant builtAt) {
+    }
+
+    /**
+     * Computes the digest a refresh token is stored by: the first 16 bytes of its SHA-256 hash. Tokens are signed,
+     * so a collision could only match two genuine tokens, which 128 bits make negligible.
+     *
+     * @param token The encoded refresh token.
+     * @return The 16-byte digest of the token.
+     */
+    public static byte[] digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Arrays.copyOf(hash, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is required by every Java platform", e);
+        }
+    }
 
     /**
      * Saves a refresh token entity.
@@ -33,17 +84,69 @@ public class RefreshTokenEntityRepository {
      */
     @Transactional
     public void deleteRefreshToken(String refreshToken){
-        jpaRepository.deleteByToken(refreshToken);
+        jpaRepository.deleteByTokenDigest(digest(refreshToken));
     }
 
     /**
      * Checks if a refresh token with the given token value exists.
+     * <p>
+     * A token issued well before the issued token filter was built, and rejected by it, was not on the database at
+     * that time, so it is reported as missing without a database query. Tokens are never stored again once deleted.
      *
-     * @param token The token value to check for existence.
+     * @param token    The token value to check for existence.
+     * @param issuedAt When the token was issued, from its verified claims.
      * @return {@code true} if a refresh token with the given token value exists, otherwise {@code false}.
      */
-    public boolean existsByToken(String token) {
-        return jpaRepository.existsByToken(token);
+    public boolean existsByToken(String token, Instant issuedAt) {
+        byte[] tokenDigest = digest(token);
+        if (isRejectedByIssuedTokenFilter(tokenDigest, issuedAt)) {
+            return false;
+        }
+
+        return jpaRepository.existsByTokenDigest(tokenDigest);
+    }
+
+    private boolean isRejectedByIssuedTokenFilter(byte[] tokenDigest, Instant issuedAt) {
+        IssuedTokenFilter current = issuedTokenFilter;
+        if (current == null || !issuedAt.isBefore(current.builtAt().minus(ISSUED_TOKEN_FILTER_MARGIN))) {
+            return false;
+        }
+
+        return !current.filter().mightContain(BloomFilter.hash(tokenDigest));
+    }
+
+    /**
+     * Rebuilds the issued token filter from the digests currently on the database. The digests are streamed into the
+     * filter rather than loaded at once, so the rebuild holds one fetch of digests in memory at a time.
+     *
+     * @return The number of tokens in the rebuilt filter.
+     */
+    @Transactional
+    public int refreshIssuedTokenFilter() {
+        issuedTokenFilterRefreshLock.lock();
+        try {
+            // Taken before reading, so every token issued before it, minus the margin, is in the database read
+            Instant builtAt = Instant.now();
+            long tokenCount = jpaRepository.count();
+            BloomFilter filter = new BloomFilter(
+                    (int) Math.min(Integer.MAX_VALUE, tokenCount + tokenCount / 10 + 1_000),
+                    cacheProperties.getRefreshTokenFilter().getFalsePositiveRate()
+            );
+
+            int tokens = 0;
+            try (Stream<byte[]> tokenDigests = jpaRepository.streamAllTokenDigests()) {
+                Iterator<byte[]> iterator = tokenDigests.iterator();
+                while (iterator.hasNext()) {
+                    filter.put(BloomFilter.hash(iterator.next()));
+                    tokens++;
+                }
+            }
+
+            issuedTokenFilter = new IssuedTokenFilter(filter, builtAt);
+            return tokens;
+        } finally {
+            issuedTokenFilterRefreshLock.unlock();
+        }
     }
 
     /**
@@ -0,0 +1,100 @@
+package andre.chamis.healthproject.domain.auth.repository;
+
+import andre.chamis.healthproject.cache.BloomFilter;
+import andre.chamis.healthproject.cache.LongKeyedInMemoryCache;
+import andre.chamis.healthproject.domain.auth.model.TokenClaims;
+import andre.chamis.healthproject.properties.CacheProperties;
+import org.springframework.stereotype.Repository;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A {@link LongKeyedInMemoryCache} of access tokens whose signature was already verified, keyed by a 64-bit digest
+ * of the token.
+ * <p>
+ * Each entry expires with its token. The digest only picks the entry: the cached token must still be compared with
+ * the presented one, as two tokens may share a digest. Entries are also indexed by session, so the tokens of a
+ * deleted session can be dropped.
+ */
+@Repository
+class VerifiedTokenCache extends LongKeyedInMemoryCache<TokenClaims> {
+    private final Map<Long, Set<Long>> digestsBySessionId = new ConcurrentHashMap<>();
+
+    public VerifiedTokenCache(CacheProperties cacheProperties) {
+        super(
+                tokenClaims -> digest(tokenClaims.token()),
+                cacheProperties.getVerifiedToken().getMaxSize(),
+                TokenClaims::expiresAt
+        );
+    }
+
+    /**
+     * Computes the key of a token.
+     *
+     * @param token The encoded token.
+     * @return The 64-bit digest of the token.
+     */
+    static long digest(String token) {
+        return BloomFilter.hash(token);
+    }
+
+    @Override
+    protected void onStore(TokenClaims tokenClaims) {
+        if (tokenClaims.sessionId() != null) {
+            digestsBySessionId
+                    .computeIfAbsent(tokenClaims.sessionId(), sessionId -> ConcurrentHashMap.newKeySet())
+                    .add(digest(tokenClaims.token()));
+        }
+    }
+
+    /**
+     * Checks whether the given claims are the ones cached for their token, without counting it as a lookup.
+     *
+     * @param tokenClaims The claims to check.
+     * @return {@code true} if these claims are cached.
+     */
+    public boolean isCached(TokenClaims tokenClaims) {
+        return peek(digest(tokenClaims.token())) == tokenClaims;
+    }
+
+    /**
+     * Drops every cached token of a session.
+     *
+     * @param sessionId The ID of the session.
+     */
+    public void removeBySessionId(Long sessionId) {
+        Set<Long> digests = digestsBySessionId.remove(sessionId);
+        if (digests == null) {
+            return;
+        }
+
+        for (Long digest : digests) {
+            remove(digest);
+        }
+    }
+
+    /**
+     * Removes expired tokens, then the sessions left without cached tokens from the index.
+     *
+     * @return The number of tokens removed.
+     */
+    @Override
+    public int evictExpired() {
+        int evicted = super.evictExpired();
+        digestsBySessionId.values().removeIf(digests -> {
+            digests.removeIf(digest -> peek(digest) == null);
+            return digests.isEmpty();
+        });
+        return evicted;
+    }
+
+    /**
+     * Verified tokens are derived from the token alone, so there is nothing to keep consistent across instances.
+     */
+    @Override
+    public boolean isInvalidatedAcrossInstances() {
+        return false;
+    }
+}
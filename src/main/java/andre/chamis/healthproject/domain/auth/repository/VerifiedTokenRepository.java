@@ -0,0 +1,53 @@
+package andre.chamis.healthproject.domain.auth.repository;
+
+import andre.chamis.healthproject.domain.auth.model.TokenClaims;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+/**
+ * Repository class that remembers verified access tokens, so a token sent again skips signature verification and
+ * parsing.
+ */
+@Repository
+@RequiredArgsConstructor
+public class VerifiedTokenRepository {
+    private final VerifiedTokenCache verifiedTokenCache;
+
+    /**
+     * Retrieves the claims of a token verified before, if it has not expired.
+     *
+     * @param token The encoded token.
+     * @return An {@link Optional} containing the claims of the token, or empty if it must be verified.
+     */
+    public Optional<TokenClaims> findByToken(String token) {
+        TokenClaims tokenClaims = verifiedTokenCache.getIfPresent(VerifiedTokenCache.digest(token));
+        if (tokenClaims == null || !tokenClaims.token().equals(token)) {
+            // Not cached, or another token with the same digest is
+            return Optional.empty();
+        }
+
+        return Optional.of(tokenClaims);
+    }
+
+    /**
+     * Remembers a verified token until it expires. Does nothing if these claims were found in the cache.
+     *
+     * @param tokenClaims The claims of the verified token.
+     */
+    public void save(TokenClaims tokenClaims) {
+        if (!verifiedTokenCache.isCached(tokenClaims)) {
+            verifiedTokenCache.put(tokenClaims);
+        }
+    }
+
+    /**
+     * Forgets every verified token of a session.
+     *
+     * @param sessionId The ID of the deleted session.
+     */
+    public void deleteBySessionId(Long sessionId) {
+        verifiedTokenCache.removeBySessionId(sessionId);
+    }
+}
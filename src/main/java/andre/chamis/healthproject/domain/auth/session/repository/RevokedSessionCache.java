@@ -0,0 +1,40 @@
+package andre.chamis.healthproject.domain.auth.session.repository;
+
+import andre.chamis.healthproject.cache.LongKeyedInMemoryCache;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+
+/**
+ * A {@link LongKeyedInMemoryCache} of deleted sessions whose access tokens may still be presented, used to reject
+ * those tokens without loading the session.
+ * <p>
+ * An entry only lives until the last access token of its session expires, so the list stays as small as the number
+ * of sessions deleted within one access token lifetime. It is never bounded by size, as evicting an entry would
+ * accept a revoked token again.
+ */
+@Repository
+class RevokedSessionCache extends LongKeyedInMemoryCache<RevokedSessionCache.RevokedSession> {
+
+    /**
+     * A revoked session.
+     *
+     * @param sessionId    The ID of the deleted session.
+     * @param revokedUntil When the last access token of the session expires.
+     */
+    record RevokedSession(Long sessionId, Instant revokedUntil) {
+    }
+
+    public RevokedSessionCache() {
+        super(RevokedSession::sessionId, -1, RevokedSession::revokedUntil);
+    }
+
+    /**
+     * Other instances learn about deleted sessions from revocation messages published by the
+     * {@link SessionRepository}, so entries are not invalidated across instances themselves.
+     */
+    @Override
+    public boolean isInvalidatedAcrossInstances() {
+        return false;
+    }
+}
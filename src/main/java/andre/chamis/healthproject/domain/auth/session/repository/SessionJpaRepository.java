@@ -1,6 +1,7 @@
 package andre.chamis.healthproject.domain.auth.session.repository;
 
 import andre.chamis.healthproject.domain.auth.session.model.Session;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -28,4 +29,19 @@ interface SessionJpaRepository extends JpaRepository<Session, Long> {
      * @return The list of deleted sessions.
      */
     List<Session> deleteAllByUserId(Long userId);
+
+    /**
+     * Retrieves a page of sessions expiring after the specified date, ordered by ID. Pages are chained by passing
+     * the last ID of the previous page, so each page is an index range scan instead of an offset.
+     *
+     * @param expireDt  The date the sessions must expire after.
+     * @param sessionId The ID after which the page starts.
+     * @param limit     The maximum number of sessions in the page.
+     * @return The list of sessions in the page.
+     */
+    List<Session> findAllByExpireDtAfterAndSessionIdGreaterThanOrderBySessionId(
+            Date expireDt,
+            Long sessionId,
+            Limit limit
+    );
 }
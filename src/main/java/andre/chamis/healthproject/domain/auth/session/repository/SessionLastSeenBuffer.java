@@ -0,0 +1,67 @@
+package andre.chamis.healthproject.domain.auth.session.repository;
+
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Holds when each session was last seen, until it is written to the database by
+ * {@link SessionRepository#flushLastSeen()}.
+ * <p>
+ * Only the latest instant is kept per session, so however many requests a session makes between two flushes, it is
+ * written once.
+ */
+@Repository
+class SessionLastSeenBuffer {
+    private final ConcurrentHashMap<Long, Long> lastSeenMillisBySessionId = new ConcurrentHashMap<>();
+
+    /**
+     * When a session was last seen.
+     *
+     * @param sessionId      The ID of the session.
+     * @param lastSeenMillis When the session was last seen, in epoch milliseconds.
+     */
+    record LastSeen(Long sessionId, long lastSeenMillis) {
+    }
+
+    /**
+     * Records that a session was seen, unless it was already seen later.
+     *
+     * @param sessionId      The ID of the session.
+     * @param lastSeenMillis When the session was seen, in epoch milliseconds.
+     */
+    void record(Long sessionId, long lastSeenMillis) {
+        lastSeenMillisBySessionId.merge(sessionId, lastSeenMillis, Math::max);
+    }
+
+    /**
+     * Removes and returns every pending last-seen instant. A session seen again while draining stays pending.
+     *
+     * @return The pending last-seen instants.
+     */
+    List<LastSeen> drain() {
+        List<LastSeen> drained = new ArrayList<>(lastSeenMillisBySessionId.size());
+        for (Map.Entry<Long, Long> entry : lastSeenMillisBySessionId.entrySet()) {
+            if (lastSeenMillisBySessionId.remove(entry.getKey(), entry.getValue())) {
+                drained.add(new LastSeen(entry.getKey(), entry.getValue()));
+            }
+        }
+        return drained;
+    }
+
+    /**
+     * Forgets a session, so a deleted session is not written again.
+     *
+     * @param sessionId The ID of the session.
+     */
+    void forget(Long sessionId) {
+        lastSeenMillisBySessionId.remove(sessionId);
+    }
+
+    int size() {
+        return lastSeenMillisBySessionId.size();
+    }
+}
@@ -0,0 +1,65 @@
+package andre.chamis.healthproject.domain.auth.session.repository;
+
+import andre.chamis.healthproject.cache.FixedWidthCodec;
+import andre.chamis.healthproject.cache.OffHeapLongKeyedCache;
+import andre.chamis.healthproject.domain.auth.session.model.Session;
+import andre.chamis.healthproject.properties.CacheProperties;
+import org.springframework.stereotype.Repository;
+
+import java.nio.ByteBuffer;
+import java.util.Date;
+
+/**
+ * Repository class for caching session entities off the Java heap.
+ * <p>
+ * A session is stored as a 16-byte record (user ID and creation date) next to its ID and expiration, instead of an
+ * entity, two {@link Date}s and a map node on the heap. Each session expires from the cache at its own
+ * {@link Session#getExpireDt()}. Reads return a new {@link Session}, so it must be saved for a change to be cached.
+ */
+@Repository
+class SessionOffHeapCache extends OffHeapLongKeyedCache<Session> {
+
+    public SessionOffHeapCache(CacheProperties cacheProperties) {
+        super(
+                Session::getSessionId,
+                cacheProperties.getSession().getMaxSize(),
+                session -> session.getExpireDt() == null ? null : session.getExpireDt().toInstant(),
+                new SessionCodec()
+        );
+    }
+
+    /**
+     * Stores the user ID and creation date of a session, using {@link Long#MIN_VALUE} for missing values.
+     */
+    private static final class SessionCodec implements FixedWidthCodec<Session> {
+        private static final long NULL = Long.MIN_VALUE;
+        private static final int USER_ID_OFFSET = 0;
+        private static final int CREATE_DT_OFFSET = 8;
+
+        @Override
+        public int width() {
+            return 16;
+        }
+
+        @Override
+        public void write(Session session, ByteBuffer buffer, int offset) {
+            Long userId = session.getUserId();
+            Date createDt = session.getCreateDt();
+            buffer.putLong(offset + USER_ID_OFFSET, userId == null ? NULL : userId);
+            buffer.putLong(offset + CREATE_DT_OFFSET, createDt == null ? NULL : createDt.getTime());
+        }
+
+        @Override
+        public Session read(long sessionId, long expiresAtMillis, ByteBuffer buffer, int offset) {
+            long userId = buffer.getLong(offset + USER_ID_OFFSET);
+            long createDt = buffer.getLong(offset + CREATE_DT_OFFSET);
+
+            Session session = new Session();
+            session.setSessionId(sessionId);
+            session.setUserId(userId == NULL ? null : userId);
+            session.setCreateDt(createDt == NULL ? null : new Date(createDt));
+            session.setExpireDt(expiresAtMillis == Long.MAX_VALUE ? null : new Date(expiresAtMillis));
+            return session;
+        }
+    }
+}
@@ -1,46 +1,258 @@
 package andre.chamis.healthproject.domain.auth.session.repository;
 
+import andre.chamis.healthproject.cache.invalidation.CacheInvalidationBus;
 import andre.chamis.healthproject.exception.ForbiddenException;
 import andre.chamis.healthproject.infra.request.response.ErrorMessage;
+import andre.chamis.healthproject.domain.auth.repository.VerifiedTokenRepository;
 import andre.chamis.healthproject.domain.auth.session.model.Session;
+import andre.chamis.healthproject.properties.AuthProperties;
+import andre.chamis.healthproject.properties.CacheProperties;
+import andre.chamis.healthproject.properties.SessionProperties;
 import jakarta.annotation.PostConstruct;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.Instant;
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Repository class for managing session entities using both in-memory caching and JPA.
  */
+@Slf4j
 @Repository
 @RequiredArgsConstructor
 public class SessionRepository {
-    private final SessionInMemoryCache inMemoryCache;
+    /**
+     * The name revoked sessions are published under, see {@link CacheInvalidationBus#subscribe}.
+     */
+    private static final String SESSION_REVOCATIONS = "SessionRevocations";
+
+    private final SessionOffHeapCache inMemoryCache;
     private final SessionJpaRepository jpaRepository;
+    private final CacheProperties cacheProperties;
+    private final VerifiedTokenRepository verifiedTokenRepository;
+    private final RevokedSessionCache revokedSessionCache;
+    private final AuthProperties authProperties;
+    private final SessionLastSeenBuffer lastSeenBuffer;
+    private final SessionProperties sessionProperties;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final CacheInvalidationBus cacheInvalidationBus;
+
+    private final LongAdder flushedLastSeenUpdates = new LongAdder();
+    private final LongAdder extendedSessions = new LongAdder();
+    private final LongAdder failedLastSeenFlushes = new LongAdder();
+
+    /**
+     * Loads the unexpired sessions into the in-memory cache, one page at a time, while the application serves
+     * traffic. Stops early once the cache is full.
+     * <p>
+     * A page read before a session was deleted may still hold it. Deleting a session revokes it before removing it
+     * from the cache, so once a page is added, dropping its revoked sessions catches every such session: either the
+     * deletion removes it after the page was added, or it was already revoked.
+     *
+     * @return The number of sessions added to the cache.
+     */
+    public int warmUpCache() {
+        int pageSize = cacheProperties.getWarmup().getPageSize();
+        int maxSize = inMemoryCache.getMaxSize();
+        Date now = Date.from(Instant.now());
+        long lastSessionId = Long.MIN_VALUE;
+        int warmedUpSessions = 0;
+
+        List<Session> page;
+        do {
+            page = jpaRepository.findAllByExpireDtAfterAndSessionIdGreaterThanOrderBySessionId(
+                    now, lastSessionId, Limit.of(pageSize)
+            );
+            if (page.isEmpty()) {
+                break;
+            }
+
+            inMemoryCache.addMultiple(page);
+            dropRevokedSessions(page);
+            lastSessionId = page.get(page.size() - 1).getSessionId();
+            warmedUpSessions += page.size();
+        } while (page.size() == pageSize && (maxSize < 0 || inMemoryCache.getSize() < maxSize));
+
+        return warmedUpSessions;
+    }
+
+    private void dropRevokedSessions(List<Session> sessions) {
+        for (Session session : sessions) {
+            if (isRevoked(session.getSessionId())) {
+                inMemoryCache.invalidate(session.getSessionId().toString());
+            }
+        }
+    }
 
     /**
-     * Initializes the in-memory cache with data from the database.
+     * With stateless access tokens, listens for the sessions other instances revoke, so they are revoked here as
+     * well. Other changes to sessions never revoke them, so no other message needs a look at the database.
      */
     @PostConstruct
-    void initializeCache() {
-        inMemoryCache.initializeCache(jpaRepository.findAll());
+    void listenForRemotelyRevokedSessions() {
+        if (authProperties.isStatelessAccessTokens()) {
+            cacheInvalidationBus.subscribe(
+                    SESSION_REVOCATIONS,
+                    sessionId -> revoke(Long.parseLong(sessionId), null)
+            );
+        }
+    }
+
+    /**
+     * Revokes a deleted session and, with stateless access tokens, publishes the revocation to other instances.
+     *
+     * @param sessionId The ID of the deleted session.
+     * @param expireDt  When the session expires, or {@code null} if unknown.
+     */
+    private void revokeEverywhere(Long sessionId, Date expireDt) {
+        revoke(sessionId, expireDt);
+        if (authProperties.isStatelessAccessTokens()) {
+            cacheInvalidationBus.publish(SESSION_REVOCATIONS, sessionId.toString());
+        }
+    }
+
+    /**
+     * Adds a session to the revoked sessions, until every access token issued for it has expired.
+     *
+     * @param sessionId The ID of the deleted session.
+     * @param expireDt  When the session expires, or {@code null} if unknown.
+     */
+    private void revoke(Long sessionId, Date expireDt) {
+        AuthProperties.JwtProperties.TokenConfig accessToken = authProperties.getUser().getAccessToken();
+        Instant revokedUntil = Instant.now().plus(accessToken.getDuration(), accessToken.getUnit());
+        if (expireDt != null && expireDt.toInstant().isBefore(revokedUntil)) {
+            revokedUntil = expireDt.toInstant();
+        }
+
+        revokedSessionCache.put(new RevokedSessionCache.RevokedSession(sessionId, revokedUntil));
+    }
+
+    /**
+     * Checks whether a session was deleted while access tokens issued for it may still be valid. Only looks at
+     * memory.
+     *
+     * @param sessionId The ID of the session.
+     * @return {@code true} if the session was revoked.
+     */
+    public boolean isRevoked(Long sessionId) {
+        return revokedSessionCache.containsKey(sessionId);
     }
 
     /**
      * Saves a session, updating both the database and the in-memory cache.
+     * <p>
+     * Inside a transaction, such as a group commit, the session is not cached: the caller caches it with
+     * {@link #cacheCreatedSession} once the transaction has committed, so a rolled back session is never cached.
      *
      * @param session The session to be saved.
      * @return The saved session.
      */
     public Session save(Session session) {
-        session = jpaRepository.save(session);
-        inMemoryCache.put(session);
+        Session savedSession = jpaRepository.save(session);
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            inMemoryCache.put(savedSession);
+        }
+
+        return savedSession;
+    }
+
+    /**
+     * Caches a session created by a committed transaction. It is not published to other instances: none of them can
+     * hold a session that did not exist yet, and they load it on their first miss.
+     *
+     * @param session The created session.
+     */
+    public void cacheCreatedSession(Session session) {
+        inMemoryCache.addMultiple(List.of(session));
+    }
+
+    /**
+     * Records that a session was used, to extend its expiration on the next {@link #flushLastSeen()}. Only touches
+     * memory.
+     *
+     * @param sessionId The ID of the session.
+     * @param seenAt    When the session was used.
+     */
+    public void recordLastSeen(Long sessionId, Instant seenAt) {
+        lastSeenBuffer.record(sessionId, seenAt.toEpochMilli());
+    }
+
+    /**
+     * Writes the pending last-seen times in one batch, extending each session to expire one session duration after
+     * it was last seen. An expiration is never moved back, so instances flushing the same session concurrently do not
+     * undo each other, and a deleted session is not written again. The extended sessions are updated in the
+     * in-memory cache if they are still cached there. They are not published: another instance drops its copy when
+     * the previous expiration passes and loads the extended session, so a flush costs no message per session.
+     * <p>
+     * If the batch fails, the times are put back to be written by the next flush.
+     *
+     * @return The number of sessions extended.
+     */
+    public int flushLastSeen() {
+        List<SessionLastSeenBuffer.LastSeen> pending = lastSeenBuffer.drain();
+        if (pending.isEmpty()) {
+            return 0;
+        }
+
+        SqlParameterSource[] batch = new SqlParameterSource[pending.size()];
+        for (int i = 0; i < batch.length; i++) {
+            SessionLastSeenBuffer.LastSeen lastSeen = pending.get(i);
+            batch[i] = new MapSqlParameterSource()
+                    .addValue("sessionId", lastSeen.sessionId())
+                    .addValue("expireDt", getSlidingExpireDt(lastSeen));
+        }
 
-        return session;
+        int[] updatedRows;
+        try {
+            updatedRows = namedParameterJdbcTemplate.batchUpdate("""
+                    UPDATE sessions SET expire_dt = :expireDt
+                    WHERE session_id = :sessionId AND expire_dt < :expireDt
+                    """, batch);
+        } catch (DataAccessException e) {
+            failedLastSeenFlushes.increment();
+            log.warn("Could not write the last-seen times of [{} sessions], retrying on next flush", pending.size(), e);
+            pending.forEach(lastSeen -> lastSeenBuffer.record(lastSeen.sessionId(), lastSeen.lastSeenMillis()));
+            return 0;
+        }
+        flushedLastSeenUpdates.add(pending.size());
+
+        int extended = 0;
+        for (int i = 0; i < updatedRows.length; i++) {
+            // Drivers may report a successful batch without counts, which is treated as an extension
+            if (updatedRows[i] == 0) {
+                continue;
+            }
+
+            extended++;
+            SessionLastSeenBuffer.LastSeen lastSeen = pending.get(i);
+            Session cachedSession = inMemoryCache.getIfPresent(lastSeen.sessionId());
+            if (cachedSession != null && !isRevoked(lastSeen.sessionId())) {
+                // Only replaced if still cached, so a session deleted since it was read is not cached again
+                cachedSession.setExpireDt(getSlidingExpireDt(lastSeen));
+                inMemoryCache.replaceIfPresent(cachedSession);
+            }
+        }
+        extendedSessions.add(extended);
+
+        return extended;
+    }
+
+    private Date getSlidingExpireDt(SessionLastSeenBuffer.LastSeen lastSeen) {
+        return Date.from(Instant.ofEpochMilli(lastSeen.lastSeenMillis()).plus(
+                sessionProperties.getDuration(), sessionProperties.getUnit()
+        ));
     }
 
     /**
@@ -54,15 +266,7 @@ public class SessionRepository {
             throw new ForbiddenException(ErrorMessage.NO_SESSION);
         }
 
-        Optional<Session> sessionOptionalFromCache = inMemoryCache.get(sessionId);
-        if (sessionOptionalFromCache.isPresent()) {
-            return sessionOptionalFromCache;
-        }
-
-        Optional<Session> sessionOptionalFromDatabase = jpaRepository.findById(sessionId);
-        sessionOptionalFromDatabase.ifPresent(inMemoryCache::put);
-
-        return sessionOptionalFromDatabase;
+        return inMemoryCache.getOrLoad(sessionId, jpaRepository::findById);
     }
 
     /**
@@ -73,27 +277,54 @@ public class SessionRepository {
     public int deleteAllExpired() {
         List<Session> deletedSessions = jpaRepository.deleteAllByExpireDtBefore(Date.from(Instant.now()));
         inMemoryCache.deleteFromList(deletedSessions);
+        deletedSessions.forEach(session -> verifiedTokenRepository.deleteBySessionId(session.getSessionId()));
         return deletedSessions.size();
     }
 
     /**
-     * Deletes a session by its ID from both the database and the in-memory cache.
+     * Deletes a session by its ID from both the database and the in-memory cache, forgets its verified tokens and
+     * revokes it.
      *
      * @param sessionId The ID of the session to delete.
      */
     public void deleteSessionById(Long sessionId) {
+        lastSeenBuffer.forget(sessionId);
+        // Revoked first, so its access tokens are never accepted once it is gone, and a warmup racing this drops it
+        revokeEverywhere(sessionId, null);
         jpaRepository.deleteById(sessionId);
         inMemoryCache.remove(sessionId);
+        verifiedTokenRepository.deleteBySessionId(sessionId);
     }
 
     /**
-     * Deletes all sessions associated with a given user ID from both the database and the in-memory cache.
+     * Deletes all sessions associated with a given user ID from both the database and the in-memory cache, forgets
+     * their verified tokens and revokes them.
      *
      * @param userId The ID of the user whose sessions will be deleted.
      */
     @Transactional
     public void deleteSessionsByUserId(Long userId) {
         List<Session> sessions = jpaRepository.deleteAllByUserId(userId);
+        sessions.forEach(session -> lastSeenBuffer.forget(session.getSessionId()));
+        // Revoked before being removed from the cache, see warmUpCache
+        sessions.forEach(session -> revokeEverywhere(session.getSessionId(), session.getExpireDt()));
         inMemoryCache.deleteFromList(sessions);
+        sessions.forEach(session -> verifiedTokenRepository.deleteBySessionId(session.getSessionId()));
+    }
+
+    public int getPendingLastSeenUpdates() {
+        return lastSeenBuffer.size();
+    }
+
+    public long getFlushedLastSeenUpdates() {
+        return flushedLastSeenUpdates.sum();
+    }
+
+    public long getExtendedSessions() {
+        return extendedSessions.sum();
+    }
+
+    public long getFailedLastSeenFlushes() {
+        return failedLastSeenFlushes.sum();
     }
 }
@@ -1,5 +1,7 @@
 package andre.chamis.healthproject.domain.user.dto;
 
+import andre.chamis.healthproject.infra.ratelimit.EmailIdentifiedRequest;
+
 import java.util.Optional;
 
 /**
@@ -10,5 +12,5 @@ import java.util.Optional;
 public record CreateUserDTO(
         String email,
         Optional<String> stripeClientId
-) {
+) implements EmailIdentifiedRequest {
 }
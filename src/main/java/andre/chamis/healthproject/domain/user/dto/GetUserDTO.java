@@ -1,5 +1,6 @@
 package andre.chamis.healthproject.domain.user.dto;
 
+import andre.chamis.healthproject.context.PrincipalSnapshot;
 import andre.chamis.healthproject.domain.user.model.User;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -62,4 +63,23 @@ public class GetUserDTO {
 
         return getUserDTO;
     }
+
+    /**
+     * Creates a {@link GetUserDTO} instance from a {@link PrincipalSnapshot}.
+     *
+     * @param principal The snapshot of the authenticated user.
+     * @return A {@link GetUserDTO} instance containing user information.
+     */
+    public static GetUserDTO fromPrincipal(PrincipalSnapshot principal) {
+        GetUserDTO getUserDTO = new GetUserDTO();
+        getUserDTO.setUserId(principal.userId());
+        getUserDTO.setUsername(principal.username());
+        getUserDTO.setEmail(principal.email());
+        getUserDTO.setIsRegistrationComplete(principal.isRegistrationComplete());
+        getUserDTO.setIsPaymentActive(principal.isPaymentActive());
+        getUserDTO.setIsCustomer(null != principal.stripeClientId());
+        getUserDTO.setIsClockedIn(principal.clockedIn());
+        getUserDTO.setClockedInAt(principal.clockedInAt());
+        return getUserDTO;
+    }
 }
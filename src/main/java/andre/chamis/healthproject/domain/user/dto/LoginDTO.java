@@ -1,10 +1,12 @@
 package andre.chamis.healthproject.domain.user.dto;
 
+import andre.chamis.healthproject.infra.ratelimit.EmailIdentifiedRequest;
+
 /**
  * Data Transfer Object (DTO) for user login information.
  */
 public record LoginDTO(
         String email,
         String password
-) {
+) implements EmailIdentifiedRequest {
 }
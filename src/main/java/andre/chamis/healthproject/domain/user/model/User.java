@@ -9,10 +9,10 @@ import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 
 import java.time.Instant;
 import java.util.Date;
+import java.util.function.UnaryOperator;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -172,10 +172,9 @@ public class User {
         }
     }
 
-    public String setOtp(int otpLength) {
-        BCryptPasswordEncoder bCryptPasswordEncoder = new BCryptPasswordEncoder();
+    public String setOtp(int otpLength, UnaryOperator<String> passwordEncoder) {
         String oneTimePassword = StringUtils.generateRandomString(otpLength);
-        this.password = bCryptPasswordEncoder.encode(oneTimePassword);
+        this.password = passwordEncoder.apply(oneTimePassword);
 
         return oneTimePassword;
     }
@@ -195,19 +194,18 @@ public class User {
                 '}';
     }
 
-    public void setPassword(String password, String confirmPassword) throws ValidationException {
+    public void setPassword(
+            String password,
+            String confirmPassword,
+            UnaryOperator<String> passwordEncoder
+    ) throws ValidationException {
         validatePassword(password);
 
         if (!password.equals(confirmPassword)) {
             throw new BadArgumentException(ErrorMessage.PASSWORDS_DONT_MATCH);
         }
 
-        setHashedPassword(password);
-    }
-
-    private void setHashedPassword(String password) {
-        BCryptPasswordEncoder bCryptPasswordEncoder = new BCryptPasswordEncoder(10);
-        this.password = bCryptPasswordEncoder.encode(password);
+        this.password = passwordEncoder.apply(password);
     }
 
     /**
@@ -241,9 +239,12 @@ public class User {
         }
     }
 
-    public void completeRegistration(CompleteRegistrationDTO completeRegistrationDTO) throws ValidationException {
+    public void completeRegistration(
+            CompleteRegistrationDTO completeRegistrationDTO,
+            UnaryOperator<String> passwordEncoder
+    ) throws ValidationException {
         setUsername(completeRegistrationDTO.username());
-        setPassword(completeRegistrationDTO.password(), completeRegistrationDTO.confirmPassword());
+        setPassword(completeRegistrationDTO.password(), completeRegistrationDTO.confirmPassword(), passwordEncoder);
 
         setRegistrationComplete(true);
         setActive(true);
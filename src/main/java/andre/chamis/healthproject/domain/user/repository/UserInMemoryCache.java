@@ -1,16 +1,193 @@
 package andre.chamis.healthproject.domain.user.repository;
 
-import andre.chamis.healthproject.cache.InMemoryCache;
+import andre.chamis.healthproject.cache.LongKeyedInMemoryCache;
 import andre.chamis.healthproject.domain.user.model.User;
+import andre.chamis.healthproject.properties.CacheProperties;
 import org.springframework.stereotype.Repository;
 
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
 /**
- * An {@link InMemoryCache} for caching user entities in memory.
+ * A {@link LongKeyedInMemoryCache} for caching user entities in memory.
+ * <p>
+ * Users expire a fixed time after being stored, as configured on {@code cache.user}, and frequently read users are
+ * reloaded shortly before that.
+ * <p>
+ * Cached users are also indexed by email, Stripe client ID and username. The indexes only map an attribute to a
+ * user ID; a lookup checks that the cached user still has that attribute, so an index entry left behind by a
+ * change, a removal or an eviction is never returned. Such entries are dropped when found and swept along with
+ * expired users.
  */
 @Repository
-class UserInMemoryCache extends InMemoryCache<Long, User> {
+class UserInMemoryCache extends LongKeyedInMemoryCache<User> {
+    private static final int MAX_REMOTELY_CHANGED_USERS = 10_000;
+
+    private final Map<String, Long> userIdsByEmail = new ConcurrentHashMap<>();
+    private final Map<String, Long> userIdsByStripeClientId = new ConcurrentHashMap<>();
+    private final Map<String, Long> userIdsByUsername = new ConcurrentHashMap<>();
+
+    /**
+     * IDs of users changed by other instances, until {@link #drainRemotelyChangedUserIds} or
+     * {@link #clearRemotelyChangedUserIds} is called. Holds at most {@value #MAX_REMOTELY_CHANGED_USERS} IDs; once
+     * more users changed, they are no longer tracked and {@link #tooManyRemotelyChangedUsers} is set instead.
+     */
+    private final Set<Long> remotelyChangedUserIds = ConcurrentHashMap.newKeySet();
+    private volatile boolean tooManyRemotelyChangedUsers;
+
+    public UserInMemoryCache(CacheProperties cacheProperties) {
+        super(
+                User::getUserId,
+                cacheProperties.getUser().getMaxSize(),
+                user -> cacheProperties.getUser().calculateExpirationFromNow()
+        );
+        enableRefreshAhead(cacheProperties.getUser().getRefreshAhead());
+    }
+
+    @Override
+    protected void onStore(User user) {
+        index(userIdsByEmail, user.getEmail(), user);
+        index(userIdsByStripeClientId, user.getStripeClientId(), user);
+        index(userIdsByUsername, user.getUsername(), user);
+    }
+
+    private static void index(Map<String, Long> index, String attribute, User user) {
+        if (attribute != null) {
+            index.put(attribute, user.getUserId());
+        }
+    }
+
+    /**
+     * Retrieves a cached user by email.
+     *
+     * @param email The email of the user.
+     * @return An {@link Optional} containing the user, or empty if no cached user has this email.
+     */
+    public Optional<User> getByEmail(String email) {
+        return getByAttribute(userIdsByEmail, email, User::getEmail);
+    }
+
+    /**
+     * Retrieves a cached user by Stripe client ID.
+     *
+     * @param stripeClientId The Stripe client ID of the user.
+     * @return An {@link Optional} containing the user, or empty if no cached user has this Stripe client ID.
+     */
+    public Optional<User> getByStripeClientId(String stripeClientId) {
+        return getByAttribute(userIdsByStripeClientId, stripeClientId, User::getStripeClientId);
+    }
+
+    /**
+     * Retrieves a cached user by username.
+     *
+     * @param username The username of the user.
+     * @return An {@link Optional} containing the user, or empty if no cached user has this username.
+     */
+    public Optional<User> getByUsername(String username) {
+        return getByAttribute(userIdsByUsername, username, User::getUsername);
+    }
+
+    private Optional<User> getByAttribute(
+            Map<String, Long> index,
+            String attribute,
+            Function<User, String> attributeExtractor
+    ) {
+        if (attribute == null) {
+            return Optional.empty();
+        }
+
+        Long userId = index.get(attribute);
+        if (userId == null) {
+            getStatistics().recordMiss();
+            return Optional.empty();
+        }
+
+        User user = peek(userId);
+        if (user == null || !attribute.equals(attributeExtractor.apply(user))) {
+            index.remove(attribute, userId);
+            getStatistics().recordMiss();
+            return Optional.empty();
+        }
+
+        return get(userId);
+    }
+
+    /**
+     * Removes expired users, then the index entries that no longer match a cached user.
+     *
+     * @return The number of users removed.
+     */
+    @Override
+    public int evictExpired() {
+        int evicted = super.evictExpired();
+        pruneIndex(userIdsByEmail, User::getEmail);
+        pruneIndex(userIdsByStripeClientId, User::getStripeClientId);
+        pruneIndex(userIdsByUsername, User::getUsername);
+        return evicted;
+    }
+
+    private void pruneIndex(Map<String, Long> index, Function<User, String> attributeExtractor) {
+        index.entrySet().removeIf(entry -> {
+            User user = peek(entry.getValue());
+            return user == null || !entry.getKey().equals(attributeExtractor.apply(user));
+        });
+    }
+
+    /**
+     * Drops a user changed by another instance, and remembers its ID so lookups that do not go through this cache,
+     * such as the email filter, can catch up.
+     *
+     * @param key The ID of the user, as a string.
+     */
+    @Override
+    public void invalidate(String key) {
+        super.invalidate(key);
+        if (tooManyRemotelyChangedUsers) {
+            return;
+        }
+
+        if (remotelyChangedUserIds.size() >= MAX_REMOTELY_CHANGED_USERS) {
+            tooManyRemotelyChangedUsers = true;
+            remotelyChangedUserIds.clear();
+            return;
+        }
+
+        remotelyChangedUserIds.add(Long.parseLong(key));
+    }
+
+    /**
+     * Retrieves and forgets the IDs of the users changed by other instances since the last call.
+     *
+     * @return The IDs of the changed users, or empty if too many users changed to track them all since the last
+     * {@link #clearRemotelyChangedUserIds}.
+     */
+    public Optional<List<Long>> drainRemotelyChangedUserIds() {
+        if (tooManyRemotelyChangedUsers) {
+            return Optional.empty();
+        }
+
+        List<Long> userIds = new ArrayList<>();
+        Iterator<Long> iterator = remotelyChangedUserIds.iterator();
+        while (iterator.hasNext()) {
+            userIds.add(iterator.next());
+            iterator.remove();
+        }
+
+        return Optional.of(userIds);
+    }
 
-    public UserInMemoryCache() {
-        super(User::getUserId);
+    /**
+     * Forgets the users changed by other instances so far, because whatever depended on them is being rebuilt from
+     * the database.
+     */
+    public void clearRemotelyChangedUserIds() {
+        remotelyChangedUserIds.clear();
+        tooManyRemotelyChangedUsers = false;
     }
 }
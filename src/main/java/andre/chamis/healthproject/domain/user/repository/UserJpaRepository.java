@@ -39,6 +39,14 @@ interface UserJpaRepository extends JpaRepository<User, Long> {
      */
     Optional<User> findUserByEmail(String email);
 
+    /**
+     * Retrieves the email of every user, without loading the users themselves.
+     *
+     * @return A list with the email of each user.
+     */
+    @Query("SELECT u.email FROM User u")
+    List<String> findAllEmails();
+
     /**
      * Retrieves a list of users with the specified registration completion status and whose update date is before the given expiration date.
      *
@@ -1,6 +1,8 @@
 package andre.chamis.healthproject.domain.user.repository;
 
+import andre.chamis.healthproject.cache.BloomFilter;
 import andre.chamis.healthproject.domain.user.model.User;
+import andre.chamis.healthproject.properties.CacheProperties;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Repository;
@@ -9,6 +11,7 @@ import java.time.Instant;
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Repository class for managing user entities using both JPA and in-memory caching.
@@ -19,6 +22,26 @@ import java.util.Optional;
 public class UserRepository {
     private final UserJpaRepository userJpaRepository;
     private final UserInMemoryCache userInMemoryCache;
+    private final CacheProperties cacheProperties;
+
+    /**
+     * Membership filter of every registered email. Emails it rejects are not registered, without asking the
+     * database. {@code null} until first built, in which case every email is looked up.
+     */
+    private volatile BloomFilter emailFilter;
+
+    /**
+     * The filter being rebuilt, if any. Emails saved during a rebuild are added to both filters, so none is lost
+     * when the rebuilt filter is swapped in.
+     */
+    private volatile BloomFilter rebuildingEmailFilter;
+
+    /**
+     * Locks are held across database reads, so they are {@link ReentrantLock}s rather than monitors, which would pin
+     * the carrier of a virtual thread while it waits on the database.
+     */
+    private final ReentrantLock remoteChangesLock = new ReentrantLock();
+    private final ReentrantLock emailFilterRefreshLock = new ReentrantLock();
 
     /**
      * Finds a user by their ID, first checking the in-memory cache, then the database.
@@ -27,15 +50,11 @@ public class UserRepository {
      * @return An {@link Optional} containing the found user, or empty if not found.
      */
     public Optional<User> findById(Long userId) {
-        Optional<User> userOptionalFromCache = userInMemoryCache.get(userId);
-        if (userOptionalFromCache.isPresent()) {
-            return userOptionalFromCache;
+        if (userId == null) {
+            return Optional.empty();
         }
 
-        Optional<User> userOptionalFromDatabase = userJpaRepository.findById(userId);
-        userOptionalFromDatabase.ifPresent(userInMemoryCache::put);
-
-        return userOptionalFromDatabase;
+        return userInMemoryCache.getOrLoad(userId, userJpaRepository::findById);
     }
 
     /**
@@ -51,20 +70,130 @@ public class UserRepository {
         user = userJpaRepository.save(user);
 
         userInMemoryCache.put(user);
+        addToEmailFilter(user.getEmail());
 
         return user;
     }
 
     /**
      * Checks if a user with the given email exists.
+     * <p>
+     * Emails rejected by the email filter are reported as missing without a database query. Otherwise, the cached
+     * users are checked, then the database.
      *
      * @param email The email to check for existence.
      * @return {@code true} if a user with the given email exists, otherwise {@code false}.
      */
     public boolean existsByEmail(String email) {
+        if (email == null) {
+            return false;
+        }
+
+        if (isRejectedByEmailFilter(email)) {
+            return false;
+        }
+
+        if (userInMemoryCache.getByEmail(email).isPresent()) {
+            return true;
+        }
+
         return userJpaRepository.existsByEmail(email);
     }
 
+    /**
+     * Checks the email filter, first adding the emails of users registered by other instances if the filter
+     * rejects the email. If too many users changed since the filter was built to catch up with, the email is not
+     * rejected, so it is looked up until the next rebuild.
+     */
+    private boolean isRejectedByEmailFilter(String email) {
+        BloomFilter filter = emailFilter;
+        if (filter == null || filter.mightContain(email)) {
+            return false;
+        }
+
+        if (!addRemotelyChangedUsersToEmailFilter()) {
+            return false;
+        }
+
+        filter = emailFilter;
+        return filter != null && !filter.mightContain(email);
+    }
+
+    /**
+     * Adds the emails of the users changed by other instances to the email filter. Serialized, so a caller never
+     * checks the filter while another one still holds emails it has not added.
+     *
+     * @return {@code false} if too many users changed to catch up with, in which case the filter may miss emails.
+     */
+    private boolean addRemotelyChangedUsersToEmailFilter() {
+        remoteChangesLock.lock();
+        try {
+            Optional<List<Long>> userIds = userInMemoryCache.drainRemotelyChangedUserIds();
+            if (userIds.isEmpty()) {
+                return false;
+            }
+
+            if (!userIds.get().isEmpty()) {
+                for (User user : userJpaRepository.findAllById(userIds.get())) {
+                    addToEmailFilter(user.getEmail());
+                }
+            }
+
+            return true;
+        } finally {
+            remoteChangesLock.unlock();
+        }
+    }
+
+    private void addToEmailFilter(String email) {
+        if (email == null) {
+            return;
+        }
+
+        // Read the filter being rebuilt first: once it is cleared, the rebuilt filter is already the current one
+        BloomFilter rebuildingFilter = rebuildingEmailFilter;
+        BloomFilter filter = emailFilter;
+        if (filter != null) {
+            filter.put(email);
+        }
+
+        if (rebuildingFilter != null) {
+            rebuildingFilter.put(email);
+        }
+    }
+
+    /**
+     * Rebuilds the email filter from the emails currently in the database, dropping the emails of deleted users.
+     *
+     * @return The number of emails in the rebuilt filter.
+     */
+    public int refreshEmailFilter() {
+        emailFilterRefreshLock.lock();
+        try {
+            // Every change made before this point is in the emails read below
+            userInMemoryCache.clearRemotelyChangedUserIds();
+            long userCount = userJpaRepository.count();
+            BloomFilter filter = new BloomFilter(
+                    (int) Math.min(Integer.MAX_VALUE, userCount + userCount / 10 + 1_000),
+                    cacheProperties.getUserEmailFilter().getFalsePositiveRate()
+            );
+            rebuildingEmailFilter = filter;
+
+            List<String> emails = userJpaRepository.findAllEmails();
+            for (String email : emails) {
+                if (email != null) {
+                    filter.put(email);
+                }
+            }
+
+            emailFilter = filter;
+            rebuildingEmailFilter = null;
+            return emails.size();
+        } finally {
+            emailFilterRefreshLock.unlock();
+        }
+    }
+
     /**
      * Deletes a user by their ID from both the database and the in-memory cache.
      *
@@ -75,8 +204,42 @@ public class UserRepository {
         userJpaRepository.deleteById(userId);
     }
 
+    /**
+     * Finds a user by their email, first checking the in-memory cache, then the database.
+     *
+     * @param email The email of the user to find.
+     * @return An {@link Optional} containing the found user, or empty if not found.
+     */
     public Optional<User> findUserByEmail(String email) {
-        return userJpaRepository.findUserByEmail(email);
+        if (email == null) {
+            return Optional.empty();
+        }
+
+        Optional<User> cachedUser = userInMemoryCache.getByEmail(email);
+        if (cachedUser.isPresent()) {
+            return cachedUser;
+        }
+
+        return userInMemoryCache.loadAndStore(() -> userJpaRepository.findUserByEmail(email));
+    }
+
+    /**
+     * Finds a user by their username, first checking the in-memory cache, then the database.
+     *
+     * @param username The username of the user to find.
+     * @return An {@link Optional} containing the found user, or empty if not found.
+     */
+    public Optional<User> findUserByUsername(String username) {
+        if (username == null) {
+            return Optional.empty();
+        }
+
+        Optional<User> cachedUser = userInMemoryCache.getByUsername(username);
+        if (cachedUser.isPresent()) {
+            return cachedUser;
+        }
+
+        return userInMemoryCache.loadAndStore(() -> userJpaRepository.findUserByUsername(username));
     }
 
     /**
@@ -90,12 +253,21 @@ public class UserRepository {
     }
 
     /**
-     * Finds a user by their Stripe client ID.
+     * Finds a user by their Stripe client ID, first checking the in-memory cache, then the database.
      *
      * @param stripeClientId The Stripe client ID of the user to find.
      * @return An {@link Optional} containing the found user, or empty if not found.
      */
     public Optional<User> findUserByStripeClientId(String stripeClientId) {
-        return userJpaRepository.findByStripeClientId(stripeClientId);
+        if (stripeClientId == null) {
+            return Optional.empty();
+        }
+
+        Optional<User> cachedUser = userInMemoryCache.getByStripeClientId(stripeClientId);
+        if (cachedUser.isPresent()) {
+            return cachedUser;
+        }
+
+        return userInMemoryCache.loadAndStore(() -> userJpaRepository.findByStripeClientId(stripeClientId));
     }
 }
@@ -0,0 +1,21 @@
+package andre.chamis.healthproject.exception;
+
+import andre.chamis.healthproject.infra.request.response.ErrorMessage;
+import org.springframework.http.HttpStatus;
+
+/**
+ * Custom exception representing a service unavailable (503) status code.
+ */
+public class ServiceUnavailableException extends ExceptionWithStatusCode {
+    private static final HttpStatus httpStatus = HttpStatus.SERVICE_UNAVAILABLE;
+
+    /**
+     * Constructs a service unavailable exception with the given error message and default HTTP status
+     * (503 - Service Unavailable).
+     *
+     * @param errorMessage The error message associated with the exception.
+     */
+    public ServiceUnavailableException(ErrorMessage errorMessage) {
+        super(errorMessage, httpStatus);
+    }
+}
@@ -0,0 +1,21 @@
+package andre.chamis.healthproject.exception;
+
+import andre.chamis.healthproject.infra.request.response.ErrorMessage;
+import org.springframework.http.HttpStatus;
+
+/**
+ * Custom exception representing a too many requests (429) status code.
+ */
+public class TooManyRequestsException extends ExceptionWithStatusCode {
+    private static final HttpStatus httpStatus = HttpStatus.TOO_MANY_REQUESTS;
+
+    /**
+     * Constructs a too many requests exception with the given error message and default HTTP status
+     * (429 - Too Many Requests).
+     *
+     * @param errorMessage The error message associated with the exception.
+     */
+    public TooManyRequestsException(ErrorMessage errorMessage) {
+        super(errorMessage, httpStatus);
+    }
+}
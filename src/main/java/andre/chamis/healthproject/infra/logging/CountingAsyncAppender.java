@@ -0,0 +1,65 @@
+package andre.chamis.healthproject.infra.logging;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Logback {@link AsyncAppender} that counts the events it drops, which the base appender does silently.
+ * <p>
+ * Events below {@code WARN} that arrive while the queue is past its discarding threshold are counted exactly. Other
+ * events are only dropped when the queue is full and the appender never blocks; the queue is not visible to
+ * subclasses, so those are counted when it is full right before the event is offered, which is approximate under
+ * contention. Configured in {@code logback-spring.xml} in place of {@link AsyncAppender}.
+ * <p>
+ * Like {@link SamplingTurboFilter#SUPPRESSED_EVENTS_KEY}, the counts are published in the Logback context.
+ */
+public class CountingAsyncAppender extends AsyncAppender {
+    /**
+     * The key of the {@link LongSupplier} of lines discarded past the discarding threshold in the Logback context.
+     */
+    public static final String DISCARDED_EVENTS_KEY = "async.discardedEvents";
+
+    /**
+     * The key of the {@link LongSupplier} of lines dropped with a full queue in the Logback context.
+     */
+    public static final String DROPPED_EVENTS_KEY = "async.droppedEvents";
+
+    private final LongAdder discardedEvents = new LongAdder();
+    private final LongAdder droppedEvents = new LongAdder();
+
+    @Override
+    public void start() {
+        getContext().putObject(DISCARDED_EVENTS_KEY, (LongSupplier) this::getDiscardedEvents);
+        getContext().putObject(DROPPED_EVENTS_KEY, (LongSupplier) this::getDroppedEvents);
+        super.start();
+    }
+
+    @Override
+    protected boolean isDiscardable(ILoggingEvent event) {
+        // Only asked when the queue is past the discarding threshold, so a discardable event is always dropped
+        boolean isDiscardable = super.isDiscardable(event);
+        if (isDiscardable) {
+            discardedEvents.increment();
+        }
+        return isDiscardable;
+    }
+
+    @Override
+    protected void preprocess(ILoggingEvent event) {
+        super.preprocess(event);
+        if (isNeverBlock() && getRemainingCapacity() == 0) {
+            droppedEvents.increment();
+        }
+    }
+
+    public long getDiscardedEvents() {
+        return discardedEvents.sum();
+    }
+
+    public long getDroppedEvents() {
+        return droppedEvents.sum();
+    }
+}
@@ -0,0 +1,113 @@
+package andre.chamis.healthproject.infra.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Logback turbo filter that caps how many lines per second each sampled logger writes below {@code WARN}.
+ * <p>
+ * Turbo filters run before Logback creates the logging event, so a suppressed line costs a map lookup and an atomic
+ * increment, without formatting the message or queueing it. Only lines the logger's level lets through are counted,
+ * and disabled calls cost no lookup. Loggers are sampled when their name starts with one of
+ * the configured prefixes, and each gets its own one-second window. Warnings and errors always pass. Configured in
+ * {@code logback-spring.xml}:
+ * <pre>
+ * &lt;turboFilter class="andre.chamis.healthproject.infra.logging.SamplingTurboFilter"&gt;
+ *     &lt;maxEventsPerSecond&gt;100&lt;/maxEventsPerSecond&gt;
+ *     &lt;loggerPrefix&gt;andre.chamis.healthproject.interceptor&lt;/loggerPrefix&gt;
+ * &lt;/turboFilter&gt;
+ * </pre>
+ */
+public class SamplingTurboFilter extends TurboFilter {
+    /**
+     * The key of the {@link LongSupplier} of suppressed lines in the Logback context. Read through the context rather
+     * than this class, which may be loaded again by another class loader, such as the one of DevTools restarts.
+     */
+    public static final String SUPPRESSED_EVENTS_KEY = "sampling.suppressedEvents";
+
+    private static final long WINDOW_NANOS = 1_000_000_000L;
+
+    /**
+     * Marks loggers that are not sampled, so the prefixes are only matched once per logger.
+     */
+    private static final Window NOT_SAMPLED = new Window();
+
+    private final List<String> loggerPrefixes = new ArrayList<>();
+    private final ConcurrentHashMap<String, Window> windowsByLogger = new ConcurrentHashMap<>();
+    private final LongAdder suppressedEvents = new LongAdder();
+    private long maxEventsPerSecond = 100;
+
+    /**
+     * The lines a sampled logger wrote in its current window.
+     */
+    private static class Window {
+        private final AtomicLong startNanos = new AtomicLong(System.nanoTime());
+        private final AtomicLong events = new AtomicLong();
+
+        private boolean tryAcquire(long now, long maxEvents) {
+            long start = startNanos.get();
+            if (now - start >= WINDOW_NANOS && startNanos.compareAndSet(start, now)) {
+                events.set(0);
+            }
+
+            return events.incrementAndGet() <= maxEvents;
+        }
+    }
+
+    @Override
+    public void start() {
+        getContext().putObject(SUPPRESSED_EVENTS_KEY, (LongSupplier) this::getSuppressedEvents);
+        super.start();
+    }
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        // Turbo filters run before the level check, so lines that would not be written must not spend the budget.
+        // Level checks such as isDebugEnabled() carry no format, and must not spend it either
+        if (format == null
+                || level.isGreaterOrEqual(Level.WARN)
+                || !level.isGreaterOrEqual(logger.getEffectiveLevel())) {
+            return FilterReply.NEUTRAL;
+        }
+
+        Window window = windowsByLogger.computeIfAbsent(logger.getName(), this::newWindow);
+        if (window == NOT_SAMPLED || window.tryAcquire(System.nanoTime(), maxEventsPerSecond)) {
+            return FilterReply.NEUTRAL;
+        }
+
+        suppressedEvents.increment();
+        return FilterReply.DENY;
+    }
+
+    private Window newWindow(String loggerName) {
+        for (String prefix : loggerPrefixes) {
+            if (loggerName.startsWith(prefix)) {
+                return new Window();
+            }
+        }
+
+        return NOT_SAMPLED;
+    }
+
+    public void addLoggerPrefix(String loggerPrefix) {
+        loggerPrefixes.add(loggerPrefix.trim());
+    }
+
+    public void setMaxEventsPerSecond(long maxEventsPerSecond) {
+        this.maxEventsPerSecond = maxEventsPerSecond;
+    }
+
+    public long getSuppressedEvents() {
+        return suppressedEvents.sum();
+    }
+}
@@ -0,0 +1,222 @@
+package andre.chamis.healthproject.infra.persistence;
+
+import andre.chamis.healthproject.exception.ServiceUnavailableException;
+import andre.chamis.healthproject.infra.request.response.ErrorMessage;
+import andre.chamis.healthproject.properties.GroupCommitProperties;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Commits the writes of concurrent requests together, in one transaction.
+ * <p>
+ * Writes are queued and run by a single writer thread, which takes every write queued while the previous commit was
+ * in progress, up to {@link GroupCommitProperties#getMaxBatchSize()}, runs them in one transaction and commits once.
+ * With JDBC batching, their inserts also share round trips. No write waits for others to arrive: an idle writer
+ * commits a lone write right away, and batches grow only while commits are in progress, so the number of commits per
+ * second stays flat as the write rate grows.
+ * <p>
+ * A write must only touch the database, as it may run twice: if a batch fails, its writes are committed again one by
+ * one, so one failing write does not fail the others. Caches must be updated by the caller once {@link #execute}
+ * returns, so a rolled back write is never cached and the writer thread never waits on anything but the database.
+ */
+@Slf4j
+@Component
+public class GroupCommitExecutor {
+    private final GroupCommitProperties groupCommitProperties;
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<PendingWrite<?>> pendingWrites;
+    private final Thread writerThread;
+    private volatile boolean isRunning = true;
+
+    private final LongAdder commits = new LongAdder();
+    private final LongAdder committedWrites = new LongAdder();
+    private final LongAdder failedBatches = new LongAdder();
+    private final LongAdder timedOutWrites = new LongAdder();
+
+    public GroupCommitExecutor(
+            GroupCommitProperties groupCommitProperties,
+            PlatformTransactionManager transactionManager
+    ) {
+        this.groupCommitProperties = groupCommitProperties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.pendingWrites = new ArrayBlockingQueue<>(groupCommitProperties.getQueueCapacity());
+        this.writerThread = new Thread(this::writeLoop, "group-commit");
+        this.writerThread.setDaemon(true);
+    }
+
+    /**
+     * A queued write, run on the writer thread with the logging context of the request that queued it.
+     */
+    private static final class PendingWrite<T> {
+        private final Supplier<T> write;
+        private final Map<String, String> loggingContext = MDC.getCopyOfContextMap();
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+        private T value;
+
+        private PendingWrite(Supplier<T> write) {
+            this.write = write;
+        }
+
+        private void run() {
+            Map<String, String> writerContext = MDC.getCopyOfContextMap();
+            setLoggingContext(loggingContext);
+            try {
+                value = write.get();
+            } finally {
+                setLoggingContext(writerContext);
+            }
+        }
+
+        private void complete() {
+            result.complete(value);
+        }
+
+        private static void setLoggingContext(Map<String, String> context) {
+            if (context == null) {
+                MDC.clear();
+            } else {
+                MDC.setContextMap(context);
+            }
+        }
+    }
+
+    /**
+     * Starts the writer thread, unless group commit is disabled.
+     */
+    @PostConstruct
+    public void start() {
+        if (groupCommitProperties.isEnabled()) {
+            writerThread.start();
+        }
+    }
+
+    /**
+     * Stops the writer thread once the writes already queued are committed. Later writes commit on their own thread.
+     *
+     * @throws InterruptedException If interrupted while waiting for the writer thread.
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        isRunning = false;
+        writerThread.interrupt();
+        writerThread.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    /**
+     * Runs a write in a transaction committed together with the writes of concurrent requests, waiting for the
+     * commit. Runs it in its own transaction on the calling thread when group commit is disabled, the queue is full,
+     * or the write is still queued after {@link GroupCommitProperties#getMaxWait()}.
+     *
+     * @param write The write to run. Must be safe to run twice, see the class documentation.
+     * @param <T>   The type of the result of the write.
+     * @return The result of the write, once committed.
+     * @throws ServiceUnavailableException If the writer did not commit the write within the maximum wait.
+     */
+    public <T> T execute(Supplier<T> write) {
+        PendingWrite<T> pendingWrite = new PendingWrite<>(write);
+        if (!isRunning || !groupCommitProperties.isEnabled() || !pendingWrites.offer(pendingWrite)) {
+            return transactionTemplate.execute(status -> write.get());
+        }
+
+        try {
+            return pendingWrite.result.get(groupCommitProperties.getMaxWait().toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            timedOutWrites.increment();
+            // A write the writer has not taken yet never runs there, so it is safe to commit here instead
+            if (pendingWrites.remove(pendingWrite)) {
+                log.warn("Group commit writer is stalled, committing write on the request thread");
+                return transactionTemplate.execute(status -> write.get());
+            }
+
+            log.warn("Group commit took longer than [{}], giving up", groupCommitProperties.getMaxWait());
+            throw new ServiceUnavailableException(ErrorMessage.SERVER_BUSY);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException(ErrorMessage.SERVER_BUSY);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private void writeLoop() {
+        List<PendingWrite<?>> batch = new ArrayList<>(groupCommitProperties.getMaxBatchSize());
+        while (isRunning || !pendingWrites.isEmpty()) {
+            try {
+                PendingWrite<?> first = pendingWrites.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+
+                batch.add(first);
+                pendingWrites.drainTo(batch, groupCommitProperties.getMaxBatchSize() - 1);
+                commit(batch);
+            } catch (InterruptedException e) {
+                // Interrupted to stop: the loop still drains the writes already queued
+            } catch (RuntimeException e) {
+                log.error("Unexpected error in group commit writer", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void commit(List<PendingWrite<?>> batch) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> batch.forEach(PendingWrite::run));
+            commits.increment();
+            committedWrites.add(batch.size());
+            batch.forEach(PendingWrite::complete);
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                batch.get(0).result.completeExceptionally(e);
+                return;
+            }
+
+            failedBatches.increment();
+            log.warn("Group commit of [{} writes] failed, committing them one by one", batch.size(), e);
+            for (PendingWrite<?> pendingWrite : batch) {
+                commit(List.of(pendingWrite));
+            }
+        }
+    }
+
+    public long getCommits() {
+        return commits.sum();
+    }
+
+    public long getCommittedWrites() {
+        return committedWrites.sum();
+    }
+
+    public long getFailedBatches() {
+        return failedBatches.sum();
+    }
+
+    public long getTimedOutWrites() {
+        return timedOutWrites.sum();
+    }
+
+    public int getQueueDepth() {
+        return pendingWrites.size();
+    }
+}
@@ -0,0 +1,11 @@
+package andre.chamis.healthproject.infra.ratelimit;
+
+/**
+ * A request body naming the account it acts on, so rate limited endpoints can also be throttled by email.
+ */
+public interface EmailIdentifiedRequest {
+    /**
+     * @return The email of the account the request acts on.
+     */
+    String email();
+}
@@ -0,0 +1,21 @@
+package andre.chamis.healthproject.infra.ratelimit;
+
+/**
+ * The attributes of a request that rate limits are kept for.
+ */
+public enum RateLimitKey {
+    /**
+     * The email sent in the request body, see {@link EmailIdentifiedRequest}.
+     */
+    EMAIL,
+
+    /**
+     * The {@code client-key} header.
+     */
+    CLIENT_KEY,
+
+    /**
+     * The address the request came from.
+     */
+    REMOTE_ADDRESS
+}
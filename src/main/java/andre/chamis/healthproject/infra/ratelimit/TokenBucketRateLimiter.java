@@ -0,0 +1,208 @@
+package andre.chamis.healthproject.infra.ratelimit;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * A token bucket per key, allowing bursts of up to {@code capacity} requests and refilling {@code capacity} tokens
+ * every {@code period}.
+ * <p>
+ * Each bucket is a single {@link AtomicLong} holding the instant at which it will be full again (the generic cell
+ * rate algorithm), updated with compare-and-set, so acquiring never locks. Keys are spread over independent stripes,
+ * each holding at most its share of {@code maxKeys} buckets. A bucket that is full again behaves exactly like a
+ * missing one, so such buckets are dropped by {@link #evictIdle()}. A stripe that is about to overflow only samples a
+ * few buckets, resuming where its last sample stopped, so making room stays cheap under a flood of new keys: the idle
+ * buckets of the sample are dropped, or else the one with the most tokens left. Such a flood, like credential stuffing
+ * with many emails, is still limited, and mostly forgets buckets that are close to full anyway.
+ */
+public class TokenBucketRateLimiter {
+    private static final int STRIPE_COUNT = 16;
+    private static final int EVICTION_SAMPLE_SIZE = 8;
+    private static final int MAX_EVICTION_INSPECTIONS = 2 * EVICTION_SAMPLE_SIZE;
+
+    private final int capacity;
+    private final Duration period;
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final int maxKeysPerStripe;
+    private final LongSupplier nanoClock;
+    private final Stripe[] stripes = new Stripe[STRIPE_COUNT];
+
+    private final LongAdder allowedRequests = new LongAdder();
+    private final LongAdder rejectedRequests = new LongAdder();
+    private final LongAdder evictedActiveBuckets = new LongAdder();
+
+    private static final class Stripe {
+        private final ConcurrentHashMap<String, AtomicLong> fullAtNanosByKey = new ConcurrentHashMap<>();
+        /**
+         * Where the next eviction sample starts, guarded by the stripe.
+         */
+        private Iterator<Map.Entry<String, AtomicLong>> evictionCursor = Collections.emptyIterator();
+    }
+
+    /**
+     * @param capacity The number of requests allowed at once, and refilled every period.
+     * @param period   The time it takes for an empty bucket to be full again.
+     * @param maxKeys  The maximum number of keys tracked at once.
+     */
+    public TokenBucketRateLimiter(int capacity, Duration period, int maxKeys) {
+        this(capacity, period, maxKeys, System::nanoTime);
+    }
+
+    /**
+     * @param capacity  The number of requests allowed at once, and refilled every period.
+     * @param period    The time it takes for an empty bucket to be full again.
+     * @param maxKeys   The maximum number of keys tracked at once.
+     * @param nanoClock The source of the current time, in nanoseconds.
+     */
+    public TokenBucketRateLimiter(int capacity, Duration period, int maxKeys, LongSupplier nanoClock) {
+        if (capacity <= 0 || period.isNegative() || period.isZero()) {
+            throw new IllegalArgumentException("A rate limit needs a positive capacity and period");
+        }
+
+        this.capacity = capacity;
+        this.period = period;
+        this.emissionIntervalNanos = period.toNanos() / capacity;
+        this.burstToleranceNanos = period.toNanos() - emissionIntervalNanos;
+        this.maxKeysPerStripe = Math.max(1, maxKeys / STRIPE_COUNT);
+        this.nanoClock = nanoClock;
+        for (int i = 0; i < STRIPE_COUNT; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    /**
+     * Takes a token from the bucket of a key.
+     *
+     * @param key The key to throttle, such as an email or an address.
+     * @return {@code true} if the request is allowed, {@code false} if the bucket is empty.
+     */
+    public boolean tryAcquire(String key) {
+        long now = nanoClock.getAsLong();
+        Stripe stripe = stripes[(key.hashCode() & 0x7fffffff) % STRIPE_COUNT];
+
+        AtomicLong fullAtNanos = stripe.fullAtNanosByKey.get(key);
+        if (fullAtNanos == null) {
+            if (stripe.fullAtNanosByKey.size() >= maxKeysPerStripe) {
+                evictSampled(stripe, now);
+            }
+            fullAtNanos = stripe.fullAtNanosByKey.computeIfAbsent(key, k -> new AtomicLong(now));
+        }
+
+        while (true) {
+            long current = fullAtNanos.get();
+            // An idle bucket is full now, not in the past
+            long base = current - now < 0 ? now : current;
+            if (base - now > burstToleranceNanos) {
+                rejectedRequests.increment();
+                return false;
+            }
+
+            if (fullAtNanos.compareAndSet(current, base + emissionIntervalNanos)) {
+                allowedRequests.increment();
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Drops the buckets that are full again.
+     *
+     * @return The number of buckets dropped.
+     */
+    public int evictIdle() {
+        long now = nanoClock.getAsLong();
+        int evicted = 0;
+        for (Stripe stripe : stripes) {
+            evicted += evictIdle(stripe, now);
+        }
+        return evicted;
+    }
+
+    private int evictIdle(Stripe stripe, long now) {
+        int evicted = 0;
+        for (Map.Entry<String, AtomicLong> entry : stripe.fullAtNanosByKey.entrySet()) {
+            // A token taken between this check and the removal is forgiven, which errs on allowing
+            boolean isIdle = entry.getValue().get() - now <= 0;
+            if (isIdle && stripe.fullAtNanosByKey.remove(entry.getKey(), entry.getValue())) {
+                evicted++;
+            }
+        }
+        return evicted;
+    }
+
+    /**
+     * Drops the idle buckets among a few of a stripe, or else the sampled bucket that is closest to full, that is, the
+     * one whose key has taken the fewest tokens lately. Each sample resumes where the last one stopped, so the whole
+     * stripe is swept over successive evictions.
+     */
+    private void evictSampled(Stripe stripe, long now) {
+        Map.Entry<String, AtomicLong> fullest = null;
+        int idle = 0;
+        synchronized (stripe) {
+            int sampled = 0;
+            int inspected = 0;
+            while (sampled < EVICTION_SAMPLE_SIZE && inspected++ < MAX_EVICTION_INSPECTIONS) {
+                if (!stripe.evictionCursor.hasNext()) {
+                    stripe.evictionCursor = stripe.fullAtNanosByKey.entrySet().iterator();
+                    if (!stripe.evictionCursor.hasNext()) {
+                        break;
+                    }
+                }
+
+                // The cursor is weakly consistent, so it may still return a bucket that was dropped since
+                Map.Entry<String, AtomicLong> entry = stripe.evictionCursor.next();
+                if (stripe.fullAtNanosByKey.get(entry.getKey()) != entry.getValue()) {
+                    continue;
+                }
+
+                sampled++;
+                if (entry.getValue().get() - now <= 0) {
+                    if (stripe.fullAtNanosByKey.remove(entry.getKey(), entry.getValue())) {
+                        idle++;
+                    }
+                } else if (fullest == null || entry.getValue().get() - fullest.getValue().get() < 0) {
+                    fullest = entry;
+                }
+            }
+        }
+
+        if (idle == 0 && fullest != null && stripe.fullAtNanosByKey.remove(fullest.getKey(), fullest.getValue())) {
+            evictedActiveBuckets.increment();
+        }
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public Duration getPeriod() {
+        return period;
+    }
+
+    public int getTrackedKeys() {
+        int trackedKeys = 0;
+        for (Stripe stripe : stripes) {
+            trackedKeys += stripe.fullAtNanosByKey.size();
+        }
+        return trackedKeys;
+    }
+
+    public long getAllowedRequests() {
+        return allowedRequests.sum();
+    }
+
+    public long getRejectedRequests() {
+        return rejectedRequests.sum();
+    }
+
+    public long getEvictedActiveBuckets() {
+        return evictedActiveBuckets.sum();
+    }
+}
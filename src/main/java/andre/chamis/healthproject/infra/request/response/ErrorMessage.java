@@ -44,7 +44,9 @@ public enum ErrorMessage {
     MISSING_PATIENT_CPF("O CPF do paciente é obrigatório!"),
     INVALID_CPF("O cpf fornecido está inválido!"),
     COLLABORATOR_NOT_FOUND("O usuário não é um colaborador desse paciente"),
-    MISSING_COLLABORATOR_DESCRIPTION("A descrição do colaborador é obrigatória!");
+    MISSING_COLLABORATOR_DESCRIPTION("A descrição do colaborador é obrigatória!"),
+    TOO_MANY_REQUESTS("Muitas requisições no momento! Tente novamente em instantes"),
+    SERVER_BUSY("O servidor está sobrecarregado! Tente novamente em instantes");
     private final String message;
 
     /**
@@ -0,0 +1,324 @@
+package andre.chamis.healthproject.infra.request.response.serialization;
+
+import andre.chamis.healthproject.domain.auth.dto.TokensDTO;
+import andre.chamis.healthproject.domain.health.attendance.dto.GetAttendanceWithUsernameDTO;
+import andre.chamis.healthproject.domain.health.patient.dto.GetPatientSummaryDTO;
+import andre.chamis.healthproject.domain.user.dto.GetUserDTO;
+import andre.chamis.healthproject.infra.request.response.Metadata;
+import andre.chamis.healthproject.infra.request.response.PaginatedResponse;
+import andre.chamis.healthproject.infra.request.response.ResponseMessage;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.fasterxml.jackson.databind.util.StdDateFormat;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.util.Date;
+import java.util.List;
+import java.util.TimeZone;
+
+/**
+ * Jackson module with streaming serializers for the response envelope and the DTOs returned on every page load.
+ * <p>
+ * Jackson serializes the other types through reflective bean serializers, which look properties up and box them one
+ * by one. These serializers write each field straight to the {@link JsonGenerator} with field names encoded once,
+ * and write exactly what the bean serializers would: the same property names and order, nulls included, and dates
+ * through the configured date format. Spring Boot registers every {@link com.fasterxml.jackson.databind.Module} bean
+ * with its {@code ObjectMapper}.
+ */
+@Component
+public class ResponseSerializersModule extends SimpleModule {
+    private static final SerializableString METADATA = new SerializedString("metadata");
+    private static final SerializableString MESSAGES = new SerializedString("messages");
+    private static final SerializableString BODY = new SerializedString("body");
+    private static final SerializableString LAST_PAGE = new SerializedString("lastPage");
+    private static final SerializableString DATA = new SerializedString("data");
+    private static final SerializableString PATIENT_ID = new SerializedString("patientId");
+    private static final SerializableString NAME = new SerializedString("name");
+    private static final SerializableString OWNER_ID = new SerializedString("ownerId");
+    private static final SerializableString IS_ACTIVE = new SerializedString("isActive");
+    private static final SerializableString CREATE_DT = new SerializedString("createDt");
+    private static final SerializableString USER_ID = new SerializedString("userId");
+    private static final SerializableString CLOCK_IN_TIME = new SerializedString("clockInTime");
+    private static final SerializableString CLOCK_OUT_TIME = new SerializedString("clockOutTime");
+    private static final SerializableString USERNAME = new SerializedString("username");
+    private static final SerializableString EMAIL = new SerializedString("email");
+    private static final SerializableString IS_REGISTRATION_COMPLETE = new SerializedString("isRegistrationComplete");
+    private static final SerializableString IS_PAYMENT_ACTIVE = new SerializedString("isPaymentActive");
+    private static final SerializableString IS_CUSTOMER = new SerializedString("isCustomer");
+    private static final SerializableString IS_CLOCKED_IN = new SerializedString("isClockedIn");
+    private static final SerializableString CLOCKED_IN_AT = new SerializedString("clockedInAt");
+    private static final SerializableString ACCESS_TOKEN = new SerializedString("accessToken");
+    private static final SerializableString REFRESH_TOKEN = new SerializedString("refreshToken");
+    private static final SerializableString USER = new SerializedString("user");
+
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+    private static final long MAX_FORMATTED_MILLIS = 253_402_300_800_000L;
+    private static final TimeZone UTC = TimeZone.getTimeZone("UTC");
+    private static final ThreadLocal<char[]> DATE_BUFFER =
+            ThreadLocal.withInitial("0000-00-00T00:00:00.000+00:00"::toCharArray);
+
+    /**
+     * Constructs the module and registers its serializers.
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    public ResponseSerializersModule() {
+        super("ResponseSerializersModule");
+        addSerializer((Class) ResponseMessage.class, new ResponseMessageSerializer());
+        addSerializer((Class) PaginatedResponse.class, new PaginatedResponseSerializer());
+        addSerializer(GetPatientSummaryDTO.class, new GetPatientSummaryDTOSerializer());
+        addSerializer(GetAttendanceWithUsernameDTO.class, new GetAttendanceWithUsernameDTOSerializer());
+        addSerializer(GetUserDTO.class, new GetUserDTOSerializer());
+        addSerializer(TokensDTO.class, new TokensDTOSerializer());
+    }
+
+    private static class ResponseMessageSerializer extends StdSerializer<ResponseMessage<?>> {
+        @SuppressWarnings({"rawtypes", "unchecked"})
+        private ResponseMessageSerializer() {
+            super((Class) ResponseMessage.class);
+        }
+
+        @Override
+        public void serialize(ResponseMessage<?> value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject(value);
+            gen.writeFieldName(METADATA);
+            writeMetadata(value.getMetadata(), gen);
+            gen.writeFieldName(BODY);
+            provider.defaultSerializeValue(value.getBody(), gen);
+            gen.writeEndObject();
+        }
+
+        private static void writeMetadata(Metadata metadata, JsonGenerator gen) throws IOException {
+            if (metadata == null) {
+                gen.writeNull();
+                return;
+            }
+
+            gen.writeStartObject(metadata);
+            gen.writeFieldName(MESSAGES);
+            List<String> messages = metadata.getMessages();
+            if (messages == null) {
+                gen.writeNull();
+            } else {
+                gen.writeStartArray(messages, messages.size());
+                for (String message : messages) {
+                    gen.writeString(message);
+                }
+                gen.writeEndArray();
+            }
+            gen.writeEndObject();
+        }
+    }
+
+    private static class PaginatedResponseSerializer extends StdSerializer<PaginatedResponse<?>> {
+        @SuppressWarnings({"rawtypes", "unchecked"})
+        private PaginatedResponseSerializer() {
+            super((Class) PaginatedResponse.class);
+        }
+
+        @Override
+        public void serialize(PaginatedResponse<?> value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject(value);
+            gen.writeFieldName(LAST_PAGE);
+            gen.writeNumber(value.lastPage());
+            gen.writeFieldName(DATA);
+            List<?> data = value.data();
+            if (data == null) {
+                gen.writeNull();
+            } else {
+                gen.writeStartArray(data, data.size());
+                for (Object item : data) {
+                    provider.defaultSerializeValue(item, gen);
+                }
+                gen.writeEndArray();
+            }
+            gen.writeEndObject();
+        }
+    }
+
+    private static class GetPatientSummaryDTOSerializer extends StdSerializer<GetPatientSummaryDTO> {
+        private GetPatientSummaryDTOSerializer() {
+            super(GetPatientSummaryDTO.class);
+        }
+
+        @Override
+        public void serialize(GetPatientSummaryDTO value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject(value);
+            gen.writeFieldName(PATIENT_ID);
+            writeNumber(value.patientId(), gen);
+            gen.writeFieldName(NAME);
+            gen.writeString(value.name());
+            gen.writeFieldName(OWNER_ID);
+            writeNumber(value.ownerId(), gen);
+            gen.writeFieldName(IS_ACTIVE);
+            gen.writeBoolean(value.isActive());
+            gen.writeFieldName(CREATE_DT);
+            writeDate(value.createDt(), gen, provider);
+            gen.writeEndObject();
+        }
+    }
+
+    private static class GetAttendanceWithUsernameDTOSerializer extends StdSerializer<GetAttendanceWithUsernameDTO> {
+        private GetAttendanceWithUsernameDTOSerializer() {
+            super(GetAttendanceWithUsernameDTO.class);
+        }
+
+        @Override
+        public void serialize(GetAttendanceWithUsernameDTO value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject(value);
+            gen.writeFieldName(PATIENT_ID);
+            writeNumber(value.patientId(), gen);
+            gen.writeFieldName(USER_ID);
+            writeNumber(value.userId(), gen);
+            gen.writeFieldName(CLOCK_IN_TIME);
+            writeDate(value.clockInTime(), gen, provider);
+            gen.writeFieldName(CLOCK_OUT_TIME);
+            writeDate(value.clockOutTime(), gen, provider);
+            gen.writeFieldName(USERNAME);
+            gen.writeString(value.username());
+            gen.writeEndObject();
+        }
+    }
+
+    private static class GetUserDTOSerializer extends StdSerializer<GetUserDTO> {
+        private GetUserDTOSerializer() {
+            super(GetUserDTO.class);
+        }
+
+        @Override
+        public void serialize(GetUserDTO value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject(value);
+            gen.writeFieldName(USER_ID);
+            writeNumber(value.getUserId(), gen);
+            gen.writeFieldName(USERNAME);
+            gen.writeString(value.getUsername());
+            gen.writeFieldName(EMAIL);
+            gen.writeString(value.getEmail());
+            gen.writeFieldName(IS_REGISTRATION_COMPLETE);
+            writeBoolean(value.getIsRegistrationComplete(), gen);
+            gen.writeFieldName(IS_PAYMENT_ACTIVE);
+            writeBoolean(value.getIsPaymentActive(), gen);
+            gen.writeFieldName(IS_CUSTOMER);
+            writeBoolean(value.getIsCustomer(), gen);
+            gen.writeFieldName(IS_CLOCKED_IN);
+            writeBoolean(value.getIsClockedIn(), gen);
+            gen.writeFieldName(CLOCKED_IN_AT);
+            writeNumber(value.getClockedInAt(), gen);
+            gen.writeEndObject();
+        }
+    }
+
+    private static class TokensDTOSerializer extends StdSerializer<TokensDTO> {
+        private TokensDTOSerializer() {
+            super(TokensDTO.class);
+        }
+
+        @Override
+        public void serialize(TokensDTO value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject(value);
+            gen.writeFieldName(ACCESS_TOKEN);
+            gen.writeString(value.accessToken());
+            gen.writeFieldName(REFRESH_TOKEN);
+            gen.writeString(value.refreshToken());
+            gen.writeFieldName(USER);
+            provider.defaultSerializeValue(value.user(), gen);
+            gen.writeEndObject();
+        }
+    }
+
+    private static void writeNumber(Long value, JsonGenerator gen) throws IOException {
+        if (value == null) {
+            gen.writeNull();
+        } else {
+            gen.writeNumber(value);
+        }
+    }
+
+    private static void writeBoolean(Boolean value, JsonGenerator gen) throws IOException {
+        if (value == null) {
+            gen.writeNull();
+        } else {
+            gen.writeBoolean(value);
+        }
+    }
+
+    /**
+     * Writes a date the way Jackson's date serializer would. With the default ISO format in UTC, dates from 1970 to
+     * 9999 are formatted into a per-thread buffer instead of through a cloned {@link StdDateFormat}, which allocates
+     * a calendar, a buffer and a string per date. Other dates and formats are left to Jackson.
+     */
+    private static void writeDate(Date value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        if (value == null) {
+            gen.writeNull();
+            return;
+        }
+
+        long millis = value.getTime();
+        boolean isPlainDate = value.getClass() == Date.class || value.getClass() == Timestamp.class;
+        if (!isPlainDate || millis < 0 || millis >= MAX_FORMATTED_MILLIS || !isDefaultIsoFormat(provider)) {
+            provider.defaultSerializeValue(value, gen);
+            return;
+        }
+
+        char[] buffer = DATE_BUFFER.get();
+        formatIsoDate(millis, buffer);
+        gen.writeString(buffer, 0, buffer.length);
+    }
+
+    private static boolean isDefaultIsoFormat(SerializerProvider provider) {
+        if (provider.isEnabled(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                || provider.getConfig().getDateFormat().getClass() != StdDateFormat.class) {
+            return false;
+        }
+
+        StdDateFormat dateFormat = (StdDateFormat) provider.getConfig().getDateFormat();
+        TimeZone timeZone = dateFormat.getTimeZone();
+        return dateFormat.isColonIncludedInTimeZone() && (timeZone == null || UTC.hasSameRules(timeZone));
+    }
+
+    /**
+     * Formats epoch milliseconds as {@code yyyy-MM-ddTHH:mm:ss.SSS+00:00}, converting days to a civil date with
+     * Howard Hinnant's algorithm.
+     */
+    private static void formatIsoDate(long millis, char[] buffer) {
+        long days = millis / MILLIS_PER_DAY;
+        int millisOfDay = (int) (millis % MILLIS_PER_DAY);
+
+        long shiftedDays = days + 719_468;
+        long era = shiftedDays / 146_097;
+        long dayOfEra = shiftedDays - era * 146_097;
+        long yearOfEra = (dayOfEra - dayOfEra / 1_460 + dayOfEra / 36_524 - dayOfEra / 146_096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long shiftedMonth = (5 * dayOfYear + 2) / 153;
+        int day = (int) (dayOfYear - (153 * shiftedMonth + 2) / 5 + 1);
+        int month = (int) (shiftedMonth < 10 ? shiftedMonth + 3 : shiftedMonth - 9);
+        int year = (int) (yearOfEra + era * 400 + (month <= 2 ? 1 : 0));
+
+        writeDigits(buffer, 0, year, 4);
+        buffer[4] = '-';
+        writeDigits(buffer, 5, month, 2);
+        buffer[7] = '-';
+        writeDigits(buffer, 8, day, 2);
+        buffer[10] = 'T';
+        writeDigits(buffer, 11, millisOfDay / 3_600_000, 2);
+        buffer[13] = ':';
+        writeDigits(buffer, 14, millisOfDay / 60_000 % 60, 2);
+        buffer[16] = ':';
+        writeDigits(buffer, 17, millisOfDay / 1_000 % 60, 2);
+        buffer[19] = '.';
+        writeDigits(buffer, 20, millisOfDay % 1_000, 3);
+    }
+
+    private static void writeDigits(char[] buffer, int offset, int value, int digits) {
+        for (int i = offset + digits - 1; i >= offset; i--) {
+            buffer[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+}
@@ -2,17 +2,17 @@ package andre.chamis.healthproject.interceptor;
 
 
 import andre.chamis.healthproject.context.ServiceContext;
-import andre.chamis.healthproject.domain.auth.annotation.ClientAuthenticated;
-import andre.chamis.healthproject.domain.auth.annotation.JwtAuthenticated;
-import andre.chamis.healthproject.domain.auth.annotation.NonAuthenticated;
 import andre.chamis.healthproject.domain.auth.client.model.Client;
+import andre.chamis.healthproject.domain.auth.model.TokenClaims;
 import andre.chamis.healthproject.exception.UnauthorizedException;
 import andre.chamis.healthproject.infra.request.response.ErrorMessage;
 import andre.chamis.healthproject.domain.auth.session.model.Session;
 import andre.chamis.healthproject.properties.AuthInterceptorProperties;
+import andre.chamis.healthproject.properties.AuthProperties;
 import andre.chamis.healthproject.service.ClientService;
 import andre.chamis.healthproject.service.JwtService;
 import andre.chamis.healthproject.service.SessionService;
+import andre.chamis.healthproject.service.UserService;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
@@ -23,6 +23,9 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.method.HandlerMethod;
 import org.springframework.web.servlet.HandlerInterceptor;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Instant;
 import java.util.Optional;
 
 /**
@@ -34,9 +37,13 @@ import java.util.Optional;
 @RequiredArgsConstructor
 public class AuthInterceptor implements HandlerInterceptor {
     private static final String CLIENT_KEY_HEADER_NAME = "client-key";
+    private static final String ADMIN_KEY_HEADER_NAME = "admin-key";
     private final JwtService jwtService;
     private final ClientService clientService;
     private final SessionService sessionService;
+    private final UserService userService;
+    private final HandlerSecurityPolicyRegistry handlerSecurityPolicyRegistry;
+    private final AuthProperties authProperties;
     private final AuthInterceptorProperties authInterceptorProperties;
 
     /**
@@ -57,21 +64,19 @@ public class AuthInterceptor implements HandlerInterceptor {
             return true; // Let fail for 404
         }
 
-        if (authInterceptorProperties.getAllowedUris().contains(request.getRequestURI())) {
-            return true;
-        }
-
-        AuthType authType = getRequestAuthType(handlerMethod);
+        HandlerSecurityPolicy.AuthType authType = handlerSecurityPolicyRegistry.getPolicy(handlerMethod).authType();
 
         return switch (authType) {
             case JWT_TOKEN -> handleJwtAuthentication(request);
             case CLIENT_AUTHENTICATED -> handleClientAuthentication(request);
+            case ADMIN_AUTHENTICATED -> handleAdminAuthentication(request);
             case NON_AUTHENTICATED -> true;
         };
     }
 
     /**
-     * Handles JWT authentication by validating the token, session, and user.
+     * Handles JWT authentication by validating the token, session, and user. Takes the snapshot of the user shared by
+     * the later interceptors and services through the {@link ServiceContext}.
      *
      * @param request The incoming HTTP request.
      * @return True if authentication is successful, throws UnauthorizedException otherwise.
@@ -80,12 +85,14 @@ public class AuthInterceptor implements HandlerInterceptor {
         Optional<String> tokenFromHeaders = getTokenFromHeaders(request);
 
         String token = tokenFromHeaders.orElseThrow(() -> new UnauthorizedException(ErrorMessage.INVALID_JWT));
-        boolean isTokenValid = jwtService.validateUserAccessToken(token);
-        if (!isTokenValid) {
-            throw new UnauthorizedException(ErrorMessage.INVALID_JWT);
+        TokenClaims tokenClaims = jwtService.verifyUserAccessToken(token)
+                .orElseThrow(() -> new UnauthorizedException(ErrorMessage.INVALID_JWT));
+
+        if (authProperties.isStatelessAccessTokens() && tokenClaims.carriesSession()) {
+            return handleStatelessJwtAuthentication(tokenClaims);
         }
 
-        Long sessionId = jwtService.getSessionIdFromToken(token);
+        Long sessionId = tokenClaims.sessionId();
         Optional<Session> sessionOptional = sessionService.findSessionById(sessionId);
         Session session = sessionOptional.orElseThrow(UnauthorizedException::new);
 
@@ -95,8 +102,36 @@ public class AuthInterceptor implements HandlerInterceptor {
             throw new UnauthorizedException();
         }
 
+        jwtService.rememberVerifiedAccessToken(tokenClaims);
+        sessionService.recordActivity(sessionId, session.getExpireDt().toInstant());
+
         ServiceContext.getContext().setSessionId(sessionId);
         ServiceContext.getContext().setUserId(session.getUserId());
+        userService.findCurrentPrincipal();
+
+        return true;
+    }
+
+    /**
+     * Authorizes a verified access token from its claims, without loading its session. The session must not have
+     * expired, and must not have been revoked.
+     *
+     * @param tokenClaims The claims of the verified access token.
+     * @return True if authentication is successful, throws UnauthorizedException otherwise.
+     */
+    private boolean handleStatelessJwtAuthentication(TokenClaims tokenClaims) {
+        Long sessionId = tokenClaims.sessionId();
+        if (!tokenClaims.sessionExpiresAt().isAfter(Instant.now()) || sessionService.isSessionRevoked(sessionId)) {
+            throw new UnauthorizedException();
+        }
+
+        jwtService.rememberVerifiedAccessToken(tokenClaims);
+        // The claim may be older than the session's extended expiration, which at worst records it again
+        sessionService.recordActivity(sessionId, tokenClaims.sessionExpiresAt());
+
+        ServiceContext.getContext().setSessionId(sessionId);
+        ServiceContext.getContext().setUserId(tokenClaims.userId());
+        userService.findCurrentPrincipal();
 
         return true;
     }
@@ -122,6 +157,29 @@ public class AuthInterceptor implements HandlerInterceptor {
         return true;
     }
 
+    /**
+     * Handles operator authentication based on the admin key provided in the request headers. The key is compared in
+     * constant time, so response times do not reveal how much of it matched.
+     *
+     * @param request The HttpServletRequest containing the headers.
+     * @return True if authentication is successful; otherwise, an UnauthorizedException is thrown.
+     * @throws UnauthorizedException If no admin key is configured, or the request does not present it.
+     */
+    private boolean handleAdminAuthentication(HttpServletRequest request) {
+        String adminKey = authInterceptorProperties.getAdminKey();
+        String keyHeader = request.getHeader(ADMIN_KEY_HEADER_NAME);
+        if (adminKey == null || adminKey.isBlank() || keyHeader == null) {
+            throw new UnauthorizedException();
+        }
+
+        byte[] expectedKey = adminKey.getBytes(StandardCharsets.UTF_8);
+        if (!MessageDigest.isEqual(expectedKey, keyHeader.getBytes(StandardCharsets.UTF_8))) {
+            throw new UnauthorizedException();
+        }
+
+        return true;
+    }
+
     /**
      * Extracts the API key from the request headers.
      *
@@ -157,47 +215,4 @@ public class AuthInterceptor implements HandlerInterceptor {
         String token = authHeaderArray[1];
         return Optional.of(token);
     }
-
-    /**
-     * Determines the type of authentication required based on method annotations.
-     *
-     * @param handlerMethod The handler method being executed.
-     * @return The type of authentication required for the method.
-     */
-    private AuthType getRequestAuthType(HandlerMethod handlerMethod) {
-        if (handlerMethod.getMethod().isAnnotationPresent(JwtAuthenticated.class)) {
-            return AuthType.JWT_TOKEN;
-        }
-
-        if (handlerMethod.getMethod().isAnnotationPresent(ClientAuthenticated.class)) {
-            return AuthType.CLIENT_AUTHENTICATED;
-        }
-
-        if (handlerMethod.getMethod().isAnnotationPresent(NonAuthenticated.class)) {
-            return AuthType.NON_AUTHENTICATED;
-        }
-
-        if (handlerMethod.getBeanType().isAnnotationPresent(JwtAuthenticated.class)) {
-            return AuthType.JWT_TOKEN;
-        }
-
-        if (handlerMethod.getBeanType().isAnnotationPresent(ClientAuthenticated.class)) {
-            return AuthType.CLIENT_AUTHENTICATED;
-        }
-
-        if (handlerMethod.getBeanType().isAnnotationPresent(NonAuthenticated.class)) {
-            return AuthType.NON_AUTHENTICATED;
-        }
-
-        return AuthType.JWT_TOKEN;
-    }
-
-    /**
-     * Enumeration representing the types of authentication for requests.
-     */
-    private enum AuthType {
-        JWT_TOKEN,
-        CLIENT_AUTHENTICATED,
-        NON_AUTHENTICATED
-    }
 }
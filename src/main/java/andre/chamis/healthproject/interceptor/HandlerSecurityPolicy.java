@@ -0,0 +1,110 @@
+package andre.chamis.healthproject.interceptor;
+
+import andre.chamis.healthproject.domain.auth.annotation.AdminAuthenticated;
+import andre.chamis.healthproject.domain.auth.annotation.ClientAuthenticated;
+import andre.chamis.healthproject.domain.auth.annotation.JwtAuthenticated;
+import andre.chamis.healthproject.domain.auth.annotation.NonAuthenticated;
+import andre.chamis.healthproject.domain.auth.annotation.RateLimited;
+import andre.chamis.healthproject.domain.auth.annotation.RequiresPaidSubscription;
+import org.springframework.web.method.HandlerMethod;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * What the interceptors enforce on a handler method, resolved once from its annotations and mapped paths by
+ * {@link HandlerSecurityPolicyRegistry}.
+ *
+ * @param authType                           The authentication required to call the handler.
+ * @param requiresPaidSubscription           Whether the user must have an active subscription.
+ * @param allowedWithoutCompleteRegistration Whether users who haven't completed registration may call the handler.
+ * @param rateLimitedEndpoint                The rate limited endpoint the handler belongs to, or {@code null} if it
+ *                                           is not rate limited.
+ */
+public record HandlerSecurityPolicy(
+        AuthType authType,
+        boolean requiresPaidSubscription,
+        boolean allowedWithoutCompleteRegistration,
+        String rateLimitedEndpoint
+) {
+    /**
+     * Enumeration representing the types of authentication for requests.
+     */
+    public enum AuthType {
+        JWT_TOKEN,
+        CLIENT_AUTHENTICATED,
+        ADMIN_AUTHENTICATED,
+        NON_AUTHENTICATED
+    }
+
+    /**
+     * Resolves the policy of a handler method. Method annotations take precedence over controller annotations, and
+     * handlers without any require a JWT token.
+     * <p>
+     * A handler is only exempt from a URI list when every path it is mapped to is in the list, so a handler is never
+     * exempt for a path that isn't.
+     *
+     * @param handlerMethod                          The handler method.
+     * @param mappedPaths                            The paths the handler is mapped to, or an empty collection if
+     *                                               unknown.
+     * @param urisAllowedWithoutAuthentication       The URIs that bypass authentication.
+     * @param urisAllowedWithoutCompleteRegistration The lowercase URIs that users who haven't completed
+     *                                               registration may call.
+     * @return The policy of the handler.
+     */
+    static HandlerSecurityPolicy resolve(
+            HandlerMethod handlerMethod,
+            Collection<String> mappedPaths,
+            Set<String> urisAllowedWithoutAuthentication,
+            Set<String> urisAllowedWithoutCompleteRegistration
+    ) {
+        boolean isAllowedWithoutAuthentication = !mappedPaths.isEmpty()
+                && urisAllowedWithoutAuthentication.containsAll(mappedPaths);
+        boolean isAllowedWithoutCompleteRegistration = !mappedPaths.isEmpty() && mappedPaths.stream()
+                .allMatch(path -> urisAllowedWithoutCompleteRegistration.contains(path.toLowerCase()));
+        RateLimited rateLimited = handlerMethod.getMethodAnnotation(RateLimited.class);
+
+        return new HandlerSecurityPolicy(
+                isAllowedWithoutAuthentication ? AuthType.NON_AUTHENTICATED : resolveAuthType(handlerMethod),
+                handlerMethod.getMethod().isAnnotationPresent(RequiresPaidSubscription.class),
+                isAllowedWithoutCompleteRegistration,
+                rateLimited == null ? null : rateLimited.value()
+        );
+    }
+
+    private static AuthType resolveAuthType(HandlerMethod handlerMethod) {
+        if (handlerMethod.getMethod().isAnnotationPresent(AdminAuthenticated.class)) {
+            return AuthType.ADMIN_AUTHENTICATED;
+        }
+
+        if (handlerMethod.getMethod().isAnnotationPresent(JwtAuthenticated.class)) {
+            return AuthType.JWT_TOKEN;
+        }
+
+        if (handlerMethod.getMethod().isAnnotationPresent(ClientAuthenticated.class)) {
+            return AuthType.CLIENT_AUTHENTICATED;
+        }
+
+        if (handlerMethod.getMethod().isAnnotationPresent(NonAuthenticated.class)) {
+            return AuthType.NON_AUTHENTICATED;
+        }
+
+        if (handlerMethod.getBeanType().isAnnotationPresent(AdminAuthenticated.class)) {
+            return AuthType.ADMIN_AUTHENTICATED;
+        }
+
+        if (handlerMethod.getBeanType().isAnnotationPresent(JwtAuthenticated.class)) {
+            return AuthType.JWT_TOKEN;
+        }
+
+        if (handlerMethod.getBeanType().isAnnotationPresent(ClientAuthenticated.class)) {
+            return AuthType.CLIENT_AUTHENTICATED;
+        }
+
+        if (handlerMethod.getBeanType().isAnnotationPresent(NonAuthenticated.class)) {
+            return AuthType.NON_AUTHENTICATED;
+        }
+
+        return AuthType.JWT_TOKEN;
+    }
+}
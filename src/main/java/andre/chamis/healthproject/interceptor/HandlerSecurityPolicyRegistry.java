@@ -0,0 +1,109 @@
+package andre.chamis.healthproject.interceptor;
+
+import andre.chamis.healthproject.properties.AuthInterceptorProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.mvc.method.RequestMappingInfo;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Holds the {@link HandlerSecurityPolicy} of every handler method, so the interceptors look a handler up once
+ * instead of reflecting on its annotations and scanning URI lists on every request.
+ * <p>
+ * Policies are resolved for every mapped handler once the context is refreshed, since the handler mappings depend on
+ * the interceptors and can't be injected here. A handler missing from that snapshot, such as one registered later, is
+ * resolved from its annotations on its first request and kept.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class HandlerSecurityPolicyRegistry implements ApplicationListener<ContextRefreshedEvent> {
+    private static final List<String> URIS_ALLOWED_WITHOUT_COMPLETE_REGISTRATION = List.of(
+            "/user",
+            "/user/complete-registration",
+            "/auth/login",
+            "/auth/refresh",
+            "/auth/logout"
+    );
+
+    private final AuthInterceptorProperties authInterceptorProperties;
+
+    /**
+     * Policies keyed by method, as each request is given a new {@link HandlerMethod} for the same method. Controllers
+     * declare their own handlers, so a method always belongs to the same controller.
+     */
+    private volatile Map<Method, HandlerSecurityPolicy> policiesByMethod = Map.of();
+    private final ConcurrentHashMap<Method, HandlerSecurityPolicy> lateResolvedPoliciesByMethod =
+            new ConcurrentHashMap<>();
+
+    /**
+     * Resolves the policies of every handler of every {@link RequestMappingHandlerMapping}.
+     *
+     * @param event The context refreshed event.
+     */
+    @Override
+    public void onApplicationEvent(ContextRefreshedEvent event) {
+        Set<String> urisAllowedWithoutAuthentication = getUrisAllowedWithoutAuthentication();
+        Set<String> urisAllowedWithoutCompleteRegistration = getUrisAllowedWithoutCompleteRegistration();
+
+        Map<Method, HandlerSecurityPolicy> policies = new HashMap<>();
+        Map<String, RequestMappingHandlerMapping> handlerMappings = event.getApplicationContext()
+                .getBeansOfType(RequestMappingHandlerMapping.class);
+        for (RequestMappingHandlerMapping handlerMapping : handlerMappings.values()) {
+            for (Map.Entry<RequestMappingInfo, HandlerMethod> entry : handlerMapping.getHandlerMethods().entrySet()) {
+                HandlerMethod handlerMethod = entry.getValue();
+                policies.putIfAbsent(handlerMethod.getMethod(), HandlerSecurityPolicy.resolve(
+                        handlerMethod,
+                        entry.getKey().getPatternValues(),
+                        urisAllowedWithoutAuthentication,
+                        urisAllowedWithoutCompleteRegistration
+                ));
+            }
+        }
+
+        policiesByMethod = Map.copyOf(policies);
+        log.info("Resolved security policies of [{} handlers]", policies.size());
+    }
+
+    /**
+     * Retrieves the policy of a handler method.
+     *
+     * @param handlerMethod The handler method of the request.
+     * @return The policy of the handler.
+     */
+    public HandlerSecurityPolicy getPolicy(HandlerMethod handlerMethod) {
+        HandlerSecurityPolicy policy = policiesByMethod.get(handlerMethod.getMethod());
+        if (policy != null) {
+            return policy;
+        }
+
+        // Without its mapped paths, a late handler is never exempt from the URI lists
+        return lateResolvedPoliciesByMethod.computeIfAbsent(handlerMethod.getMethod(), method -> {
+            log.debug("Resolving security policy of unmapped handler [{}]", handlerMethod);
+            return HandlerSecurityPolicy.resolve(handlerMethod, List.of(), Set.of(), Set.of());
+        });
+    }
+
+    private Set<String> getUrisAllowedWithoutAuthentication() {
+        List<String> allowedUris = authInterceptorProperties.getAllowedUris();
+        return allowedUris == null ? Set.of() : Set.copyOf(allowedUris);
+    }
+
+    private static Set<String> getUrisAllowedWithoutCompleteRegistration() {
+        return URIS_ALLOWED_WITHOUT_COMPLETE_REGISTRATION.stream()
+                .map(String::toLowerCase)
+                .collect(Collectors.toUnmodifiableSet());
+    }
+}
@@ -1,10 +1,10 @@
 package andre.chamis.healthproject.interceptor;
 
 
+import andre.chamis.healthproject.context.PrincipalSnapshot;
 import andre.chamis.healthproject.context.ServiceContext;
 import andre.chamis.healthproject.exception.ForbiddenException;
 import andre.chamis.healthproject.infra.request.response.ErrorMessage;
-import andre.chamis.healthproject.domain.user.model.User;
 import andre.chamis.healthproject.service.UserService;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
@@ -12,10 +12,9 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
 import org.springframework.web.servlet.HandlerInterceptor;
 
-import java.util.List;
-
 /**
  * Interceptor to check whether a user has completed registration before allowing access to certain URIs.
  *
@@ -25,7 +24,7 @@ import java.util.List;
  * If no logged-in user is found, the request is allowed to proceed.
  * </p>
  *
- * <p>Allowed URIs without complete registration:
+ * <p>Allowed URIs without complete registration, resolved per handler by {@link HandlerSecurityPolicyRegistry}:
  * <ul>
  *     <li>/user/complete-registration</li>
  *     <li>/auth/login</li>
@@ -38,15 +37,8 @@ import java.util.List;
 @Component
 @RequiredArgsConstructor
 public class IncompleteRegistrationInterceptor implements HandlerInterceptor {
-    private static final List<String> URIS_ALLOWED_WITHOUT_COMPLETE_REGISTRATION = List.of(
-            "/user",
-            "/user/complete-registration",
-            "/auth/login",
-            "/auth/refresh",
-            "/auth/logout"
-    );
-
     private final UserService userService;
+    private final HandlerSecurityPolicyRegistry handlerSecurityPolicyRegistry;
 
     /**
      * Pre-handle method to intercept and check whether the user has completed registration.
@@ -70,9 +62,9 @@ public class IncompleteRegistrationInterceptor implements HandlerInterceptor {
             return true;
         }
 
-        User user = userService.findCurrentUser();
+        PrincipalSnapshot user = userService.findCurrentPrincipal();
 
-        if (user.isRegistrationComplete() || isUriAllowedWithoutCompleteRegistration(request.getRequestURI())) {
+        if (user.isRegistrationComplete() || isAllowedWithoutCompleteRegistration(handler)) {
             log.debug("User [{}] has completed registration or is calling an allowed URI. Allowing request to proceed", user);
             return true;
         }
@@ -91,13 +83,13 @@ public class IncompleteRegistrationInterceptor implements HandlerInterceptor {
     }
 
     /**
-     * Checks whether the given URI is in the list of allowed URIs without complete registration.
+     * Checks whether the handler is allowed without complete registration.
      *
-     * @param uri The URI to check.
-     * @return {@code true} if the URI is allowed without complete registration, {@code false} otherwise.
+     * @param handler The handler to check.
+     * @return {@code true} if the handler is allowed without complete registration, {@code false} otherwise.
      */
-    private boolean isUriAllowedWithoutCompleteRegistration(String uri) {
-        return URIS_ALLOWED_WITHOUT_COMPLETE_REGISTRATION.stream()
-                .anyMatch(allowedUri -> allowedUri.equalsIgnoreCase(uri));
+    private boolean isAllowedWithoutCompleteRegistration(Object handler) {
+        return handler instanceof HandlerMethod handlerMethod
+                && handlerSecurityPolicyRegistry.getPolicy(handlerMethod).allowedWithoutCompleteRegistration();
     }
 }
@@ -15,6 +15,7 @@ import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 public class InterceptorsConfig implements WebMvcConfigurer {
     private final AuthInterceptor authInterceptor;
     private final ServiceContextInterceptor serviceContextInterceptor;
+    private final RateLimitInterceptor rateLimitInterceptor;
     private final IncompleteRegistrationInterceptor incompleteRegistrationInterceptor;
     private final RequiresPaidSubscriptionInterceptor requiresPaidSubscriptionInterceptor;
 
@@ -26,6 +27,7 @@ public class InterceptorsConfig implements WebMvcConfigurer {
     @Override
     public void addInterceptors(@NonNull InterceptorRegistry registry) {
         registry.addInterceptor(serviceContextInterceptor);
+        registry.addInterceptor(rateLimitInterceptor);
         registry.addInterceptor(authInterceptor);
         registry.addInterceptor(incompleteRegistrationInterceptor);
         registry.addInterceptor(requiresPaidSubscriptionInterceptor);
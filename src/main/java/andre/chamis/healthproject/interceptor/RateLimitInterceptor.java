@@ -0,0 +1,54 @@
+package andre.chamis.healthproject.interceptor;
+
+import andre.chamis.healthproject.domain.auth.annotation.RateLimited;
+import andre.chamis.healthproject.infra.ratelimit.RateLimitKey;
+import andre.chamis.healthproject.service.RateLimitService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Interceptor responsible for throttling endpoints annotated with {@link RateLimited} by client key and remote
+ * address. Runs before authentication, so rejected requests cost no lookup. Throttling by email needs the request
+ * body, see {@link RateLimitRequestBodyAdvice}.
+ */
+@Component
+@RequiredArgsConstructor
+public class RateLimitInterceptor implements HandlerInterceptor {
+    private static final String CLIENT_KEY_HEADER_NAME = "client-key";
+    private final RateLimitService rateLimitService;
+    private final HandlerSecurityPolicyRegistry handlerSecurityPolicyRegistry;
+
+    /**
+     * Pre-handle method that takes a token for the client key and the remote address of the request.
+     *
+     * @param request  The incoming HTTP request.
+     * @param response The HTTP response.
+     * @param handler  The handler for the request.
+     * @return {@code true}, as requests over the limit are rejected with an exception.
+     */
+    @Override
+    public boolean preHandle(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull Object handler
+    ) {
+        if (!(handler instanceof HandlerMethod handlerMethod)) {
+            return true;
+        }
+
+        String endpoint = handlerSecurityPolicyRegistry.getPolicy(handlerMethod).rateLimitedEndpoint();
+        if (endpoint == null) {
+            return true;
+        }
+
+        rateLimitService.checkLimit(endpoint, RateLimitKey.REMOTE_ADDRESS, request.getRemoteAddr());
+        rateLimitService.checkLimit(endpoint, RateLimitKey.CLIENT_KEY, request.getHeader(CLIENT_KEY_HEADER_NAME));
+
+        return true;
+    }
+}
@@ -0,0 +1,58 @@
+package andre.chamis.healthproject.interceptor;
+
+import andre.chamis.healthproject.domain.auth.annotation.RateLimited;
+import andre.chamis.healthproject.infra.ratelimit.EmailIdentifiedRequest;
+import andre.chamis.healthproject.infra.ratelimit.RateLimitKey;
+import andre.chamis.healthproject.service.RateLimitService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.lang.NonNull;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.RequestBodyAdviceAdapter;
+
+import java.lang.reflect.Type;
+import java.util.Locale;
+
+/**
+ * Throttles endpoints annotated with {@link RateLimited} by the email of their {@link EmailIdentifiedRequest} body.
+ * Runs once the body is read, before the controller method is called.
+ */
+@ControllerAdvice
+@RequiredArgsConstructor
+public class RateLimitRequestBodyAdvice extends RequestBodyAdviceAdapter {
+    private final RateLimitService rateLimitService;
+
+    @Override
+    public boolean supports(
+            @NonNull MethodParameter methodParameter,
+            @NonNull Type targetType,
+            @NonNull Class<? extends HttpMessageConverter<?>> converterType
+    ) {
+        return methodParameter.hasMethodAnnotation(RateLimited.class);
+    }
+
+    /**
+     * Takes a token for the email of the request body, ignoring case and surrounding spaces.
+     *
+     * @return The body, unchanged.
+     */
+    @Override
+    @NonNull
+    public Object afterBodyRead(
+            @NonNull Object body,
+            @NonNull HttpInputMessage inputMessage,
+            @NonNull MethodParameter parameter,
+            @NonNull Type targetType,
+            @NonNull Class<? extends HttpMessageConverter<?>> converterType
+    ) {
+        if (body instanceof EmailIdentifiedRequest request && request.email() != null) {
+            RateLimited rateLimited = parameter.getMethodAnnotation(RateLimited.class);
+            String email = request.email().trim().toLowerCase(Locale.ROOT);
+            rateLimitService.checkLimit(rateLimited.value(), RateLimitKey.EMAIL, email);
+        }
+
+        return body;
+    }
+}
@@ -1,7 +1,7 @@
 package andre.chamis.healthproject.interceptor;
 
+import andre.chamis.healthproject.context.PrincipalSnapshot;
 import andre.chamis.healthproject.domain.auth.annotation.RequiresPaidSubscription;
-import andre.chamis.healthproject.domain.user.model.User;
 import andre.chamis.healthproject.exception.ForbiddenException;
 import andre.chamis.healthproject.infra.request.response.ErrorMessage;
 import andre.chamis.healthproject.service.UserService;
@@ -20,7 +20,7 @@ import org.springframework.web.servlet.HandlerInterceptor;
 @RequiredArgsConstructor
 public class RequiresPaidSubscriptionInterceptor implements HandlerInterceptor {
     private final UserService userService;
-
+    private final HandlerSecurityPolicyRegistry handlerSecurityPolicyRegistry;
 
     /**
      * Pre-handle method that checks if the user has an active paid subscription
@@ -44,12 +44,12 @@ public class RequiresPaidSubscriptionInterceptor implements HandlerInterceptor {
         }
 
         // Check if the method is annotated with @RequiresPaidSubscription
-        if (!handlerMethod.getMethod().isAnnotationPresent(RequiresPaidSubscription.class)) {
+        if (!handlerSecurityPolicyRegistry.getPolicy(handlerMethod).requiresPaidSubscription()) {
             return true; // Proceed if no annotation is present
         }
 
         // Verify if the current user has an active paid subscription
-        User currentUser = userService.findCurrentUser();
+        PrincipalSnapshot currentUser = userService.findCurrentPrincipal();
         boolean isPaidUser = currentUser.isPaymentActive();
 
         // Deny access if the user does not have an active subscription
@@ -1,24 +1,30 @@
 package andre.chamis.healthproject.interceptor;
 
 import andre.chamis.healthproject.context.ServiceContext;
+import andre.chamis.healthproject.service.LatencyMetricsService;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 import org.springframework.lang.NonNull;
 import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Component;
 import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
 
 import java.time.Duration;
 import java.time.Instant;
 
 /**
- * Interceptor responsible for managing the ServiceContext and logging execution details.
+ * Interceptor responsible for managing the ServiceContext, logging execution details and recording request latencies.
  */
 @Slf4j
 @Component
+@RequiredArgsConstructor
 public class ServiceContextInterceptor implements HandlerInterceptor {
+    private final LatencyMetricsService latencyMetricsService;
+
     /**
      * Pre-handle method that initializes the ServiceContext and logs the start of execution.
      *
@@ -35,18 +41,14 @@ public class ServiceContextInterceptor implements HandlerInterceptor {
 
         response.setHeader(ServiceContext.EXECUTION_ID_KEY, context.getExecutionId());
 
-        log.info(
-                "Starting Execution of [{} - {}] at [{}]",
-                request.getMethod(),
-                request.getRequestURI(),
-                context.getStartTime()
-        );
+        log.debug("Starting Execution of [{} - {}]", request.getMethod(), request.getRequestURI());
 
         return true;
     }
 
     /**
-     * After-completion method that logs execution details and clears the ServiceContext.
+     * After-completion method that logs execution details, records the latency of the route and clears the
+     * ServiceContext.
      *
      * @param request  The incoming HTTP request.
      * @param response The HTTP response.
@@ -63,13 +65,20 @@ public class ServiceContextInterceptor implements HandlerInterceptor {
         }
 
         log.info(
-                "Finishing execution of [{} - {}] at [{}]. Execution took [{}] ms",
+                "Finishing execution of [{} - {}] with status [{}]. Execution took [{}] ms",
                 request.getMethod(),
                 request.getRequestURI(),
-                context.getEndTime(),
+                response.getStatus(),
                 executionTime.toMillis()
         );
 
+        latencyMetricsService.recordLatency(
+                request.getMethod(),
+                (String) request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE),
+                response.getStatus(),
+                executionTime.toNanos()
+        );
+
         ServiceContext.clearContext();
     }
 }
@@ -18,4 +18,10 @@ public class AuthInterceptorProperties {
      * List of URIs that are allowed to bypass authentication and authorization checks.
      */
     private List<String> allowedUris;
+
+    /**
+     * The key operators present in the {@code admin-key} header to call admin endpoints. Unlike client keys, it is
+     * never shipped to browsers. Admin endpoints reject every request when it is not set.
+     */
+    private String adminKey;
 }
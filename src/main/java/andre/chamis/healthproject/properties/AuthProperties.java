@@ -18,6 +18,12 @@ public class AuthProperties {
      */
     private JwtProperties user;
 
+    /**
+     * Whether requests are authorized from the user ID and session expiration carried by the access token, checking
+     * revoked sessions in memory instead of loading the session.
+     */
+    private boolean statelessAccessTokens;
+
     /**
      * Nested class representing JWT properties.
      */
@@ -0,0 +1,164 @@
+package andre.chamis.healthproject.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Configuration properties for the in-memory caches.
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "cache")
+public class CacheProperties {
+    /**
+     * Settings for the session cache.
+     */
+    private CacheConfig session = new CacheConfig();
+
+    /**
+     * Settings for the user cache.
+     */
+    private CacheConfig user = new CacheConfig();
+
+    /**
+     * Settings for the client cache.
+     */
+    private CacheConfig client = new CacheConfig();
+
+    /**
+     * Settings for the cache of verified access tokens. Entries expire with their token.
+     */
+    private CacheConfig verifiedToken = new CacheConfig();
+
+    /**
+     * Settings for the negative cache of client keys that are not registered.
+     */
+    private CacheConfig unknownClient = new CacheConfig();
+
+    /**
+     * Settings for the membership filter of registered client keys.
+     */
+    private FilterConfig clientKeyFilter = new FilterConfig();
+
+    /**
+     * Settings for the membership filter of registered user emails.
+     */
+    private FilterConfig userEmailFilter = new FilterConfig();
+
+    /**
+     * Settings for the membership filter of issued refresh tokens.
+     */
+    private FilterConfig refreshTokenFilter = new FilterConfig();
+
+    /**
+     * Settings for the invalidation of cache entries across instances.
+     */
+    private InvalidationConfig invalidation = new InvalidationConfig();
+
+    /**
+     * Settings for the background warmup of the caches once the application is ready.
+     */
+    private WarmupConfig warmup = new WarmupConfig();
+
+    /**
+     * Nested class representing the settings of a single cache.
+     */
+    @Data
+    public static class CacheConfig {
+        /**
+         * The maximum number of entries kept in the cache. Negative values mean the cache is unbounded.
+         */
+        private int maxSize = -1;
+
+        /**
+         * How long an entry stays in the cache after being stored. When empty, entries only expire if the
+         * cache derives the expiration from the value itself.
+         */
+        private Long duration;
+
+        /**
+         * Unit of time for the entry duration (e.g., minutes, hours).
+         */
+        private ChronoUnit unit;
+
+        /**
+         * How long before expiring a frequently read entry is reloaded in the background. Disabled when empty.
+         * Only applies to caches whose entries expire a fixed time after being stored.
+         */
+        private Duration refreshAhead;
+
+        /**
+         * Calculates when an entry stored now should leave the cache.
+         *
+         * @return The expiration instant, or {@code null} if no duration is configured.
+         */
+        public Instant calculateExpirationFromNow() {
+            if (duration == null || unit == null) {
+                return null;
+            }
+
+            return Instant.now().plus(duration, unit);
+        }
+    }
+
+    /**
+     * Nested class representing the settings of a membership filter.
+     */
+    @Data
+    public static class FilterConfig {
+        /**
+         * The probability of the filter reporting an absent value as possibly present.
+         */
+        private double falsePositiveRate = 0.001;
+
+        /**
+         * How often the filter is rebuilt from the database. Values added to the database become visible at most
+         * this long after being stored.
+         */
+        private Duration refreshInterval = Duration.ofMinutes(1);
+    }
+
+    /**
+     * Nested class representing the settings of cross-instance cache invalidation.
+     */
+    @Data
+    public static class InvalidationConfig {
+        /**
+         * The channel carrying invalidations: {@code loopback} for a single instance, or {@code postgres} to use
+         * LISTEN/NOTIFY on the application database.
+         */
+        private String channel = "loopback";
+
+        /**
+         * How long the listener waits for a notification before checking for missed messages, and before
+         * reconnecting after a failure.
+         */
+        private Duration pollInterval = Duration.ofSeconds(5);
+
+        /**
+         * How long published messages are kept for instances that are catching up.
+         */
+        private Duration retention = Duration.ofHours(1);
+    }
+
+    /**
+     * Nested class representing the settings of the cache warmup.
+     */
+    @Data
+    public static class WarmupConfig {
+        /**
+         * Whether the caches are warmed up once the application is ready. When disabled, caches fill on demand.
+         */
+        private boolean enabled = true;
+
+        /**
+         * The number of rows read from the database per query.
+         */
+        private int pageSize = 1_000;
+    }
+}
@@ -0,0 +1,36 @@
+package andre.chamis.healthproject.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for committing the writes of concurrent requests together.
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "group-commit")
+public class GroupCommitProperties {
+    /**
+     * Whether writes are queued to be committed together. When disabled, each write commits on its own thread.
+     */
+    private boolean enabled = true;
+
+    /**
+     * The maximum number of writes committed in one transaction.
+     */
+    private int maxBatchSize = 64;
+
+    /**
+     * How many writes may wait for the next commit. Writes beyond that commit on their own thread.
+     */
+    private int queueCapacity = 1_024;
+
+    /**
+     * How long a request waits for its write to be committed. A write still queued by then commits on the request's
+     * own thread, and one already being committed is answered with 503 (Service Unavailable).
+     */
+    private Duration maxWait = Duration.ofSeconds(5);
+}
@@ -0,0 +1,36 @@
+package andre.chamis.healthproject.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for the executor that hashes and verifies passwords.
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "auth.password-hashing")
+public class PasswordHashingProperties {
+    /**
+     * The number of threads hashing passwords. Bounds the CPU that logins can take from other requests.
+     */
+    private int threads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+
+    /**
+     * How many hashing tasks may wait for a thread. Requests beyond that are rejected with 429 (Too Many Requests).
+     */
+    private int queueCapacity = 64;
+
+    /**
+     * How long a request waits for its hashing task. Requests waiting longer are answered with 503 (Service
+     * Unavailable).
+     */
+    private Duration maxWait = Duration.ofSeconds(2);
+
+    /**
+     * The BCrypt strength, as the base-2 logarithm of the number of rounds.
+     */
+    private int strength = 10;
+}
@@ -0,0 +1,70 @@
+package andre.chamis.healthproject.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Configuration properties for throttling the endpoints annotated with
+ * {@link andre.chamis.healthproject.domain.auth.annotation.RateLimited}.
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "rate-limit")
+public class RateLimitProperties {
+    /**
+     * The maximum number of keys each limit tracks at once, bounding its memory.
+     */
+    private int maxKeys = 100_000;
+
+    /**
+     * How often buckets that are full again are dropped.
+     */
+    private Duration idleEvictionInterval = Duration.ofMinutes(1);
+
+    /**
+     * The limits of each endpoint, by the name given on its annotation.
+     */
+    private Map<String, EndpointLimits> endpoints = new HashMap<>();
+
+    /**
+     * The limits of an endpoint. A missing limit does not throttle by that key.
+     */
+    @Data
+    public static class EndpointLimits {
+        /**
+         * Limit per email sent in the request body.
+         */
+        private Limit email;
+
+        /**
+         * Limit per client key header.
+         */
+        private Limit clientKey;
+
+        /**
+         * Limit per remote address.
+         */
+        private Limit remoteAddress;
+    }
+
+    /**
+     * A token bucket limit.
+     */
+    @Data
+    public static class Limit {
+        /**
+         * The number of requests allowed at once, and refilled every period.
+         */
+        private int capacity;
+
+        /**
+         * The time it takes for the bucket to be full again after being emptied.
+         */
+        private Duration period;
+    }
+}
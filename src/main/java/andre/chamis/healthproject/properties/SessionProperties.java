@@ -4,6 +4,7 @@ import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
 import java.time.temporal.ChronoUnit;
 
 /**
@@ -22,4 +23,16 @@ public class SessionProperties {
      * The unit of time used for the session duration, such as minutes or hours.
      */
     private ChronoUnit unit;
+
+    /**
+     * Whether a session expires after {@link #duration} without being used, instead of after {@link #duration} from
+     * its creation.
+     */
+    private boolean sliding;
+
+    /**
+     * How often the last-seen times of used sessions are written to the database, extending their expiration. A
+     * session is extended at most once per interval.
+     */
+    private Duration lastSeenFlushInterval = Duration.ofMinutes(1);
 }
@@ -0,0 +1,61 @@
+package andre.chamis.healthproject.scheduled;
+
+import andre.chamis.healthproject.properties.CacheProperties;
+import andre.chamis.healthproject.service.ClientService;
+import andre.chamis.healthproject.service.RefreshTokenService;
+import andre.chamis.healthproject.service.SessionService;
+import andre.chamis.healthproject.service.UserService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Component that fills the in-memory caches in the background once the application is ready.
+ * <p>
+ * The application serves traffic while this runs; until an entry is warmed up, lookups fall through to the
+ * database as on any other miss.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CacheWarmupJob {
+    private final ClientService clientService;
+    private final SessionService sessionService;
+    private final UserService userService;
+    private final RefreshTokenService refreshTokenService;
+    private final CacheProperties cacheProperties;
+
+    /**
+     * Warms up the client and session caches, in that order, as every authenticated request needs one of them,
+     * then builds the user email and refresh token filters.
+     */
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUpCaches() {
+        if (!cacheProperties.getWarmup().isEnabled()) {
+            return;
+        }
+
+        Instant executionStart = Instant.now();
+        int warmedUpClients = clientService.warmUpCache();
+        int warmedUpSessions = sessionService.warmUpCache();
+        int userEmails = userService.refreshEmailFilter();
+        int refreshTokens = refreshTokenService.refreshIssuedTokenFilter();
+        Instant executionEnd = Instant.now();
+        log.info(
+                "Warmed up caches with [{} clients], [{} sessions], [{} user emails] and [{} refresh tokens]. "
+                        + "Execution took [{} ms]",
+                warmedUpClients,
+                warmedUpSessions,
+                userEmails,
+                refreshTokens,
+                Duration.between(executionStart, executionEnd).toMillis()
+        );
+    }
+}
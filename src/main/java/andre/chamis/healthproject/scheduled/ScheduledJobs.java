@@ -1,6 +1,11 @@
 package andre.chamis.healthproject.scheduled;
 
 
+import andre.chamis.healthproject.cache.ManagedCache;
+import andre.chamis.healthproject.cache.invalidation.CacheInvalidationBus;
+import andre.chamis.healthproject.properties.CacheProperties;
+import andre.chamis.healthproject.service.ClientService;
+import andre.chamis.healthproject.service.RateLimitService;
 import andre.chamis.healthproject.service.RefreshTokenService;
 import andre.chamis.healthproject.service.SessionService;
 import andre.chamis.healthproject.service.UserService;
@@ -11,6 +16,7 @@ import org.springframework.stereotype.Component;
 
 import java.time.Duration;
 import java.time.Instant;
+import java.util.List;
 
 /**
  * Component containing scheduled tasks to perform periodic operations.
@@ -22,6 +28,11 @@ public class ScheduledJobs {
     private final RefreshTokenService refreshTokenService;
     private final SessionService sessionService;
     private final UserService userService;
+    private final ClientService clientService;
+    private final List<ManagedCache> caches;
+    private final CacheInvalidationBus cacheInvalidationBus;
+    private final CacheProperties cacheProperties;
+    private final RateLimitService rateLimitService;
 
     /**
      * Scheduled task to delete expired refresh tokens every day at 00:00.
@@ -53,6 +64,25 @@ public class ScheduledJobs {
         );
     }
 
+    /**
+     * Scheduled task to write the last-seen times of used sessions, extending their expiration, as often as
+     * configured on {@code auth.session.last-seen-flush-interval}.
+     */
+    @Scheduled(
+            fixedDelayString = "${auth.session.last-seen-flush-interval:PT1M}",
+            initialDelayString = "${auth.session.last-seen-flush-interval:PT1M}"
+    )
+    public void flushSessionLastSeen() {
+        Instant executionStart = Instant.now();
+        int extendedSessions = sessionService.flushLastSeen();
+        Instant executionEnd = Instant.now();
+        log.debug(
+                "Extended [{} sessions] from their last-seen times. Execution took [{} ms]",
+                extendedSessions,
+                Duration.between(executionStart, executionEnd).toMillis()
+        );
+    }
+
     /**
      * Scheduled task to update passwords for users with expired and incomplete registrations every day at 00:00.
      */
@@ -68,6 +98,113 @@ public class ScheduledJobs {
         );
     }
 
+    /**
+     * Scheduled task to remove expired entries from every in-memory cache every minute.
+     */
+    @Scheduled(cron = "0 * * * * *")
+    public void evictExpiredCacheEntries() {
+        Instant executionStart = Instant.now();
+        int evictedEntries = caches.stream().mapToInt(ManagedCache::evictExpired).sum();
+        Instant executionEnd = Instant.now();
+        log.debug(
+                "Evicted [{} expired cache entries]. Execution took [{} ms]",
+                evictedEntries,
+                Duration.between(executionStart, executionEnd).toMillis()
+        );
+    }
+
+    /**
+     * Scheduled task to rebuild the client key filter, as often as configured on
+     * {@code cache.client-key-filter.refresh-interval}.
+     */
+    @Scheduled(
+            fixedDelayString = "${cache.client-key-filter.refresh-interval:PT1M}",
+            initialDelayString = "${cache.client-key-filter.refresh-interval:PT1M}"
+    )
+    public void refreshClientKeyFilter() {
+        Instant executionStart = Instant.now();
+        int clientKeys = clientService.refreshClientKeyFilter();
+        Instant executionEnd = Instant.now();
+        log.debug(
+                "Rebuilt client key filter with [{} keys]. Execution took [{} ms]",
+                clientKeys,
+                Duration.between(executionStart, executionEnd).toMillis()
+        );
+    }
+
+    /**
+     * Scheduled task to rebuild the user email filter, as often as configured on
+     * {@code cache.user-email-filter.refresh-interval}.
+     */
+    @Scheduled(
+            fixedDelayString = "${cache.user-email-filter.refresh-interval:PT1M}",
+            initialDelayString = "${cache.user-email-filter.refresh-interval:PT1M}"
+    )
+    public void refreshUserEmailFilter() {
+        Instant executionStart = Instant.now();
+        int emails = userService.refreshEmailFilter();
+        Instant executionEnd = Instant.now();
+        log.debug(
+                "Rebuilt user email filter with [{} emails]. Execution took [{} ms]",
+                emails,
+                Duration.between(executionStart, executionEnd).toMillis()
+        );
+    }
+
+    /**
+     * Scheduled task to rebuild the issued refresh token filter, as often as configured on
+     * {@code cache.refresh-token-filter.refresh-interval}.
+     */
+    @Scheduled(
+            fixedDelayString = "${cache.refresh-token-filter.refresh-interval:PT1M}",
+            initialDelayString = "${cache.refresh-token-filter.refresh-interval:PT1M}"
+    )
+    public void refreshIssuedRefreshTokenFilter() {
+        Instant executionStart = Instant.now();
+        int refreshTokens = refreshTokenService.refreshIssuedTokenFilter();
+        Instant executionEnd = Instant.now();
+        log.debug(
+                "Rebuilt refresh token filter with [{} tokens]. Execution took [{} ms]",
+                refreshTokens,
+                Duration.between(executionStart, executionEnd).toMillis()
+        );
+    }
+
+    /**
+     * Scheduled task to drop rate limit buckets that are full again, as often as configured on
+     * {@code rate-limit.idle-eviction-interval}.
+     */
+    @Scheduled(
+            fixedDelayString = "${rate-limit.idle-eviction-interval:PT1M}",
+            initialDelayString = "${rate-limit.idle-eviction-interval:PT1M}"
+    )
+    public void evictIdleRateLimitBuckets() {
+        Instant executionStart = Instant.now();
+        int evictedBuckets = rateLimitService.evictIdleBuckets();
+        Instant executionEnd = Instant.now();
+        log.debug(
+                "Evicted [{} idle rate limit buckets]. Execution took [{} ms]",
+                evictedBuckets,
+                Duration.between(executionStart, executionEnd).toMillis()
+        );
+    }
+
+    /**
+     * Scheduled task to purge cache invalidation messages older than the configured retention every hour.
+     */
+    @Scheduled(cron = "0 0 * * * *")
+    public void purgeCacheInvalidationMessages() {
+        Instant executionStart = Instant.now();
+        Instant publishedBefore = executionStart.minus(cacheProperties.getInvalidation().getRetention());
+        int purgedMessages = cacheInvalidationBus.purgeMessagesPublishedBefore(publishedBefore);
+        Instant executionEnd = Instant.now();
+        log.info(
+                "Purged [{} cache invalidation messages]. Execution took [{} ms]",
+                purgedMessages,
+                Duration.between(executionStart, executionEnd).toMillis()
+        );
+    }
+
     // TODO Criar um job para rodar todo dia 00:00 que vai buscar todos os clientes com subscription do banco
     //  (talvez uma querie custom jdbc), ou buscar todas as subscriptions e analisar num for
     //  (a querie deve ser mais rápida e é melhor pq acessar menos o banco = mais barato) e enviar um email para todos
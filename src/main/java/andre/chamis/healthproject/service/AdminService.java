@@ -0,0 +1,130 @@
+package andre.chamis.healthproject.service;
+
+import andre.chamis.healthproject.cache.ManagedCache;
+import andre.chamis.healthproject.cache.invalidation.CacheInvalidationBus;
+import andre.chamis.healthproject.domain.admin.dto.GetCacheInvalidationStatisticsDTO;
+import andre.chamis.healthproject.domain.admin.dto.GetCacheStatisticsDTO;
+import andre.chamis.healthproject.domain.admin.dto.GetGroupCommitStatisticsDTO;
+import andre.chamis.healthproject.domain.admin.dto.GetLoggingStatisticsDTO;
+import andre.chamis.healthproject.domain.admin.dto.GetPasswordHashingStatisticsDTO;
+import andre.chamis.healthproject.domain.admin.dto.GetRateLimitStatisticsDTO;
+import andre.chamis.healthproject.domain.admin.dto.GetRouteLatencyStatisticsDTO;
+import andre.chamis.healthproject.domain.admin.dto.GetSessionActivityStatisticsDTO;
+import andre.chamis.healthproject.domain.auth.session.repository.SessionRepository;
+import andre.chamis.healthproject.infra.persistence.GroupCommitExecutor;
+import ch.qos.logback.classic.LoggerContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Service class for operational and inspection operations.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AdminService {
+    private final List<ManagedCache> caches;
+    private final CacheInvalidationBus cacheInvalidationBus;
+    private final PasswordHashingService passwordHashingService;
+    private final RateLimitService rateLimitService;
+    private final GroupCommitExecutor groupCommitExecutor;
+    private final SessionRepository sessionRepository;
+    private final LatencyMetricsService latencyMetricsService;
+
+    /**
+     * Retrieves the usage statistics of every in-memory cache.
+     *
+     * @return A list with the statistics of each cache, sorted by cache name.
+     */
+    public List<GetCacheStatisticsDTO> getCacheStatistics() {
+        return caches.stream()
+                .map(GetCacheStatisticsDTO::fromCache)
+                .sorted(Comparator.comparing(GetCacheStatisticsDTO::name))
+                .toList();
+    }
+
+    /**
+     * Retrieves the statistics of the cross-instance cache invalidation of this instance.
+     *
+     * @return The published and applied invalidations, and their latency.
+     */
+    public GetCacheInvalidationStatisticsDTO getCacheInvalidationStatistics() {
+        return GetCacheInvalidationStatisticsDTO.fromBus(cacheInvalidationBus);
+    }
+
+    /**
+     * Retrieves the queue depth, wait times and rejections of the password hashing executor of this instance.
+     *
+     * @return The statistics of the password hashing executor.
+     */
+    public GetPasswordHashingStatisticsDTO getPasswordHashingStatistics() {
+        return GetPasswordHashingStatisticsDTO.fromService(passwordHashingService);
+    }
+
+    /**
+     * Retrieves the allowed and rejected requests, and the evicted buckets, of every rate limit.
+     *
+     * @return A list with the statistics of each rate limit, sorted by endpoint and key.
+     */
+    public List<GetRateLimitStatisticsDTO> getRateLimitStatistics() {
+        return rateLimitService.getLimitersByEndpoint().entrySet().stream()
+                .flatMap(endpoint -> endpoint.getValue().entrySet().stream()
+                        .map(limiter -> GetRateLimitStatisticsDTO.fromLimiter(
+                                endpoint.getKey(),
+                                limiter.getKey(),
+                                limiter.getValue()
+                        )))
+                .sorted(Comparator.comparing(GetRateLimitStatisticsDTO::endpoint)
+                        .thenComparing(GetRateLimitStatisticsDTO::key))
+                .toList();
+    }
+
+    /**
+     * Retrieves how many transactions the group commit writer committed, and how many writes they held.
+     *
+     * @return The group commit statistics of this instance.
+     */
+    public GetGroupCommitStatisticsDTO getGroupCommitStatistics() {
+        return GetGroupCommitStatisticsDTO.fromExecutor(groupCommitExecutor);
+    }
+
+    /**
+     * Retrieves how many session last-seen times are pending, were written, and extended a session.
+     *
+     * @return The sliding session statistics of this instance.
+     */
+    public GetSessionActivityStatisticsDTO getSessionActivityStatistics() {
+        return GetSessionActivityStatisticsDTO.fromRepository(sessionRepository);
+    }
+
+    /**
+     * Retrieves the latency percentiles of every route and response status.
+     *
+     * @param reset Whether to reset the histograms, so the next call covers the interval starting now.
+     * @return A list with the latencies of each route and status requested in the interval, sorted by route, method
+     *         and status.
+     */
+    public List<GetRouteLatencyStatisticsDTO> getRouteLatencyStatistics(boolean reset) {
+        return latencyMetricsService.getSnapshots(reset).entrySet().stream()
+                .filter(entry -> entry.getValue().getCount() > 0)
+                .map(entry -> GetRouteLatencyStatisticsDTO.fromSnapshot(entry.getKey(), entry.getValue()))
+                .sorted(Comparator.comparing(GetRouteLatencyStatisticsDTO::route)
+                        .thenComparing(GetRouteLatencyStatisticsDTO::method)
+                        .thenComparingInt(GetRouteLatencyStatisticsDTO::status))
+                .toList();
+    }
+
+    /**
+     * Retrieves how many log lines were suppressed by sampling, or dropped by the log queue, on this instance.
+     *
+     * @return The logging statistics of this instance.
+     */
+    public GetLoggingStatisticsDTO getLoggingStatistics() {
+        return GetLoggingStatisticsDTO.fromLoggerContext((LoggerContext) LoggerFactory.getILoggerFactory());
+    }
+}
@@ -1,11 +1,14 @@
 package andre.chamis.healthproject.service;
 
+import andre.chamis.healthproject.context.PrincipalSnapshot;
 import andre.chamis.healthproject.domain.auth.dto.ForgotPasswordRequest;
 import andre.chamis.healthproject.domain.auth.dto.RefreshTokensDTO;
 import andre.chamis.healthproject.domain.auth.dto.TokensDTO;
 import andre.chamis.healthproject.domain.auth.model.ForgotPasswordToken;
+import andre.chamis.healthproject.domain.auth.model.TokenClaims;
 import andre.chamis.healthproject.domain.auth.repository.ForgotPasswordTokenRepository;
 import andre.chamis.healthproject.exception.UnauthorizedException;
+import andre.chamis.healthproject.infra.persistence.GroupCommitExecutor;
 import andre.chamis.healthproject.infra.request.response.ErrorMessage;
 import andre.chamis.healthproject.domain.auth.session.model.Session;
 import andre.chamis.healthproject.domain.user.dto.GetUserDTO;
@@ -17,7 +20,6 @@ import org.springframework.stereotype.Service;
 
 import java.time.Duration;
 import java.time.Instant;
-import java.util.Date;
 import java.util.Optional;
 
 /**
@@ -33,6 +35,10 @@ public class AuthorizationService {
     private final SessionService sessionService;
     private final EmailService emailService;
     private final ForgotPasswordTokenRepository forgotPasswordTokenRepository;
+    private final GroupCommitExecutor groupCommitExecutor;
+
+    private record SessionWithRefreshToken(Session session, TokenClaims refreshTokenClaims) {
+    }
 
     /**
      * Authenticates a user and generates access and refresh tokens.
@@ -58,19 +64,20 @@ public class AuthorizationService {
         log.info("Preparing to refresh user access tokens");
 
         String refreshToken = refreshTokensDTO.refreshToken();
-        boolean isTokenValid = jwtService.validateUserRefreshToken(refreshToken);
-        if (!isTokenValid) {
+        Optional<TokenClaims> refreshTokenClaimsOptional = jwtService.verifyUserRefreshToken(refreshToken);
+        if (refreshTokenClaimsOptional.isEmpty()) {
             refreshTokenService.deleteToken(refreshToken);
             throw new UnauthorizedException(ErrorMessage.INVALID_JWT);
         }
+        TokenClaims refreshTokenClaims = refreshTokenClaimsOptional.get();
 
-        boolean isTokenOnDatabase = refreshTokenService.existsOnDatabase(refreshToken);
+        boolean isTokenOnDatabase = refreshTokenService.existsOnDatabase(refreshTokenClaims);
         if (!isTokenOnDatabase) {
             throw new UnauthorizedException(ErrorMessage.INVALID_JWT);
         }
-        String username = jwtService.getTokenSubject(refreshToken);
+        String username = refreshTokenClaims.subject();
 
-        Long sessionId = jwtService.getSessionIdFromToken(refreshToken);
+        Long sessionId = refreshTokenClaims.sessionId();
         Optional<Session> sessionOptional = sessionService.findSessionById(sessionId);
         Session session = sessionOptional.orElseThrow(() -> new UnauthorizedException(ErrorMessage.EXPIRED_SESSION));
 
@@ -79,19 +86,24 @@ public class AuthorizationService {
             throw new UnauthorizedException(ErrorMessage.EXPIRED_SESSION);
         }
 
-        String accessToken = jwtService.createUserAccessToken(username, session.getSessionId());
+        String accessToken = jwtService.createUserAccessToken(username, session).token();
 
-        Date refreshTokenExpirationDate = jwtService.getTokenExpiresAt(refreshToken);
         Duration durationUntilRefreshTokenExpires = Duration.between(
                 Instant.now(),
-                refreshTokenExpirationDate.toInstant());
+                refreshTokenClaims.expiresAt());
 
         if (durationUntilRefreshTokenExpires.toHours() <= 2) {
             log.info("User Refresh Token was about to expire, creating a new one!");
 
-            refreshTokenService.deleteToken(refreshToken);
-            refreshToken = jwtService.createUserRefreshToken(username, session.getSessionId());
-            refreshTokenService.saveTokenToDatabase(refreshToken);
+            String expiringRefreshToken = refreshToken;
+            TokenClaims newRefreshTokenClaims = jwtService.createUserRefreshToken(username, session.getSessionId());
+            // The rotation is committed at once, together with the logins and rotations of concurrent requests
+            groupCommitExecutor.execute(() -> {
+                refreshTokenService.deleteToken(expiringRefreshToken);
+                refreshTokenService.saveTokenToDatabase(newRefreshTokenClaims);
+                return newRefreshTokenClaims;
+            });
+            refreshToken = newRefreshTokenClaims.token();
         }
 
         return new TokensDTO(accessToken, refreshToken, (GetUserDTO) null);
@@ -101,32 +113,45 @@ public class AuthorizationService {
      * Logs out the current user by deleting refresh token and session.
      */
     public void logout() {
-        User currentUser = userService.findCurrentUser();
-        log.info("Logging out user [{}]", currentUser.getEmail());
-        refreshTokenService.deleteTokenByUsername(currentUser.getUsername());
+        PrincipalSnapshot principal = userService.findCurrentPrincipal();
+        log.info("Logging out user [{}]", principal.email());
+        refreshTokenService.deleteTokenByUsername(principal.username());
         sessionService.deleteCurrentSession();
     }
 
     /**
      * Generates a session and tokens for a user after successful authentication.
+     * <p>
+     * The session and refresh token are inserted in one transaction, committed together with the writes of concurrent
+     * logins. The session is cached once that transaction has committed.
      *
      * @param user The authenticated user.
      * @return The generated access and refresh tokens along with user information.
      */
     private TokensDTO generateSessionAndTokens(User user) {
-        // Create a session for the user.
-        log.info("Generating new session for user [{}]", user);
-        Session session = sessionService.createSession(user);
-
-        // Generate access and refresh token for the user.
-        log.info("Generating access and refresh tokens for user [{}]", user.getEmail());
-        String accessToken = jwtService.createUserAccessToken(user.getUsername(), session.getSessionId());
-        String refreshToken = jwtService.createUserRefreshToken(user.getUsername(), session.getSessionId());
+        // The session id is assigned on save, before the insert, so the refresh token can be created in the same
+        // transaction.
+        log.info("Generating new session and refresh token for user [{}]", user);
+        SessionWithRefreshToken sessionWithRefreshToken = groupCommitExecutor.execute(() -> {
+            Session session = sessionService.createSession(user);
+            TokenClaims refreshTokenClaims = jwtService.createUserRefreshToken(
+                    user.getUsername(),
+                    session.getSessionId()
+            );
+            refreshTokenService.saveTokenToDatabase(refreshTokenClaims);
+            return new SessionWithRefreshToken(session, refreshTokenClaims);
+        });
+        // Cached here rather than by the writer thread, so caching never delays the next batch
+        sessionService.cacheCreatedSession(sessionWithRefreshToken.session());
 
-        // Saves refresh token on database.
-        refreshTokenService.saveTokenToDatabase(refreshToken);
+        // Generate access token for the user.
+        log.info("Generating access token for user [{}]", user.getEmail());
+        String accessToken = jwtService.createUserAccessToken(
+                user.getUsername(),
+                sessionWithRefreshToken.session()
+        ).token();
 
-        return new TokensDTO(accessToken, refreshToken, user);
+        return new TokensDTO(accessToken, sessionWithRefreshToken.refreshTokenClaims().token(), user);
     }
 
     public void handleForgotPassword(ForgotPasswordRequest forgotPasswordRequest) {
@@ -26,4 +26,22 @@ public class ClientService {
     public Optional<Client> findClientByKey(String apiKey) {
         return clientRepository.findClientByKey(apiKey);
     }
+
+    /**
+     * Loads the clients into the in-memory cache and builds the filter used to reject unknown API keys.
+     *
+     * @return The number of clients loaded into the cache.
+     */
+    public int warmUpCache() {
+        return clientRepository.warmUpCache();
+    }
+
+    /**
+     * Rebuilds the filter used to reject unknown API keys, making recently registered clients visible.
+     *
+     * @return The number of client keys in the rebuilt filter.
+     */
+    public int refreshClientKeyFilter() {
+        return clientRepository.refreshClientKeyFilter();
+    }
 }
@@ -1,8 +1,12 @@
 package andre.chamis.healthproject.service;
 
 
+import andre.chamis.healthproject.domain.auth.model.TokenClaims;
+import andre.chamis.healthproject.domain.auth.repository.VerifiedTokenRepository;
+import andre.chamis.healthproject.domain.auth.session.model.Session;
 import andre.chamis.healthproject.properties.AuthProperties;
 import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTCreator;
 import com.auth0.jwt.JWTVerifier;
 import com.auth0.jwt.algorithms.Algorithm;
 import com.auth0.jwt.exceptions.JWTVerificationException;
@@ -13,7 +17,8 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
-import java.util.Date;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
 
 /**
  * Service class for managing JSON Web Tokens (JWT).
@@ -24,34 +29,47 @@ public class JwtService {
     @Value("${spring.application.name}")
     private String appName;
     private final AuthProperties authProperties;
+    private final VerifiedTokenRepository verifiedTokenRepository;
 
     private final String SESSION_PAYLOAD_KEY = "sessionId";
+    private final String USER_ID_PAYLOAD_KEY = "userId";
+    private final String SESSION_EXPIRES_AT_PAYLOAD_KEY = "sessionExpiresAt";
     private Algorithm userAccessTokenAlgorithm;
     private Algorithm userRefreshTokenAlgorithm;
+    private JWTVerifier userAccessTokenVerifier;
+    private JWTVerifier userRefreshTokenVerifier;
 
+    /**
+     * Builds the signing algorithms and the verifiers once. Verifiers are immutable and safe to share between
+     * requests.
+     */
     @PostConstruct
     void buildAlgorithms() {
         userAccessTokenAlgorithm = Algorithm.HMAC256(authProperties.getUser().getAccessToken().getEncryptionKey().getBytes());
         userRefreshTokenAlgorithm = Algorithm.HMAC256(authProperties.getUser().getRefreshToken().getEncryptionKey().getBytes());
+        userAccessTokenVerifier = JWT.require(userAccessTokenAlgorithm).withIssuer(appName).build();
+        userRefreshTokenVerifier = JWT.require(userRefreshTokenAlgorithm).withIssuer(appName).build();
     }
 
     /**
-     * Creates an access token for a user based on the provided username and session ID.
+     * Creates an access token for a user based on the provided username and session. Besides the session ID, the
+     * token carries the user ID and the session expiration, so it can be authorized without loading the session.
      *
-     * @param username  The username for which the token is created.
-     * @param sessionId The session ID associated with the user.
-     * @return The generated user access token.
+     * @param username The username for which the token is created.
+     * @param session  The session associated with the user.
+     * @return The claims of the generated user access token.
      */
-    public String createUserAccessToken(String username, Long sessionId) {
-        return JWT.create()
-                .withSubject(username)
-                .withIssuer(appName)
-                .withClaim(SESSION_PAYLOAD_KEY, sessionId)
-                .withIssuedAt(Instant.now())
-                .withExpiresAt(Instant.now().plus(
-                        authProperties.getUser().getAccessToken().getDuration(),
-                        authProperties.getUser().getAccessToken().getUnit()
-                )).sign(userAccessTokenAlgorithm);
+    public TokenClaims createUserAccessToken(String username, Session session) {
+        // Truncated like the other dates, so the token never outlives its session
+        Instant sessionExpiresAt = session.getExpireDt().toInstant().truncatedTo(ChronoUnit.SECONDS);
+        return createToken(
+                username,
+                session.getSessionId(),
+                session.getUserId(),
+                sessionExpiresAt,
+                authProperties.getUser().getAccessToken(),
+                userAccessTokenAlgorithm
+        );
     }
 
     /**
@@ -59,93 +77,107 @@ public class JwtService {
      *
      * @param username  The username for which the token is created.
      * @param sessionId The session ID associated with the user.
-     * @return The generated user refresh token.
+     * @return The claims of the generated user refresh token.
      */
-    public String createUserRefreshToken(String username, Long sessionId) {
-        return JWT.create()
+    public TokenClaims createUserRefreshToken(String username, Long sessionId) {
+        return createToken(
+                username,
+                sessionId,
+                null,
+                null,
+                authProperties.getUser().getRefreshToken(),
+                userRefreshTokenAlgorithm
+        );
+    }
+
+    private TokenClaims createToken(
+            String username,
+            Long sessionId,
+            Long userId,
+            Instant sessionExpiresAt,
+            AuthProperties.JwtProperties.TokenConfig tokenConfig,
+            Algorithm algorithm
+    ) {
+        // Tokens store dates in seconds, so the claims returned match what verifying the token yields
+        Instant issuedAt = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        Instant expiresAt = issuedAt.plus(tokenConfig.getDuration(), tokenConfig.getUnit());
+
+        JWTCreator.Builder builder = JWT.create()
                 .withSubject(username)
                 .withIssuer(appName)
                 .withClaim(SESSION_PAYLOAD_KEY, sessionId)
-                .withIssuedAt(Instant.now())
-                .withExpiresAt(Instant.now().plus(
-                        authProperties.getUser().getRefreshToken().getDuration(),
-                        authProperties.getUser().getRefreshToken().getUnit()
-                )).sign(userRefreshTokenAlgorithm);
+                .withIssuedAt(issuedAt)
+                .withExpiresAt(expiresAt);
+        if (userId != null && sessionExpiresAt != null) {
+            builder.withClaim(USER_ID_PAYLOAD_KEY, userId)
+                    .withClaim(SESSION_EXPIRES_AT_PAYLOAD_KEY, sessionExpiresAt);
+        }
+
+        String token = builder.sign(algorithm);
+        return new TokenClaims(token, username, sessionId, issuedAt, expiresAt, userId, sessionExpiresAt);
     }
 
     /**
-     * Validates a user access token.
+     * Verifies a user access token, decoding it only once. Tokens remembered with
+     * {@link #rememberVerifiedAccessToken} are served from the verified token cache until they expire, without
+     * checking the signature again.
      *
-     * @param token The access token to validate.
-     * @return True if the token is valid, otherwise false.
+     * @param token The access token to verify.
+     * @return An {@link Optional} containing the claims of the token, or empty if the token is invalid or expired.
      */
-    public boolean validateUserAccessToken(String token) {
-        try {
-            JWTVerifier verifier = JWT.require(userAccessTokenAlgorithm).withIssuer(appName).build();
-            verifier.verify(token);
-            return true;
-        } catch (JWTVerificationException ex) {
-            return false;
+    public Optional<TokenClaims> verifyUserAccessToken(String token) {
+        if (token == null) {
+            return Optional.empty();
         }
-    }
 
-    /**
-     * Validates a user refresh token.
-     *
-     * @param token The refresh token to validate.
-     * @return True if the token is valid, otherwise false.
-     */
-    public boolean validateUserRefreshToken(String token) {
-        try {
-            JWTVerifier verifier = JWT.require(userRefreshTokenAlgorithm).withIssuer(appName).build();
-            verifier.verify(token);
-            return true;
-        } catch (JWTVerificationException ex) {
-            return false;
+        Optional<TokenClaims> cachedTokenClaims = verifiedTokenRepository.findByToken(token);
+        if (cachedTokenClaims.isPresent()) {
+            return cachedTokenClaims;
         }
-    }
 
-    /**
-     * Validates a refresh token.
-     *
-     * @param token The refresh token to validate.
-     * @return True if the token is valid, otherwise false.
-     */
-    public Date getTokenExpiresAt(String token) {
-        DecodedJWT decodedJWT = JWT.decode(token);
-        return decodedJWT.getExpiresAt();
+        return verify(token, userAccessTokenVerifier);
     }
 
     /**
-     * Retrieves the issuance time of a token.
+     * Remembers a verified access token, so it is not verified again until it expires. Only called once its session
+     * is known to be valid, so tokens of deleted sessions are not cached again after being dropped.
      *
-     * @param token The token to examine.
-     * @return The issuance time as a Date.
+     * @param tokenClaims The claims returned by {@link #verifyUserAccessToken}.
      */
-    public Date getTokenIssuedAt(String token) {
-        DecodedJWT decodedJWT = JWT.decode(token);
-        return decodedJWT.getIssuedAt();
+    public void rememberVerifiedAccessToken(TokenClaims tokenClaims) {
+        verifiedTokenRepository.save(tokenClaims);
     }
 
     /**
-     * Retrieves the subject (username) of a token.
+     * Verifies a user refresh token, decoding it only once.
      *
-     * @param token The token to examine.
-     * @return The subject (username) of the token.
+     * @param token The refresh token to verify.
+     * @return An {@link Optional} containing the claims of the token, or empty if the token is invalid or expired.
      */
-    public String getTokenSubject(String token) {
-        DecodedJWT decodedJWT = JWT.decode(token);
-        return decodedJWT.getSubject();
+    public Optional<TokenClaims> verifyUserRefreshToken(String token) {
+        return verify(token, userRefreshTokenVerifier);
     }
 
-    /**
-     * Retrieves the session ID from a token.
-     *
-     * @param token The token to examine.
-     * @return The session ID contained in the token.
-     */
-    public Long getSessionIdFromToken(String token) {
-        DecodedJWT decodedJWT = JWT.decode(token);
-        return decodedJWT.getClaim(SESSION_PAYLOAD_KEY).asLong();
+    private Optional<TokenClaims> verify(String token, JWTVerifier verifier) {
+        if (token == null) {
+            return Optional.empty();
+        }
+
+        DecodedJWT decodedJWT;
+        try {
+            decodedJWT = verifier.verify(token);
+        } catch (JWTVerificationException ex) {
+            return Optional.empty();
+        }
+
+        return Optional.of(new TokenClaims(
+                token,
+                decodedJWT.getSubject(),
+                decodedJWT.getClaim(SESSION_PAYLOAD_KEY).asLong(),
+                decodedJWT.getIssuedAtAsInstant(),
+                decodedJWT.getExpiresAtAsInstant(),
+                decodedJWT.getClaim(USER_ID_PAYLOAD_KEY).asLong(),
+                decodedJWT.getClaim(SESSION_EXPIRES_AT_PAYLOAD_KEY).asInstant()
+        ));
     }
 }
@@ -0,0 +1,133 @@
+package andre.chamis.healthproject.service;
+
+import andre.chamis.healthproject.infra.metrics.LatencyHistogram;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Service class that keeps a {@link LatencyHistogram} per route, HTTP method and response status.
+ * <p>
+ * Routes are the mapped patterns of the handlers, such as {@code /user/patient/{patientId}}, so their number is
+ * bounded by the application, not by the requests. Histograms are looked up by the pattern string Spring keeps for
+ * the handler, then by method and status among the few recorded for that route, so recording a request allocates
+ * nothing once its histogram exists. Requests that matched no handler share the {@value #UNMATCHED_ROUTE} route,
+ * and once {@value #MAX_ROUTES} histograms exist, requests that would need a new one share the {@value #OTHER_ROUTE}
+ * route and method.
+ */
+@Slf4j
+@Service
+public class LatencyMetricsService {
+    private static final int MAX_ROUTES = 1_024;
+    private static final String UNMATCHED_ROUTE = "unmatched";
+    private static final String OTHER_ROUTE = "other";
+
+    private final ConcurrentHashMap<String, RouteLatencies> latenciesByRoute = new ConcurrentHashMap<>();
+    private int histogramCount;
+
+    /**
+     * Identifies the requests a histogram is kept for.
+     *
+     * @param method The HTTP method of the requests.
+     * @param route  The route pattern the requests matched.
+     * @param status The HTTP status of the responses.
+     */
+    public record RouteKey(String method, String route, int status) {
+    }
+
+    /**
+     * The histogram of the requests to a route with the same method and status.
+     */
+    private record StatusLatency(String method, int status, LatencyHistogram histogram) {
+    }
+
+    /**
+     * The histograms of a route. The array is replaced when a histogram is added, so readers never lock.
+     */
+    private static final class RouteLatencies {
+        private volatile StatusLatency[] statusLatencies = new StatusLatency[0];
+
+        private LatencyHistogram find(String method, int status) {
+            for (StatusLatency statusLatency : statusLatencies) {
+                if (statusLatency.status() == status && statusLatency.method().equals(method)) {
+                    return statusLatency.histogram();
+                }
+            }
+
+            return null;
+        }
+
+        private LatencyHistogram add(String method, int status) {
+            StatusLatency[] current = statusLatencies;
+            StatusLatency[] updated = Arrays.copyOf(current, current.length + 1);
+            LatencyHistogram histogram = new LatencyHistogram();
+            updated[current.length] = new StatusLatency(method, status, histogram);
+            statusLatencies = updated;
+            return histogram;
+        }
+    }
+
+    /**
+     * Records the latency of a request.
+     *
+     * @param method The HTTP method of the request.
+     * @param route  The route pattern the request matched, or {@code null} if it matched none.
+     * @param status The HTTP status of the response.
+     * @param nanos  How long the request took, in nanoseconds.
+     */
+    public void recordLatency(String method, String route, int status, long nanos) {
+        String matchedRoute = route == null ? UNMATCHED_ROUTE : route;
+        RouteLatencies latencies = latenciesByRoute.get(matchedRoute);
+        LatencyHistogram histogram = latencies == null ? null : latencies.find(method, status);
+        if (histogram == null) {
+            histogram = createHistogram(method, matchedRoute, status);
+        }
+
+        histogram.record(nanos);
+    }
+
+    /**
+     * Creates the histogram of a route, method and status, or finds the one another request created first.
+     *
+     * @return The histogram to record the request in.
+     */
+    private synchronized LatencyHistogram createHistogram(String method, String route, int status) {
+        if (histogramCount >= MAX_ROUTES) {
+            method = OTHER_ROUTE;
+            route = OTHER_ROUTE;
+        }
+
+        RouteLatencies latencies = latenciesByRoute.computeIfAbsent(route, r -> new RouteLatencies());
+        LatencyHistogram histogram = latencies.find(method, status);
+        if (histogram == null) {
+            histogram = latencies.add(method, status);
+            histogramCount++;
+        }
+
+        return histogram;
+    }
+
+    /**
+     * Reads the latencies of every route.
+     *
+     * @param reset Whether to reset the histograms, so the next snapshot covers the interval starting now.
+     * @return The snapshot of each route, method and status.
+     */
+    public Map<RouteKey, LatencyHistogram.Snapshot> getSnapshots(boolean reset) {
+        Map<RouteKey, LatencyHistogram.Snapshot> snapshots = new HashMap<>();
+        latenciesByRoute.forEach((route, latencies) -> {
+            for (StatusLatency statusLatency : latencies.statusLatencies) {
+                LatencyHistogram histogram = statusLatency.histogram();
+                snapshots.put(
+                        new RouteKey(statusLatency.method(), route, statusLatency.status()),
+                        reset ? histogram.snapshotAndReset() : histogram.snapshot()
+                );
+            }
+        });
+        return snapshots;
+    }
+}
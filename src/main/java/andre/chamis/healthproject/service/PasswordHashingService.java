@@ -0,0 +1,239 @@
+package andre.chamis.healthproject.service;
+
+import andre.chamis.healthproject.exception.ServiceUnavailableException;
+import andre.chamis.healthproject.exception.TooManyRequestsException;
+import andre.chamis.healthproject.infra.request.response.ErrorMessage;
+import andre.chamis.healthproject.properties.PasswordHashingProperties;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Service class that hashes and verifies passwords with BCrypt on a dedicated, bounded executor.
+ * <p>
+ * A BCrypt call takes tens of milliseconds of CPU. Run on the request threads, a burst of logins would take all of
+ * them and starve cheap requests. Here, at most {@link PasswordHashingProperties#getThreads()} hashes run at once,
+ * and a request that cannot get one in time fails fast instead of holding its thread:
+ * <ul>
+ *     <li>429 (Too Many Requests) when the queue is full;</li>
+ *     <li>503 (Service Unavailable) when the queue ahead of it is expected to take longer than
+ *     {@link PasswordHashingProperties#getMaxWait()}, or when it actually did.</li>
+ * </ul>
+ */
+@Slf4j
+@Service
+public class PasswordHashingService {
+    private final PasswordHashingProperties passwordHashingProperties;
+    private final BCryptPasswordEncoder bCryptPasswordEncoder;
+    private final ThreadPoolExecutor executor;
+
+    private final LongAdder completedTasks = new LongAdder();
+    private final LongAdder rejectedTasks = new LongAdder();
+    private final LongAdder timedOutTasks = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final LongAdder totalRunNanos = new LongAdder();
+    private final LongAccumulator maxWaitNanos = new LongAccumulator(Math::max, 0);
+
+    public PasswordHashingService(PasswordHashingProperties passwordHashingProperties) {
+        this.passwordHashingProperties = passwordHashingProperties;
+        this.bCryptPasswordEncoder = new BCryptPasswordEncoder(passwordHashingProperties.getStrength());
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                passwordHashingProperties.getThreads(),
+                passwordHashingProperties.getThreads(),
+                0,
+                TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(passwordHashingProperties.getQueueCapacity()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+        );
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Hashes a password.
+     *
+     * @param rawPassword The password to hash.
+     * @return The BCrypt hash of the password.
+     * @throws TooManyRequestsException    If the hashing queue is full.
+     * @throws ServiceUnavailableException If the password could not be hashed within the maximum wait.
+     */
+    public String hash(String rawPassword) {
+        return execute(() -> bCryptPasswordEncoder.encode(rawPassword));
+    }
+
+    /**
+     * Hashes a password on the calling thread, outside the executor. For background jobs, which must neither take
+     * hashing threads from logins nor fail when the queue is busy.
+     *
+     * @param rawPassword The password to hash.
+     * @return The BCrypt hash of the password.
+     */
+    public String hashOnCallerThread(String rawPassword) {
+        return bCryptPasswordEncoder.encode(rawPassword);
+    }
+
+    /**
+     * Checks a password against its hash.
+     *
+     * @param rawPassword    The password to check.
+     * @param hashedPassword The stored BCrypt hash.
+     * @return {@code true} if the password matches the hash.
+     * @throws TooManyRequestsException    If the hashing queue is full.
+     * @throws ServiceUnavailableException If the password could not be checked within the maximum wait.
+     */
+    public boolean matches(String rawPassword, String hashedPassword) {
+        return execute(() -> bCryptPasswordEncoder.matches(rawPassword, hashedPassword));
+    }
+
+    private <T> T execute(Supplier<T> operation) {
+        long maxWait = passwordHashingProperties.getMaxWait().toNanos();
+        if (estimateWaitNanos() > maxWait) {
+            rejectedTasks.increment();
+            log.warn("Password hashing queue would take longer than [{}], rejecting",
+                    passwordHashingProperties.getMaxWait());
+            throw new ServiceUnavailableException(ErrorMessage.SERVER_BUSY);
+        }
+
+        long submittedAt = System.nanoTime();
+        FutureTask<T> task = new FutureTask<>(() -> {
+            long startedAt = System.nanoTime();
+            recordWait(startedAt - submittedAt);
+            try {
+                return operation.get();
+            } finally {
+                totalRunNanos.add(System.nanoTime() - startedAt);
+                completedTasks.increment();
+            }
+        });
+
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            rejectedTasks.increment();
+            log.warn("Password hashing queue is full [{} tasks], rejecting", executor.getQueue().size());
+            throw new TooManyRequestsException(ErrorMessage.TOO_MANY_REQUESTS);
+        }
+
+        try {
+            return task.get(maxWait, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            abandon(task);
+            timedOutTasks.increment();
+            log.warn("Password hashing took longer than [{}], giving up", passwordHashingProperties.getMaxWait());
+            throw new ServiceUnavailableException(ErrorMessage.SERVER_BUSY);
+        } catch (InterruptedException e) {
+            abandon(task);
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException(ErrorMessage.SERVER_BUSY);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Cancels a task nobody waits for anymore, freeing its place in the queue if it has not started.
+     */
+    private void abandon(FutureTask<?> task) {
+        task.cancel(false);
+        executor.remove(task);
+    }
+
+    private void recordWait(long waitNanos) {
+        totalWaitNanos.add(waitNanos);
+        maxWaitNanos.accumulate(waitNanos);
+    }
+
+    /**
+     * Estimates how long a task submitted now would wait for a thread, from the queue depth and the average time a
+     * hash takes.
+     *
+     * @return The estimated wait in nanoseconds, or 0 before any hash completed.
+     */
+    private long estimateWaitNanos() {
+        long completed = completedTasks.sum();
+        if (completed == 0) {
+            return 0;
+        }
+
+        long averageRunNanos = totalRunNanos.sum() / completed;
+        long tasksAhead = executor.getQueue().size() + executor.getActiveCount();
+        return tasksAhead * averageRunNanos / executor.getMaximumPoolSize();
+    }
+
+    public int getThreads() {
+        return executor.getMaximumPoolSize();
+    }
+
+    public int getActiveTasks() {
+        return executor.getActiveCount();
+    }
+
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    public int getQueueCapacity() {
+        return passwordHashingProperties.getQueueCapacity();
+    }
+
+    public long getCompletedTasks() {
+        return completedTasks.sum();
+    }
+
+    public long getRejectedTasks() {
+        return rejectedTasks.sum();
+    }
+
+    public long getTimedOutTasks() {
+        return timedOutTasks.sum();
+    }
+
+    /**
+     * Calculates the average time hashes waited in the queue before running.
+     *
+     * @return The average wait in milliseconds, or 0 if no hash ran.
+     */
+    public double getAverageWaitMillis() {
+        long completed = completedTasks.sum();
+        return completed == 0 ? 0 : totalWaitNanos.sum() / 1_000_000.0 / completed;
+    }
+
+    public double getMaxWaitMillis() {
+        return maxWaitNanos.get() / 1_000_000.0;
+    }
+
+    /**
+     * Calculates the average time a hash took to run.
+     *
+     * @return The average run time in milliseconds, or 0 if no hash ran.
+     */
+    public double getAverageRunMillis() {
+        long completed = completedTasks.sum();
+        return completed == 0 ? 0 : totalRunNanos.sum() / 1_000_000.0 / completed;
+    }
+}
@@ -0,0 +1,89 @@
+package andre.chamis.healthproject.service;
+
+import andre.chamis.healthproject.exception.TooManyRequestsException;
+import andre.chamis.healthproject.infra.ratelimit.RateLimitKey;
+import andre.chamis.healthproject.infra.ratelimit.TokenBucketRateLimiter;
+import andre.chamis.healthproject.infra.request.response.ErrorMessage;
+import andre.chamis.healthproject.properties.RateLimitProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Service class that throttles the endpoints annotated with
+ * {@link andre.chamis.healthproject.domain.auth.annotation.RateLimited}, keeping one
+ * {@link TokenBucketRateLimiter} per endpoint and {@link RateLimitKey}, as configured on
+ * {@link RateLimitProperties#getEndpoints()}.
+ */
+@Slf4j
+@Service
+public class RateLimitService {
+    private final Map<String, Map<RateLimitKey, TokenBucketRateLimiter>> limitersByEndpoint;
+
+    public RateLimitService(RateLimitProperties rateLimitProperties) {
+        Map<String, Map<RateLimitKey, TokenBucketRateLimiter>> limiters = new HashMap<>();
+        rateLimitProperties.getEndpoints().forEach((endpoint, endpointLimits) -> {
+            Map<RateLimitKey, RateLimitProperties.Limit> limits = new EnumMap<>(RateLimitKey.class);
+            limits.put(RateLimitKey.EMAIL, endpointLimits.getEmail());
+            limits.put(RateLimitKey.CLIENT_KEY, endpointLimits.getClientKey());
+            limits.put(RateLimitKey.REMOTE_ADDRESS, endpointLimits.getRemoteAddress());
+
+            Map<RateLimitKey, TokenBucketRateLimiter> endpointLimiters = new EnumMap<>(RateLimitKey.class);
+            limits.forEach((key, limit) -> {
+                if (limit != null) {
+                    endpointLimiters.put(key, new TokenBucketRateLimiter(
+                            limit.getCapacity(),
+                            limit.getPeriod(),
+                            rateLimitProperties.getMaxKeys()
+                    ));
+                }
+            });
+            limiters.put(endpoint, Collections.unmodifiableMap(endpointLimiters));
+        });
+        this.limitersByEndpoint = Collections.unmodifiableMap(limiters);
+    }
+
+    /**
+     * Takes a token for a request to an endpoint. Does nothing if the endpoint is not limited by this key, or if the
+     * request has no value for it.
+     *
+     * @param endpoint The name of the endpoint.
+     * @param key      The attribute the request is throttled by.
+     * @param value    The value of that attribute on the request.
+     * @throws TooManyRequestsException If the limit was exceeded.
+     */
+    public void checkLimit(String endpoint, RateLimitKey key, String value) {
+        if (value == null || value.isBlank()) {
+            return;
+        }
+
+        TokenBucketRateLimiter limiter = limitersByEndpoint.getOrDefault(endpoint, Map.of()).get(key);
+        if (limiter != null && !limiter.tryAcquire(value)) {
+            log.warn("Rate limit of endpoint [{}] by [{}] exceeded", endpoint, key);
+            throw new TooManyRequestsException(ErrorMessage.TOO_MANY_REQUESTS);
+        }
+    }
+
+    /**
+     * Drops the buckets that are full again from every limiter.
+     *
+     * @return The number of buckets dropped.
+     */
+    public int evictIdleBuckets() {
+        return limitersByEndpoint.values().stream()
+                .flatMap(limiters -> limiters.values().stream())
+                .mapToInt(TokenBucketRateLimiter::evictIdle)
+                .sum();
+    }
+
+    /**
+     * @return The limiters of each endpoint, by the key they throttle.
+     */
+    public Map<String, Map<RateLimitKey, TokenBucketRateLimiter>> getLimitersByEndpoint() {
+        return limitersByEndpoint;
+    }
+}
@@ -1,43 +1,55 @@
 package andre.chamis.healthproject.service;
 
 import andre.chamis.healthproject.domain.auth.model.RefreshTokenEntity;
+import andre.chamis.healthproject.domain.auth.model.TokenClaims;
 import andre.chamis.healthproject.domain.auth.repository.RefreshTokenEntityRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
+import java.util.Date;
+
 /**
  * Service class responsible for managing refresh tokens.
  */
 @Service
 @RequiredArgsConstructor
 public class RefreshTokenService {
-    private final JwtService jwtService;
     private final RefreshTokenEntityRepository refreshTokenEntityRepository;
 
     /**
      * Saves a refresh token to the database.
      *
-     * @param refreshToken The refresh token to be saved.
+     * @param refreshTokenClaims The claims of the refresh token to be saved.
      */
-    public void saveTokenToDatabase(String refreshToken){
+    public void saveTokenToDatabase(TokenClaims refreshTokenClaims){
         RefreshTokenEntity refreshTokenEntity = new RefreshTokenEntity();
 
-        refreshTokenEntity.setToken(refreshToken);
-        refreshTokenEntity.setUsername(jwtService.getTokenSubject(refreshToken));
-        refreshTokenEntity.setCreateDt(jwtService.getTokenIssuedAt(refreshToken));
-        refreshTokenEntity.setExpireDt(jwtService.getTokenExpiresAt(refreshToken));
+        refreshTokenEntity.setTokenDigest(RefreshTokenEntityRepository.digest(refreshTokenClaims.token()));
+        refreshTokenEntity.setUsername(refreshTokenClaims.subject());
+        refreshTokenEntity.setCreateDt(Date.from(refreshTokenClaims.issuedAt()));
+        refreshTokenEntity.setExpireDt(Date.from(refreshTokenClaims.expiresAt()));
 
         refreshTokenEntityRepository.save(refreshTokenEntity);
     }
 
     /**
-     * Checks if a refresh token exists in the database.
+     * Checks if a refresh token exists in the database. Tokens that were never issued are usually answered from
+     * memory.
      *
-     * @param token The refresh token to check.
+     * @param refreshTokenClaims The verified claims of the refresh token to check.
      * @return True if the token exists, otherwise false.
      */
-    public boolean existsOnDatabase(String token){
-        return refreshTokenEntityRepository.existsByToken(token);
+    public boolean existsOnDatabase(TokenClaims refreshTokenClaims){
+        return refreshTokenEntityRepository.existsByToken(refreshTokenClaims.token(), refreshTokenClaims.issuedAt());
+    }
+
+    /**
+     * Rebuilds the filter of issued refresh tokens from the database, dropping deleted tokens.
+     *
+     * @return The number of tokens in the rebuilt filter.
+     */
+    public int refreshIssuedTokenFilter() {
+        return refreshTokenEntityRepository.refreshIssuedTokenFilter();
     }
 
     /**
@@ -44,6 +44,24 @@ public class SessionService {
         return sessionRepository.save(session);
     }
 
+    /**
+     * Caches a session created by a committed transaction, see {@link SessionRepository#cacheCreatedSession}.
+     *
+     * @param session The created session.
+     */
+    public void cacheCreatedSession(Session session) {
+        sessionRepository.cacheCreatedSession(session);
+    }
+
+    /**
+     * Loads the unexpired sessions into the in-memory cache.
+     *
+     * @return The number of sessions loaded into the cache.
+     */
+    public int warmUpCache() {
+        return sessionRepository.warmUpCache();
+    }
+
     /**
      * Deletes all expired sessions.
      *
@@ -61,7 +79,7 @@ public class SessionService {
      * @return An optional containing the retrieved session, if found.
      */
     public Optional<Session> findSessionById(Long sessionId) {
-        log.info("Searching for session with id [{}]", sessionId);
+        log.debug("Searching for session with id [{}]", sessionId);
         return sessionRepository.findById(sessionId);
     }
 
@@ -73,12 +91,51 @@ public class SessionService {
      * @return True if the session is not expired, otherwise false.
      */
     public boolean validateSessionIsNotExpired(Session session) {
-        log.info("Validating if session is expired. Session expired date [{}]. Current Date [{}]",
-                session.getExpireDt(), Date.from(Instant.now())
-        );
+        log.debug("Validating if session is expired. Session expired date [{}]", session.getExpireDt());
         return DateUtils.isDateInFuture(session.getExpireDt());
     }
 
+    /**
+     * With sliding sessions, records that a session was used, so its expiration is extended by the next
+     * {@link #flushLastSeen()}. Only records it when the extension would be at least one flush interval, so a session
+     * is written at most once per interval however often it is used.
+     *
+     * @param sessionId The ID of the session.
+     * @param expiresAt When the session is currently known to expire.
+     */
+    public void recordActivity(Long sessionId, Instant expiresAt) {
+        if (!sessionProperties.isSliding()) {
+            return;
+        }
+
+        Instant now = Instant.now();
+        Instant slidingExpiresAt = now.plus(sessionProperties.getDuration(), sessionProperties.getUnit());
+        if (expiresAt.plus(sessionProperties.getLastSeenFlushInterval()).isAfter(slidingExpiresAt)) {
+            return;
+        }
+
+        sessionRepository.recordLastSeen(sessionId, now);
+    }
+
+    /**
+     * Writes the pending last-seen times of used sessions, extending their expiration.
+     *
+     * @return The number of sessions extended.
+     */
+    public int flushLastSeen() {
+        return sessionRepository.flushLastSeen();
+    }
+
+    /**
+     * Checks whether a session was deleted, without loading it. Used to authorize stateless access tokens.
+     *
+     * @param sessionId The ID of the session.
+     * @return True if the session was revoked, otherwise false.
+     */
+    public boolean isSessionRevoked(Long sessionId) {
+        return sessionRepository.isRevoked(sessionId);
+    }
+
     /**
      * Deletes the current session.
      */
@@ -1,5 +1,6 @@
 package andre.chamis.healthproject.service;
 
+import andre.chamis.healthproject.context.PrincipalSnapshot;
 import andre.chamis.healthproject.domain.payment.dto.CreateBillingPortalSessionRequest;
 import andre.chamis.healthproject.domain.payment.dto.CreateBillingPortalSessionResponse;
 import andre.chamis.healthproject.domain.payment.dto.CreateCheckoutSessionRequest;
@@ -100,10 +101,10 @@ public class StripeService {
      * @throws StripeException If an error occurs during the Stripe API call.
      */
     public CreateBillingPortalSessionResponse createBillingPortalSession(CreateBillingPortalSessionRequest createBillingPortalSessionRequest) throws StripeException {
-        User user = userService.findCurrentUser();
+        PrincipalSnapshot principal = userService.findCurrentPrincipal();
         var params = new com.stripe.param.billingportal.SessionCreateParams.Builder()
                 .setReturnUrl(createBillingPortalSessionRequest.returnUrl())
-                .setCustomer(user.getStripeClientId())
+                .setCustomer(principal.stripeClientId())
                 .build();
 
         var session = com.stripe.model.billingportal.Session.create(params);
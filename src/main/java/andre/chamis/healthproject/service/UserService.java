@@ -1,5 +1,6 @@
 package andre.chamis.healthproject.service;
 
+import andre.chamis.healthproject.context.PrincipalSnapshot;
 import andre.chamis.healthproject.context.ServiceContext;
 import andre.chamis.healthproject.domain.health.attendance.dto.GetAttendanceDTO;
 import andre.chamis.healthproject.domain.health.collaborator.dto.CreateCollaboratorDTO;
@@ -13,6 +14,8 @@ import andre.chamis.healthproject.domain.user.repository.UserRepository;
 import andre.chamis.healthproject.exception.BadArgumentException;
 import andre.chamis.healthproject.exception.ForbiddenException;
 import andre.chamis.healthproject.exception.InternalServerException;
+import andre.chamis.healthproject.exception.ServiceUnavailableException;
+import andre.chamis.healthproject.exception.TooManyRequestsException;
 import andre.chamis.healthproject.exception.ValidationException;
 import andre.chamis.healthproject.infra.request.request.PaginationInfo;
 import andre.chamis.healthproject.infra.request.response.ErrorMessage;
@@ -25,7 +28,6 @@ import com.stripe.param.CustomerUpdateParams;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.util.Date;
@@ -47,9 +49,9 @@ public class UserService {
     private final UserSubscriptionService subscriptionService;
     private final AttendanceService attendanceService;
     private final CollaboratorService collaboratorService;
+    private final PasswordHashingService passwordHashingService;
 
     private final int OTP_LENGTH = 6;
-    private final BCryptPasswordEncoder bCryptPasswordEncoder = new BCryptPasswordEncoder();
 
 
     /**
@@ -122,7 +124,7 @@ public class UserService {
 
             log.debug("User instantiated [{}]", user);
 
-            String otp = user.setOtp(OTP_LENGTH);
+            String otp = user.setOtp(OTP_LENGTH, passwordHashingService::hash);
 
             log.debug("Generated OTP for user [{}]", user.getEmail());
 
@@ -154,6 +156,8 @@ public class UserService {
      * @param loginDTO The DTO containing user login credentials.
      * @return An optional User object if credentials are valid, otherwise empty.
      * @throws ForbiddenException If the user's registration is incomplete or payment is overdue.
+     * @throws TooManyRequestsException If too many passwords are waiting to be checked.
+     * @throws ServiceUnavailableException If the password could not be checked in time.
      */
     public Optional<User> validateUserCredential(LoginDTO loginDTO) {
         Optional<User> userOptional = userRepository.findUserByEmail(loginDTO.email());
@@ -163,7 +167,7 @@ public class UserService {
         }
         User user = userOptional.get();
 
-        boolean isPasswordCorrect = bCryptPasswordEncoder.matches(loginDTO.password(), user.getPassword());
+        boolean isPasswordCorrect = passwordHashingService.matches(loginDTO.password(), user.getPassword());
 
         return isPasswordCorrect ? Optional.of(user) : Optional.empty();
     }
@@ -178,9 +182,25 @@ public class UserService {
         log.debug("Attempting to find currentUser");
         Long currentUserId = ServiceContext.getContext().getUserId();
         log.debug("Current user id [{}]", currentUserId);
-        Optional<User> userOptional = findUserById(currentUserId);
-        log.info("Found [{}]", userOptional);
-        return userOptional.orElseThrow(ForbiddenException::new);
+        return findUserById(currentUserId).orElseThrow(ForbiddenException::new);
+    }
+
+    /**
+     * Retrieves the snapshot of the current user taken when the request was authenticated, loading and keeping it
+     * if it wasn't taken yet.
+     *
+     * @return The snapshot of the currently logged-in user.
+     * @throws ForbiddenException If there is no current user.
+     */
+    public PrincipalSnapshot findCurrentPrincipal() {
+        ServiceContext context = ServiceContext.getContext();
+        PrincipalSnapshot principal = context.getPrincipal();
+        if (principal == null || !principal.userId().equals(context.getUserId())) {
+            principal = PrincipalSnapshot.fromUser(findCurrentUser());
+            context.setPrincipal(principal);
+        }
+
+        return principal;
     }
 
     /**
@@ -190,7 +210,7 @@ public class UserService {
      * @return An optional User object with the given ID, otherwise empty.
      */
     public Optional<User> findUserById(Long userId) {
-        log.info("Searching for user with id [{}]", userId);
+        log.debug("Searching for user with id [{}]", userId);
         Optional<User> user = userRepository.findById(userId);
         log.debug("Got result from userFindById [{}]", user);
         return user;
@@ -210,14 +230,19 @@ public class UserService {
     }
 
     /**
-     * Retrieves user information by ID, or the current user if no ID is provided.
+     * Retrieves user information by ID, or the current user, from the snapshot taken on authentication, if no ID is
+     * provided.
      *
      * @param userIdOptional Optional ID of the user to retrieve information for.
      * @return A DTO representing the user's information.
      * @throws BadArgumentException If the user is not found.
      */
     public GetUserDTO getUserById(Optional<Long> userIdOptional) {
-        Long userId = userIdOptional.orElse(ServiceContext.getContext().getUserId());
+        if (userIdOptional.isEmpty()) {
+            return GetUserDTO.fromPrincipal(findCurrentPrincipal());
+        }
+
+        Long userId = userIdOptional.get();
         log.info("Getting user with id [{}]", userId);
         User user = getUserById(userId);
         log.debug("Found user [{}]", user);
@@ -250,7 +275,11 @@ public class UserService {
             }
 
             if (updateUserDTO.password() != null && !updateUserDTO.password().isBlank()) {
-                user.setPassword(updateUserDTO.password(), updateUserDTO.confirmPassword());
+                user.setPassword(
+                        updateUserDTO.password(),
+                        updateUserDTO.confirmPassword(),
+                        passwordHashingService::hash
+                );
                 updated = true;
                 needsReAuthentication = true;
                 log.debug("User [{}] updated password", user.getEmail());
@@ -316,7 +345,7 @@ public class UserService {
 
             log.info("Attempting to complete registration for user [{}] with payload [{}]", user.getUserId(), completeRegistrationDTO);
 
-            user.completeRegistration(completeRegistrationDTO);
+            user.completeRegistration(completeRegistrationDTO, passwordHashingService::hash);
 
             String username = user.getUsername();
             sessionService.deleteCurrentSession();
@@ -380,7 +409,8 @@ public class UserService {
 
         users.forEach(user -> {
             log.info("Updated password for user [{}]", user.getEmail());
-            String newOTP = user.setOtp(OTP_LENGTH);
+            // Hashed on the scheduler thread, so the job neither competes with logins nor stops on a busy queue
+            String newOTP = user.setOtp(OTP_LENGTH, passwordHashingService::hashOnCallerThread);
 
             userRepository.save(user);
 
@@ -616,4 +646,13 @@ public class UserService {
 
         return userRepository.existsByEmail(email);
     }
+
+    /**
+     * Rebuilds the filter used to reject emails that are not registered, dropping the emails of deleted users.
+     *
+     * @return The number of emails in the rebuilt filter.
+     */
+    public int refreshEmailFilter() {
+        return userRepository.refreshEmailFilter();
+    }
 }
@@ -0,0 +1,74 @@
+package andre.chamis.healthproject;
+
+import andre.chamis.healthproject.cache.LongKeyedInMemoryCache;
+import andre.chamis.healthproject.cache.invalidation.CacheInvalidationBus;
+import andre.chamis.healthproject.cache.invalidation.LoopbackCacheInvalidationChannel;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CacheInvalidationBusTest {
+
+    private record Entry(long key, String value) {
+    }
+
+    private static class EntryCache extends LongKeyedInMemoryCache<Entry> {
+        EntryCache() {
+            super(Entry::key, -1, entry -> null);
+        }
+    }
+
+    private static EntryCache connectedCache(LoopbackCacheInvalidationChannel channel) {
+        EntryCache cache = new EntryCache();
+        new CacheInvalidationBus(channel, List.of(cache)).connectCaches();
+        return cache;
+    }
+
+    @Test
+    public void Should_Drop_Entry_On_Other_Instances_When_Entry_Is_Written() {
+        LoopbackCacheInvalidationChannel channel = new LoopbackCacheInvalidationChannel();
+        EntryCache firstInstance = connectedCache(channel);
+        EntryCache secondInstance = connectedCache(channel);
+        secondInstance.getOrLoad(1L, key -> Optional.of(new Entry(key, "old")));
+
+        firstInstance.put(new Entry(1L, "new"));
+
+        assertEquals("new", firstInstance.getIfPresent(1L).value());
+        assertNull(secondInstance.getIfPresent(1L));
+    }
+
+    @Test
+    public void Should_Not_Publish_When_Entry_Is_Loaded() {
+        LoopbackCacheInvalidationChannel channel = new LoopbackCacheInvalidationChannel();
+        EntryCache firstInstance = connectedCache(channel);
+        EntryCache secondInstance = connectedCache(channel);
+        secondInstance.put(new Entry(1L, "value"));
+
+        firstInstance.getOrLoad(1L, key -> Optional.of(new Entry(key, "value")));
+
+        assertNotNull(secondInstance.getIfPresent(1L));
+    }
+
+    @Test
+    public void Should_Deliver_Notices_To_Listeners_Of_Other_Instances() {
+        LoopbackCacheInvalidationChannel channel = new LoopbackCacheInvalidationChannel();
+        CacheInvalidationBus firstInstance = new CacheInvalidationBus(channel, List.of());
+        CacheInvalidationBus secondInstance = new CacheInvalidationBus(channel, List.of());
+        firstInstance.connectCaches();
+        secondInstance.connectCaches();
+        List<String> firstInstanceNotices = new ArrayList<>();
+        List<String> secondInstanceNotices = new ArrayList<>();
+        firstInstance.subscribe("Revocations", firstInstanceNotices::add);
+        secondInstance.subscribe("Revocations", secondInstanceNotices::add);
+
+        firstInstance.publish("Revocations", "1");
+
+        assertEquals(List.of(), firstInstanceNotices);
+        assertEquals(List.of("1"), secondInstanceNotices);
+        assertEquals(0, secondInstance.getUnknownCacheMessages());
+    }
+}
@@ -0,0 +1,147 @@
+package andre.chamis.healthproject;
+
+import andre.chamis.healthproject.exception.ServiceUnavailableException;
+import andre.chamis.healthproject.infra.persistence.GroupCommitExecutor;
+import andre.chamis.healthproject.properties.GroupCommitProperties;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GroupCommitExecutorTest {
+
+    private static class CountingTransactionManager implements PlatformTransactionManager {
+        private final AtomicInteger commits = new AtomicInteger();
+        private final AtomicInteger rollbacks = new AtomicInteger();
+
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            return new SimpleTransactionStatus();
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {
+            commits.incrementAndGet();
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) {
+            rollbacks.incrementAndGet();
+        }
+    }
+
+    private static GroupCommitExecutor createExecutor(PlatformTransactionManager transactionManager) {
+        return createExecutor(new GroupCommitProperties(), transactionManager);
+    }
+
+    private static GroupCommitExecutor createExecutor(
+            GroupCommitProperties groupCommitProperties,
+            PlatformTransactionManager transactionManager
+    ) {
+        GroupCommitExecutor executor = new GroupCommitExecutor(groupCommitProperties, transactionManager);
+        executor.start();
+        return executor;
+    }
+
+    private static CompletableFuture<Integer> executeBlockingWrite(
+            GroupCommitExecutor executor,
+            CountDownLatch started,
+            CountDownLatch release
+    ) throws InterruptedException {
+        CompletableFuture<Integer> write = CompletableFuture.supplyAsync(() -> executor.execute(() -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return 0;
+        }));
+        started.await();
+        return write;
+    }
+
+    @Test
+    public void Should_Commit_Writes_Queued_During_A_Commit_Together() throws Exception {
+        CountingTransactionManager transactionManager = new CountingTransactionManager();
+        GroupCommitExecutor executor = createExecutor(transactionManager);
+
+        CountDownLatch releaseFirstWrite = new CountDownLatch(1);
+        CompletableFuture<Integer> first = executeBlockingWrite(executor, new CountDownLatch(1), releaseFirstWrite);
+
+        List<CompletableFuture<Integer>> queued = new ArrayList<>();
+        for (int i = 1; i <= 10; i++) {
+            int value = i;
+            queued.add(CompletableFuture.supplyAsync(() -> executor.execute(() -> value)));
+        }
+        while (executor.getQueueDepth() < 10) {
+            Thread.sleep(1);
+        }
+        releaseFirstWrite.countDown();
+
+        assertEquals(0, first.get());
+        for (int i = 0; i < queued.size(); i++) {
+            assertEquals(i + 1, queued.get(i).get());
+        }
+        assertEquals(2, transactionManager.commits.get());
+        assertEquals(11, executor.getCommittedWrites());
+    }
+
+    @Test
+    public void Should_Fail_Only_The_Failing_Write_When_A_Batch_Fails() throws Exception {
+        CountingTransactionManager transactionManager = new CountingTransactionManager();
+        GroupCommitExecutor executor = createExecutor(transactionManager);
+
+        CountDownLatch releaseFirstWrite = new CountDownLatch(1);
+        CompletableFuture<Integer> first = executeBlockingWrite(executor, new CountDownLatch(1), releaseFirstWrite);
+
+        CompletableFuture<Integer> healthy = CompletableFuture.supplyAsync(() -> executor.execute(() -> 1));
+        CompletableFuture<Integer> failing = CompletableFuture.supplyAsync(() -> executor.execute(() -> {
+            throw new IllegalStateException("failing write");
+        }));
+        while (executor.getQueueDepth() < 2) {
+            Thread.sleep(1);
+        }
+        releaseFirstWrite.countDown();
+
+        assertEquals(0, first.get());
+        assertEquals(1, healthy.get());
+        Exception exception = assertThrows(Exception.class, failing::get);
+        assertInstanceOf(IllegalStateException.class, exception.getCause());
+        assertEquals(1, executor.getFailedBatches());
+        assertEquals(2, transactionManager.commits.get());
+        assertEquals(2, transactionManager.rollbacks.get());
+    }
+
+    @Test
+    public void Should_Not_Hang_Callers_When_Writer_Stalls() throws Exception {
+        CountingTransactionManager transactionManager = new CountingTransactionManager();
+        GroupCommitProperties groupCommitProperties = new GroupCommitProperties();
+        groupCommitProperties.setMaxWait(Duration.ofMillis(200));
+        GroupCommitExecutor executor = createExecutor(groupCommitProperties, transactionManager);
+
+        CountDownLatch releaseFirstWrite = new CountDownLatch(1);
+        CompletableFuture<Integer> stalled = executeBlockingWrite(executor, new CountDownLatch(1), releaseFirstWrite);
+
+        // Still queued behind the stalled write, so it is committed on the calling thread instead
+        assertEquals(1, executor.execute(() -> 1));
+        assertEquals(0, executor.getQueueDepth());
+
+        // Already taken by the writer, so the caller gives up
+        Exception exception = assertThrows(Exception.class, stalled::get);
+        assertInstanceOf(ServiceUnavailableException.class, exception.getCause());
+        assertEquals(2, executor.getTimedOutWrites());
+
+        releaseFirstWrite.countDown();
+    }
+}
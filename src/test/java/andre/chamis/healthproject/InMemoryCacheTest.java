@@ -0,0 +1,149 @@
+package andre.chamis.healthproject;
+
+import andre.chamis.healthproject.cache.InMemoryCache;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InMemoryCacheTest {
+
+    private record Entry(String key, Instant expiresAt) {
+    }
+
+    private static class EntryCache extends InMemoryCache<String, Entry> {
+        EntryCache(int maxSize) {
+            super(Entry::key, maxSize, Entry::expiresAt);
+        }
+    }
+
+    private static Entry entry(String key) {
+        return new Entry(key, null);
+    }
+
+    @Test
+    public void Should_Evict_Least_Recently_Used_Entry_When_Max_Size_Is_Reached() {
+        EntryCache cache = new EntryCache(2);
+
+        cache.put(entry("a"));
+        cache.put(entry("b"));
+        cache.get("a");
+        cache.put(entry("c"));
+
+        assertEquals(2, cache.getSize());
+        assertTrue(cache.containsKey("a"));
+        assertFalse(cache.containsKey("b"));
+        assertTrue(cache.containsKey("c"));
+    }
+
+    @Test
+    public void Should_Not_Return_Expired_Entries() {
+        EntryCache cache = new EntryCache(InMemoryCache.UNBOUNDED);
+
+        cache.put(new Entry("expired", Instant.now().minusSeconds(1)));
+        cache.put(new Entry("valid", Instant.now().plusSeconds(60)));
+
+        assertTrue(cache.get("expired").isEmpty());
+        assertTrue(cache.get("valid").isPresent());
+        assertEquals(1, cache.getSize());
+    }
+
+    @Test
+    public void Should_Remove_Expired_Entries_When_Evicting_Expired() {
+        EntryCache cache = new EntryCache(InMemoryCache.UNBOUNDED);
+
+        cache.put(new Entry("expired", Instant.now().minusSeconds(1)));
+        cache.put(entry("forever"));
+
+        assertEquals(1, cache.evictExpired());
+        assertEquals(1, cache.getSize());
+    }
+
+    @Test
+    public void Should_Skip_Expired_Values_When_Adding_Multiple() {
+        EntryCache cache = new EntryCache(InMemoryCache.UNBOUNDED);
+
+        cache.initializeCache(List.of(
+                new Entry("expired", Instant.now().minusSeconds(1)),
+                entry("valid")
+        ));
+
+        assertEquals(1, cache.getSize());
+        assertTrue(cache.containsKey("valid"));
+    }
+
+    @Test
+    public void Should_Record_Hits_Misses_And_Loads_When_Loading_Through_Cache() {
+        EntryCache cache = new EntryCache(1);
+
+        cache.getOrLoad("a", key -> Optional.of(entry(key)));
+        cache.getOrLoad("a", key -> Optional.of(entry(key)));
+        cache.getOrLoad("b", key -> Optional.empty());
+        cache.put(entry("c"));
+
+        assertEquals(1, cache.getStatistics().getHits());
+        assertEquals(2, cache.getStatistics().getMisses());
+        assertEquals(2, cache.getStatistics().getLoads());
+        assertEquals(1, cache.getStatistics().getEvictions());
+        assertFalse(cache.containsKey("b"));
+    }
+
+    @Test
+    public void Should_Share_One_Load_When_Concurrent_Misses_Hit_The_Same_Key() throws Exception {
+        EntryCache cache = new EntryCache(-1);
+        AtomicInteger loaderCalls = new AtomicInteger();
+        CountDownLatch loaderStarted = new CountDownLatch(1);
+        CountDownLatch releaseLoader = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        try {
+            List<Future<Optional<Entry>>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> cache.getOrLoad("a", key -> {
+                    loaderCalls.incrementAndGet();
+                    loaderStarted.countDown();
+                    try {
+                        releaseLoader.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return Optional.of(entry(key));
+                })));
+            }
+
+            loaderStarted.await();
+            Thread.sleep(100);
+            releaseLoader.countDown();
+            for (Future<Optional<Entry>> result : results) {
+                assertTrue(result.get().isPresent());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, loaderCalls.get());
+        assertTrue(cache.containsKey("a"));
+    }
+
+    @Test
+    public void Should_Not_Store_Loaded_Value_When_Key_Is_Removed_During_Load() {
+        EntryCache cache = new EntryCache(-1);
+
+        Optional<Entry> loaded = cache.getOrLoad("a", key -> {
+            cache.remove(key);
+            return Optional.of(entry(key));
+        });
+
+        assertTrue(loaded.isPresent());
+        assertFalse(cache.containsKey("a"));
+    }
+}
@@ -0,0 +1,42 @@
+package andre.chamis.healthproject;
+
+import andre.chamis.healthproject.infra.metrics.LatencyHistogram;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void Should_Report_Percentiles_Within_Bucket_Error_When_Latencies_Recorded() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long millis = 1; millis <= 1_000; millis++) {
+            histogram.record(TimeUnit.MILLISECONDS.toNanos(millis));
+        }
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(1_000, snapshot.getCount());
+        assertEquals(1_000_000, snapshot.getMaxMicros());
+        for (double percentile : new double[]{50, 90, 99}) {
+            long exactMicros = (long) (percentile * 10_000);
+            long reportedMicros = snapshot.getPercentileMicros(percentile);
+            assertTrue(reportedMicros >= exactMicros, "p" + percentile + " below exact value");
+            assertTrue(reportedMicros <= exactMicros * 1.0625, "p" + percentile + " above bucket error");
+        }
+    }
+
+    @Test
+    public void Should_Start_New_Interval_When_Snapshot_Resets() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(TimeUnit.MILLISECONDS.toNanos(100));
+
+        assertEquals(1, histogram.snapshotAndReset().getCount());
+
+        histogram.record(TimeUnit.MILLISECONDS.toNanos(2));
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(1, snapshot.getCount());
+        assertEquals(2_000, snapshot.getMaxMicros());
+    }
+}
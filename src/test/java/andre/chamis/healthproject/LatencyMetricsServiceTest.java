@@ -0,0 +1,44 @@
+package andre.chamis.healthproject;
+
+import andre.chamis.healthproject.infra.metrics.LatencyHistogram;
+import andre.chamis.healthproject.service.LatencyMetricsService;
+import andre.chamis.healthproject.service.LatencyMetricsService.RouteKey;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LatencyMetricsServiceTest {
+
+    @Test
+    public void Should_Keep_A_Histogram_Per_Method_And_Status_When_Recording_A_Route() {
+        LatencyMetricsService service = new LatencyMetricsService();
+        service.recordLatency("GET", "/user/patient", 200, 1_000_000);
+        service.recordLatency("GET", "/user/patient", 200, 2_000_000);
+        service.recordLatency("POST", "/user/patient", 200, 3_000_000);
+        service.recordLatency("GET", "/user/patient", 404, 4_000_000);
+        service.recordLatency("GET", null, 404, 5_000_000);
+
+        Map<RouteKey, LatencyHistogram.Snapshot> snapshots = service.getSnapshots(false);
+
+        assertEquals(4, snapshots.size());
+        assertEquals(2, snapshots.get(new RouteKey("GET", "/user/patient", 200)).getCount());
+        assertEquals(1, snapshots.get(new RouteKey("POST", "/user/patient", 200)).getCount());
+        assertEquals(1, snapshots.get(new RouteKey("GET", "/user/patient", 404)).getCount());
+        assertEquals(1, snapshots.get(new RouteKey("GET", "unmatched", 404)).getCount());
+    }
+
+    @Test
+    public void Should_Share_The_Other_Route_When_Too_Many_Histograms_Exist() {
+        LatencyMetricsService service = new LatencyMetricsService();
+        for (int i = 0; i < 2_000; i++) {
+            service.recordLatency("GET", "/route/" + i, 200, 1_000_000);
+        }
+
+        Map<RouteKey, LatencyHistogram.Snapshot> snapshots = service.getSnapshots(false);
+
+        assertEquals(1_025, snapshots.size());
+        assertEquals(2_000 - 1_024, snapshots.get(new RouteKey("other", "other", 200)).getCount());
+    }
+}
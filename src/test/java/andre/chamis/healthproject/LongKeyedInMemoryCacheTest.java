@@ -0,0 +1,148 @@
+package andre.chamis.healthproject;
+
+import andre.chamis.healthproject.cache.LongKeyedInMemoryCache;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LongKeyedInMemoryCacheTest {
+
+    private record Entry(long key, Instant expiresAt) {
+    }
+
+    private static class EntryCache extends LongKeyedInMemoryCache<Entry> {
+        EntryCache(int maxSize) {
+            super(Entry::key, maxSize, Entry::expiresAt);
+        }
+    }
+
+    @Test
+    public void Should_Behave_Like_A_Map_When_Putting_And_Removing_Random_Keys() {
+        EntryCache cache = new EntryCache(-1);
+        Map<Long, Entry> expected = new HashMap<>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 200_000; i++) {
+            long key = random.nextInt(5_000);
+            if (random.nextInt(3) == 0) {
+                cache.remove(key);
+                expected.remove(key);
+            } else {
+                Entry entry = new Entry(key, null);
+                cache.put(entry);
+                expected.put(key, entry);
+            }
+        }
+
+        assertEquals(expected.size(), cache.getSize());
+        for (long key = 0; key < 5_000; key++) {
+            assertSame(expected.get(key), cache.getIfPresent(key));
+        }
+    }
+
+    @Test
+    public void Should_Not_Exceed_Max_Size_When_Bounded() {
+        EntryCache cache = new EntryCache(1_000);
+
+        for (long key = 0; key < 10_000; key++) {
+            cache.put(new Entry(key, null));
+        }
+
+        assertTrue(cache.getSize() <= 1_000);
+        assertTrue(cache.getSize() > 900);
+    }
+
+    @Test
+    public void Should_Not_Exceed_Max_Size_When_Smaller_Than_Segment_Count() {
+        EntryCache cache = new EntryCache(5);
+
+        for (long key = 0; key < 1_000; key++) {
+            cache.put(new Entry(key, null));
+        }
+
+        assertTrue(cache.getSize() <= 5);
+        assertTrue(cache.getSize() > 0);
+    }
+
+    @Test
+    public void Should_Keep_Recently_Read_Entries_When_Evicting() {
+        EntryCache cache = new EntryCache(16 * 8);
+
+        for (long key = 0; key < 16 * 8; key++) {
+            cache.put(new Entry(key, null));
+        }
+
+        cache.getIfPresent(7L);
+        for (long key = 1_000; key < 1_000 + 16 * 4; key++) {
+            cache.put(new Entry(key, null));
+        }
+
+        assertTrue(cache.containsKey(7L));
+    }
+
+    @Test
+    public void Should_Not_Return_Expired_Entries() {
+        EntryCache cache = new EntryCache(-1);
+
+        cache.put(new Entry(1L, Instant.now().minusSeconds(1)));
+        cache.put(new Entry(2L, Instant.now().plusSeconds(60)));
+
+        assertNull(cache.getIfPresent(1L));
+        assertTrue(cache.get(2L).isPresent());
+        assertEquals(1, cache.evictExpired());
+        assertEquals(1, cache.getSize());
+    }
+
+    @Test
+    public void Should_Replace_Content_When_Initializing() {
+        EntryCache cache = new EntryCache(-1);
+        cache.put(new Entry(1L, null));
+
+        cache.initializeCache(List.of(new Entry(2L, null), new Entry(3L, Instant.now().minusSeconds(1))));
+
+        assertFalse(cache.containsKey(1L));
+        assertTrue(cache.containsKey(2L));
+        assertEquals(1, cache.getSize());
+    }
+
+    @Test
+    public void Should_Not_Store_Loaded_Value_When_Key_Is_Written_During_Load() {
+        EntryCache cache = new EntryCache(-1);
+        Entry staleEntry = new Entry(1, null);
+        Entry newEntry = new Entry(1, null);
+
+        Optional<Entry> loaded = cache.loadAndStore(() -> {
+            cache.put(newEntry);
+            return Optional.of(staleEntry);
+        });
+
+        assertSame(staleEntry, loaded.orElseThrow());
+        assertSame(newEntry, cache.getIfPresent(1));
+
+        Entry otherEntry = new Entry(2, null);
+        cache.loadAndStore(() -> Optional.of(otherEntry));
+        assertSame(otherEntry, cache.getIfPresent(2));
+    }
+
+    @Test
+    public void Should_Store_Loaded_Value_When_Other_Keys_Are_Written_During_Load() {
+        EntryCache cache = new EntryCache(-1);
+        Entry loadedEntry = new Entry(1, null);
+
+        cache.loadAndStore(() -> {
+            for (long key = 100; key < 150; key++) {
+                cache.put(new Entry(key, null));
+            }
+            return Optional.of(loadedEntry);
+        });
+
+        assertSame(loadedEntry, cache.getIfPresent(1));
+    }
+}
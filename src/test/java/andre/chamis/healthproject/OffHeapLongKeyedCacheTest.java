@@ -0,0 +1,140 @@
+package andre.chamis.healthproject;
+
+import andre.chamis.healthproject.cache.FixedWidthCodec;
+import andre.chamis.healthproject.cache.OffHeapLongKeyedCache;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OffHeapLongKeyedCacheTest {
+
+    private record Entry(long key, long value, Instant expiresAt) {
+    }
+
+    private static class EntryCodec implements FixedWidthCodec<Entry> {
+        @Override
+        public int width() {
+            return Long.BYTES;
+        }
+
+        @Override
+        public void write(Entry entry, ByteBuffer buffer, int offset) {
+            buffer.putLong(offset, entry.value());
+        }
+
+        @Override
+        public Entry read(long key, long expiresAtMillis, ByteBuffer buffer, int offset) {
+            Instant expiresAt = expiresAtMillis == Long.MAX_VALUE ? null : Instant.ofEpochMilli(expiresAtMillis);
+            return new Entry(key, buffer.getLong(offset), expiresAt);
+        }
+    }
+
+    private static class EntryCache extends OffHeapLongKeyedCache<Entry> {
+        EntryCache(int maxSize) {
+            super(Entry::key, maxSize, Entry::expiresAt, new EntryCodec());
+        }
+    }
+
+    @Test
+    public void Should_Behave_Like_A_Map_When_Putting_And_Removing_Random_Keys() {
+        EntryCache cache = new EntryCache(-1);
+        Map<Long, Entry> expected = new HashMap<>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 200_000; i++) {
+            long key = random.nextInt(5_000);
+            if (random.nextInt(3) == 0) {
+                cache.remove(key);
+                expected.remove(key);
+            } else {
+                Entry entry = new Entry(key, random.nextLong(), null);
+                cache.put(entry);
+                expected.put(key, entry);
+            }
+        }
+
+        assertEquals(expected.size(), cache.getSize());
+        for (long key = 0; key < 5_000; key++) {
+            assertEquals(expected.get(key), cache.getIfPresent(key));
+        }
+    }
+
+    @Test
+    public void Should_Not_Add_Entry_Back_When_Removed_Between_Read_And_Replace() {
+        EntryCache cache = new EntryCache(-1);
+        cache.put(new Entry(1, 1, null));
+
+        Entry read = cache.getIfPresent(1);
+        cache.remove(1);
+
+        assertFalse(cache.replaceIfPresent(new Entry(read.key(), 2, null)));
+        assertNull(cache.getIfPresent(1));
+        assertEquals(0, cache.getSize());
+
+        cache.put(new Entry(1, 1, null));
+        assertTrue(cache.replaceIfPresent(new Entry(1, 2, null)));
+        assertEquals(2, cache.getIfPresent(1).value());
+    }
+
+    @Test
+    public void Should_Not_Publish_Replaced_Entries() {
+        EntryCache cache = new EntryCache(-1);
+        List<String> publishedKeys = new ArrayList<>();
+        cache.setInvalidationPublisher(publishedKeys::add);
+
+        cache.put(new Entry(1, 1, null));
+        assertTrue(cache.replaceIfPresent(new Entry(1, 2, null)));
+
+        assertEquals(List.of("1"), publishedKeys);
+    }
+
+    @Test
+    public void Should_Not_Exceed_Max_Size_When_Bounded() {
+        EntryCache cache = new EntryCache(1_000);
+
+        for (long key = 0; key < 10_000; key++) {
+            cache.put(new Entry(key, key, null));
+        }
+
+        assertTrue(cache.getSize() <= 1_000);
+        assertTrue(cache.getSize() > 900);
+    }
+
+    @Test
+    public void Should_Not_Return_Expired_Entries() {
+        EntryCache cache = new EntryCache(-1);
+        Instant future = Instant.now().plusSeconds(60);
+
+        cache.addMultiple(List.of(new Entry(1, 1, Instant.now().minusSeconds(1)), new Entry(2, 2, future)));
+        cache.put(new Entry(3, 3, Instant.now().minusSeconds(1)));
+
+        assertNull(cache.getIfPresent(1));
+        assertEquals(new Entry(2, 2, Instant.ofEpochMilli(future.toEpochMilli())), cache.getIfPresent(2));
+        assertNull(cache.getIfPresent(3));
+        assertEquals(1, cache.evictExpired());
+    }
+
+    @Test
+    public void Should_Report_Memory_Held_Off_Heap() {
+        EntryCache cache = new EntryCache(-1);
+        long initialBytes = cache.getOffHeapBytes();
+
+        for (long key = 0; key < 10_000; key++) {
+            cache.put(new Entry(key, key, null));
+        }
+
+        assertTrue(initialBytes > 0);
+        assertTrue(cache.getOffHeapBytes() >= 10_000L * 32);
+
+        cache.initializeCache(List.of());
+        assertEquals(initialBytes, cache.getOffHeapBytes());
+    }
+}
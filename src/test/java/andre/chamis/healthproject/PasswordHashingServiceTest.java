@@ -0,0 +1,59 @@
+package andre.chamis.healthproject;
+
+import andre.chamis.healthproject.exception.TooManyRequestsException;
+import andre.chamis.healthproject.properties.PasswordHashingProperties;
+import andre.chamis.healthproject.service.PasswordHashingService;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PasswordHashingServiceTest {
+
+    private static PasswordHashingService createService(int threads, int queueCapacity, int strength) {
+        PasswordHashingProperties properties = new PasswordHashingProperties();
+        properties.setThreads(threads);
+        properties.setQueueCapacity(queueCapacity);
+        properties.setMaxWait(Duration.ofSeconds(30));
+        properties.setStrength(strength);
+        return new PasswordHashingService(properties);
+    }
+
+    private static void awaitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline);
+            Thread.sleep(1);
+        }
+    }
+
+    @Test
+    public void Should_Hash_And_Match_Passwords() {
+        PasswordHashingService service = createService(1, 4, 4);
+
+        String hashedPassword = service.hash("Passw0rd!");
+
+        assertTrue(service.matches("Passw0rd!", hashedPassword));
+        assertFalse(service.matches("wrong", hashedPassword));
+        assertEquals(3, service.getCompletedTasks());
+    }
+
+    @Test
+    public void Should_Reject_With_Too_Many_Requests_When_Queue_Is_Full() throws Exception {
+        PasswordHashingService service = createService(1, 1, 14);
+
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> service.hash("running"));
+        awaitUntil(() -> service.getActiveTasks() == 1);
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> service.hash("queued"));
+        awaitUntil(() -> service.getQueueDepth() == 1);
+
+        assertThrows(TooManyRequestsException.class, () -> service.hash("rejected"));
+        assertEquals(1, service.getRejectedTasks());
+
+        assertNotNull(running.get());
+        assertNotNull(queued.get());
+    }
+}
@@ -0,0 +1,70 @@
+package andre.chamis.healthproject;
+
+import andre.chamis.healthproject.domain.auth.dto.TokensDTO;
+import andre.chamis.healthproject.domain.health.attendance.dto.GetAttendanceWithUsernameDTO;
+import andre.chamis.healthproject.domain.health.patient.dto.GetPatientSummaryDTO;
+import andre.chamis.healthproject.domain.user.dto.GetUserDTO;
+import andre.chamis.healthproject.infra.request.response.Metadata;
+import andre.chamis.healthproject.infra.request.response.PaginatedResponse;
+import andre.chamis.healthproject.infra.request.response.ResponseMessage;
+import andre.chamis.healthproject.infra.request.response.serialization.ResponseSerializersModule;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.ser.BeanSerializer;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ResponseSerializersModuleTest {
+    private final ObjectMapper defaultMapper = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+    private final ObjectMapper streamingMapper = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .modulesToInstall(new ResponseSerializersModule())
+            .build();
+
+    @Test
+    public void Should_Write_Same_Json_As_Bean_Serializers_When_Serializing_Hot_Responses() throws Exception {
+        GetUserDTO user = new GetUserDTO(1L, "tester", "tester@example.com", true, false, true, null, null);
+        List<Object> bodies = List.of(
+                new PaginatedResponse<>(3, List.of(
+                        new GetPatientSummaryDTO(1L, "Maria \"Silva\"", 2L, true, new Timestamp(1_700_000_000_000L)),
+                        new GetPatientSummaryDTO(null, null, null, false, null)
+                )),
+                new PaginatedResponse<>(1, List.of(
+                        new GetAttendanceWithUsernameDTO(1L, 2L, new Date(1_700_000_000_000L), null, "tester"),
+                        new GetAttendanceWithUsernameDTO(1L, 2L, new Date(951_782_400_123L), new Date(0), "tester"),
+                        new GetAttendanceWithUsernameDTO(1L, 2L, new Date(-1L), new java.sql.Date(0), "tester")
+                )),
+                new PaginatedResponse<>(0, null),
+                user,
+                new TokensDTO("access", "refresh", user),
+                new TokensDTO(null, null, (GetUserDTO) null)
+        );
+
+        assertFalse(streamingMapper.getSerializerProviderInstance()
+                .findValueSerializer(GetUserDTO.class) instanceof BeanSerializer);
+
+        for (Object body : bodies) {
+            ResponseMessage<Object> message = new ResponseMessage<>();
+            Metadata metadata = new Metadata();
+            metadata.setMessages(Arrays.asList("message", null));
+            message.setMetadata(metadata);
+            message.setBody(body);
+
+            assertEquals(defaultMapper.writeValueAsString(message), streamingMapper.writeValueAsString(message));
+        }
+
+        assertEquals(
+                defaultMapper.writeValueAsString(new ResponseMessage<>()),
+                streamingMapper.writeValueAsString(new ResponseMessage<>())
+        );
+    }
+}
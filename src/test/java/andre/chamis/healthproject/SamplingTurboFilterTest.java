@@ -0,0 +1,78 @@
+package andre.chamis.healthproject;
+
+import andre.chamis.healthproject.domain.admin.dto.GetLoggingStatisticsDTO;
+import andre.chamis.healthproject.infra.logging.SamplingTurboFilter;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.core.spi.FilterReply;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SamplingTurboFilterTest {
+
+    @Test
+    public void Should_Deny_Lines_Below_Warn_When_Sampled_Logger_Exceeds_Rate() {
+        SamplingTurboFilter filter = new SamplingTurboFilter();
+        filter.setMaxEventsPerSecond(2);
+        filter.addLoggerPrefix("sampled");
+
+        LoggerContext loggerContext = new LoggerContext();
+        Logger sampled = loggerContext.getLogger("sampled.Logger");
+        Logger other = loggerContext.getLogger("other.Logger");
+
+        assertEquals(FilterReply.NEUTRAL, filter.decide(null, sampled, Level.INFO, "line", null, null));
+        assertEquals(FilterReply.NEUTRAL, filter.decide(null, sampled, Level.INFO, "line", null, null));
+        assertEquals(FilterReply.DENY, filter.decide(null, sampled, Level.INFO, "line", null, null));
+
+        // Warnings, level checks and loggers that aren't sampled always pass
+        assertEquals(FilterReply.NEUTRAL, filter.decide(null, sampled, Level.WARN, "line", null, null));
+        assertEquals(FilterReply.NEUTRAL, filter.decide(null, sampled, Level.DEBUG, null, null, null));
+        for (int i = 0; i < 10; i++) {
+            assertEquals(FilterReply.NEUTRAL, filter.decide(null, other, Level.INFO, "line", null, null));
+        }
+
+        assertEquals(1, filter.getSuppressedEvents());
+    }
+
+    @Test
+    public void Should_Not_Spend_Budget_When_Level_Is_Disabled() {
+        SamplingTurboFilter filter = new SamplingTurboFilter();
+        filter.setMaxEventsPerSecond(1);
+        filter.addLoggerPrefix("sampled");
+
+        LoggerContext loggerContext = new LoggerContext();
+        Logger sampled = loggerContext.getLogger("sampled.Logger");
+        sampled.setLevel(Level.INFO);
+
+        for (int i = 0; i < 10; i++) {
+            assertEquals(FilterReply.NEUTRAL, filter.decide(null, sampled, Level.DEBUG, "line", null, null));
+        }
+
+        assertEquals(FilterReply.NEUTRAL, filter.decide(null, sampled, Level.INFO, "line", null, null));
+        assertEquals(FilterReply.DENY, filter.decide(null, sampled, Level.INFO, "line", null, null));
+        assertEquals(1, filter.getSuppressedEvents());
+    }
+
+    @Test
+    public void Should_Report_Suppressed_Lines_Through_The_Logger_Context() {
+        LoggerContext loggerContext = new LoggerContext();
+        SamplingTurboFilter filter = new SamplingTurboFilter();
+        filter.setContext(loggerContext);
+        filter.setMaxEventsPerSecond(1);
+        filter.addLoggerPrefix("sampled");
+        filter.start();
+        loggerContext.addTurboFilter(filter);
+
+        Logger sampled = loggerContext.getLogger("sampled.Logger");
+        for (int i = 0; i < 5; i++) {
+            sampled.info("line");
+        }
+
+        GetLoggingStatisticsDTO statistics = GetLoggingStatisticsDTO.fromLoggerContext(loggerContext);
+        assertEquals(4, statistics.suppressedEvents());
+        assertEquals(0, statistics.droppedEvents());
+        assertEquals(0, statistics.queueCapacity());
+    }
+}
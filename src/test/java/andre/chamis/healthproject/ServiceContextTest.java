@@ -0,0 +1,50 @@
+package andre.chamis.healthproject;
+
+import andre.chamis.healthproject.context.ServiceContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ServiceContextTest {
+
+    @AfterEach
+    public void clearContext() {
+        ServiceContext.clearContext();
+    }
+
+    @Test
+    public void Should_Hand_Context_Over_To_Another_Thread_When_Wrapped() throws Exception {
+        ServiceContext context = ServiceContext.getContext("execution");
+        context.setUserId(42L);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            CompletableFuture<ServiceContext> seen = new CompletableFuture<>();
+            CompletableFuture<String> seenExecutionId = new CompletableFuture<>();
+            ServiceContext.propagating(executor).execute(() -> {
+                ServiceContext.addMessage("from worker");
+                seenExecutionId.complete(MDC.get(ServiceContext.EXECUTION_ID_KEY));
+                seen.complete(ServiceContext.getContext());
+            });
+
+            assertSame(context, seen.get());
+            assertEquals("execution", seenExecutionId.get());
+            assertEquals(1, context.getMetadataMessages().size());
+
+            // The worker is left without the context once the task is done
+            CompletableFuture<Long> userIdAfterTask = CompletableFuture.supplyAsync(
+                    () -> ServiceContext.getContext().getUserId(),
+                    executor
+            );
+            assertNull(userIdAfterTask.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
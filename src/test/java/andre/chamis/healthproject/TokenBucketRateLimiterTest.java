@@ -0,0 +1,90 @@
+package andre.chamis.healthproject;
+
+import andre.chamis.healthproject.infra.ratelimit.TokenBucketRateLimiter;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TokenBucketRateLimiterTest {
+
+    @Test
+    public void Should_Allow_A_Burst_Then_Refill_Over_The_Period() {
+        AtomicLong clock = new AtomicLong();
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(3, Duration.ofSeconds(60), 1_000, clock::get);
+
+        assertTrue(limiter.tryAcquire("tester@example.com"));
+        assertTrue(limiter.tryAcquire("tester@example.com"));
+        assertTrue(limiter.tryAcquire("tester@example.com"));
+        assertFalse(limiter.tryAcquire("tester@example.com"));
+        assertTrue(limiter.tryAcquire("other@example.com"));
+
+        clock.addAndGet(Duration.ofSeconds(20).toNanos());
+        assertTrue(limiter.tryAcquire("tester@example.com"));
+        assertFalse(limiter.tryAcquire("tester@example.com"));
+
+        clock.addAndGet(Duration.ofSeconds(60).toNanos());
+        assertTrue(limiter.tryAcquire("tester@example.com"));
+        assertTrue(limiter.tryAcquire("tester@example.com"));
+        assertTrue(limiter.tryAcquire("tester@example.com"));
+        assertFalse(limiter.tryAcquire("tester@example.com"));
+
+        assertEquals(3, limiter.getRejectedRequests());
+        assertEquals(8, limiter.getAllowedRequests());
+    }
+
+    @Test
+    public void Should_Bound_Tracked_Keys_And_Drop_Idle_Buckets() {
+        AtomicLong clock = new AtomicLong();
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(1, Duration.ofSeconds(60), 160, clock::get);
+
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(limiter.tryAcquire("key-" + i));
+        }
+
+        assertTrue(limiter.getTrackedKeys() <= 160);
+        assertTrue(limiter.getEvictedActiveBuckets() > 0);
+
+        // A key still tracked is limited even while new keys flood its stripe
+        assertFalse(limiter.tryAcquire("key-9999"));
+
+        clock.addAndGet(Duration.ofSeconds(60).toNanos());
+        limiter.evictIdle();
+        assertEquals(0, limiter.getTrackedKeys());
+    }
+
+    @Test
+    public void Should_Keep_Limiting_Keys_When_Stripes_Are_Full() {
+        AtomicLong clock = new AtomicLong();
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(1, Duration.ofSeconds(60), 16, clock::get);
+
+        for (int i = 0; i < 1_000; i++) {
+            limiter.tryAcquire("key-" + i);
+        }
+
+        // With one bucket per stripe, each new key replaces the last one, so the same key in a row is still limited
+        assertTrue(limiter.tryAcquire("attacker@example.com"));
+        assertFalse(limiter.tryAcquire("attacker@example.com"));
+    }
+
+    @Test
+    public void Should_Make_Room_From_Idle_Buckets_Before_Active_Ones() {
+        AtomicLong clock = new AtomicLong();
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(1, Duration.ofSeconds(60), 160, clock::get);
+
+        for (int i = 0; i < 10_000; i++) {
+            limiter.tryAcquire("key-" + i);
+        }
+        long evictedActiveBuckets = limiter.getEvictedActiveBuckets();
+
+        clock.addAndGet(Duration.ofSeconds(60).toNanos());
+        for (int i = 0; i < 100; i++) {
+            assertTrue(limiter.tryAcquire("new-key-" + i));
+        }
+
+        assertEquals(evictedActiveBuckets, limiter.getEvictedActiveBuckets());
+        assertTrue(limiter.getTrackedKeys() <= 160);
+    }
+}
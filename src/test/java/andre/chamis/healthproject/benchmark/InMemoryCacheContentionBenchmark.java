@@ -0,0 +1,146 @@
+package andre.chamis.healthproject.benchmark;
+
+import andre.chamis.healthproject.cache.InMemoryCache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Compares the throughput of {@link InMemoryCache} against the previous, fully synchronized implementation when
+ * 1 to 64 threads hit it at the same time, the way {@code AuthInterceptor} does on every request.
+ * <p>
+ * Each thread reads random keys from a warm cache and writes 1% of the time. Run with:
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=andre.chamis.healthproject.benchmark.InMemoryCacheContentionBenchmark
+ * </pre>
+ */
+public class InMemoryCacheContentionBenchmark {
+    private static final int KEYS = 100_000;
+    private static final int MAX_SIZE = 200_000;
+    private static final long DURATION_MILLIS = 2_000;
+    private static final int[] THREAD_COUNTS = {1, 2, 4, 8, 16, 32, 64};
+
+    private record Value(Long id) {
+    }
+
+    /**
+     * The concurrent cache being measured.
+     */
+    private static class ConcurrentCache extends InMemoryCache<Long, Value> {
+        ConcurrentCache() {
+            super(Value::id, MAX_SIZE, value -> null);
+        }
+    }
+
+    /**
+     * The previous implementation: a bounded, access-ordered map behind a single monitor.
+     */
+    private static class SynchronizedCache {
+        private final Map<Long, Value> cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Value> eldest) {
+                return size() > MAX_SIZE;
+            }
+        };
+
+        synchronized void put(Value value) {
+            cache.put(value.id(), value);
+        }
+
+        synchronized Optional<Value> get(Long key) {
+            return Optional.ofNullable(cache.get(key));
+        }
+    }
+
+    private interface Operations {
+        void put(Value value);
+
+        Optional<Value> get(Long key);
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        System.out.printf("%-8s %20s %20s %10s%n", "threads", "synchronized ops/s", "concurrent ops/s", "speedup");
+
+        for (int threads : THREAD_COUNTS) {
+            SynchronizedCache synchronizedCache = new SynchronizedCache();
+            ConcurrentCache concurrentCache = new ConcurrentCache();
+
+            double synchronizedThroughput = run(threads, new Operations() {
+                public void put(Value value) {
+                    synchronizedCache.put(value);
+                }
+
+                public Optional<Value> get(Long key) {
+                    return synchronizedCache.get(key);
+                }
+            });
+
+            double concurrentThroughput = run(threads, new Operations() {
+                public void put(Value value) {
+                    concurrentCache.put(value);
+                }
+
+                public Optional<Value> get(Long key) {
+                    return concurrentCache.get(key);
+                }
+            });
+
+            System.out.printf(
+                    "%-8d %20.0f %20.0f %9.1fx%n",
+                    threads,
+                    synchronizedThroughput,
+                    concurrentThroughput,
+                    concurrentThroughput / synchronizedThroughput
+            );
+        }
+    }
+
+    private static double run(int threads, Operations operations) throws InterruptedException {
+        for (long i = 0; i < KEYS; i++) {
+            operations.put(new Value(i));
+        }
+
+        LongAdder completedOperations = new LongAdder();
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        long[] deadline = new long[1];
+
+        for (int t = 0; t < threads; t++) {
+            Thread thread = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long operationsByThread = 0;
+                try {
+                    start.await();
+                    while (System.nanoTime() < deadline[0]) {
+                        for (int i = 0; i < 256; i++) {
+                            long key = random.nextLong(KEYS);
+                            if (random.nextInt(100) == 0) {
+                                operations.put(new Value(key));
+                            } else {
+                                operations.get(key);
+                            }
+                        }
+                        operationsByThread += 256;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    completedOperations.add(operationsByThread);
+                    done.countDown();
+                }
+            });
+            thread.start();
+        }
+
+        deadline[0] = System.nanoTime() + DURATION_MILLIS * 1_000_000;
+        start.countDown();
+        done.await();
+
+        return completedOperations.sum() / (DURATION_MILLIS / 1000.0);
+    }
+}
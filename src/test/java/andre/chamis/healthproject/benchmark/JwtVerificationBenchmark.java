@@ -0,0 +1,144 @@
+package andre.chamis.healthproject.benchmark;
+
+import andre.chamis.healthproject.domain.auth.model.TokenClaims;
+import andre.chamis.healthproject.domain.auth.repository.VerifiedTokenRepository;
+import andre.chamis.healthproject.domain.auth.session.model.Session;
+import andre.chamis.healthproject.properties.AuthProperties;
+import andre.chamis.healthproject.properties.CacheProperties;
+import andre.chamis.healthproject.service.JwtService;
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTVerifier;
+import com.auth0.jwt.algorithms.Algorithm;
+import org.springframework.beans.BeanUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.function.Consumer;
+
+/**
+ * Measures the CPU time spent on tokens per request, comparing the previous {@link JwtService} usage with the
+ * verify-once API, and with the verified token cache for access tokens.
+ * <p>
+ * Before, an authenticated request built a {@link JWTVerifier}, verified the token and decoded it again to read the
+ * session ID; a refresh built a verifier and decoded the token three more times. Now both verify with a verifier
+ * built at startup and read the resulting {@link TokenClaims}, and an access token sent again is found in the
+ * verified token cache. Single-threaded, as this is CPU per request, not throughput. Run with:
+ * <pre>
+ * java -cp target/classes:target/test-classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout) \
+ *     andre.chamis.healthproject.benchmark.JwtVerificationBenchmark
+ * </pre>
+ */
+public class JwtVerificationBenchmark {
+    private static final String APP_NAME = "Health Project";
+    private static final String ACCESS_KEY = "benchmark-access-token-key";
+    private static final String REFRESH_KEY = "benchmark-refresh-token-key";
+    private static final int WARMUP_ITERATIONS = 200_000;
+    private static final int ITERATIONS = 500_000;
+
+    public static void main(String[] args) {
+        JwtService jwtService = createJwtService(0);
+        JwtService cachingJwtService = createJwtService(1_000);
+        Session session = new Session();
+        session.setSessionId(1L);
+        session.setUserId(1L);
+        session.setExpireDt(Date.from(Instant.now().plus(7, ChronoUnit.DAYS)));
+        String accessToken = jwtService.createUserAccessToken("tester", session).token();
+        String refreshToken = jwtService.createUserRefreshToken("tester", 1L).token();
+        Algorithm accessAlgorithm = Algorithm.HMAC256(ACCESS_KEY.getBytes());
+        Algorithm refreshAlgorithm = Algorithm.HMAC256(REFRESH_KEY.getBytes());
+
+        Consumer<String> previousAccess = token -> {
+            JWT.require(accessAlgorithm).withIssuer(APP_NAME).build().verify(token);
+            JWT.decode(token).getClaim("sessionId").asLong();
+        };
+        Consumer<String> previousRefresh = token -> {
+            JWT.require(refreshAlgorithm).withIssuer(APP_NAME).build().verify(token);
+            JWT.decode(token).getSubject();
+            JWT.decode(token).getClaim("sessionId").asLong();
+            JWT.decode(token).getExpiresAt();
+        };
+        Consumer<String> currentAccess = token -> jwtService.verifyUserAccessToken(token).orElseThrow().sessionId();
+        Consumer<String> currentRefresh = token -> jwtService.verifyUserRefreshToken(token).orElseThrow().subject();
+        Consumer<String> cachedAccess = token -> {
+            TokenClaims tokenClaims = cachingJwtService.verifyUserAccessToken(token).orElseThrow();
+            cachingJwtService.rememberVerifiedAccessToken(tokenClaims);
+            tokenClaims.sessionId();
+        };
+
+        System.out.printf(
+                "%-10s %18s %18s %18s%n",
+                "token",
+                "previous us/op",
+                "verify-once us/op",
+                "cached us/op"
+        );
+        print("access", measure(previousAccess, accessToken), measure(currentAccess, accessToken),
+                measure(cachedAccess, accessToken));
+        print("refresh", measure(previousRefresh, refreshToken), measure(currentRefresh, refreshToken), Double.NaN);
+    }
+
+    /**
+     * Creates a JwtService with a verified token cache of the given size; a size of 0 caches nothing.
+     */
+    private static JwtService createJwtService(int verifiedTokenCacheSize) {
+        AuthProperties authProperties = new AuthProperties();
+        AuthProperties.JwtProperties user = new AuthProperties.JwtProperties();
+        user.setAccessToken(tokenConfig(ACCESS_KEY, 2, ChronoUnit.HOURS));
+        user.setRefreshToken(tokenConfig(REFRESH_KEY, 7, ChronoUnit.DAYS));
+        authProperties.setUser(user);
+
+        CacheProperties cacheProperties = new CacheProperties();
+        cacheProperties.getVerifiedToken().setMaxSize(verifiedTokenCacheSize);
+
+        JwtService jwtService = new JwtService(authProperties, createVerifiedTokenRepository(cacheProperties));
+        ReflectionTestUtils.setField(jwtService, "appName", APP_NAME);
+        ReflectionTestUtils.invokeMethod(jwtService, "buildAlgorithms");
+        return jwtService;
+    }
+
+    /**
+     * The cache is package-private, as in the application only its repository uses it.
+     */
+    private static VerifiedTokenRepository createVerifiedTokenRepository(CacheProperties cacheProperties) {
+        try {
+            Class<?> cacheClass = Class.forName("andre.chamis.healthproject.domain.auth.repository.VerifiedTokenCache");
+            Object cache = BeanUtils.instantiateClass(
+                    cacheClass.getDeclaredConstructor(CacheProperties.class),
+                    cacheProperties
+            );
+            return BeanUtils.instantiateClass(
+                    VerifiedTokenRepository.class.getDeclaredConstructor(cacheClass),
+                    cache
+            );
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static AuthProperties.JwtProperties.TokenConfig tokenConfig(String key, int duration, ChronoUnit unit) {
+        AuthProperties.JwtProperties.TokenConfig tokenConfig = new AuthProperties.JwtProperties.TokenConfig();
+        tokenConfig.setEncryptionKey(key);
+        tokenConfig.setDuration(duration);
+        tokenConfig.setUnit(unit);
+        return tokenConfig;
+    }
+
+    private static double measure(Consumer<String> operation, String token) {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            operation.accept(token);
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            operation.accept(token);
+        }
+
+        return (System.nanoTime() - start) / 1_000.0 / ITERATIONS;
+    }
+
+    private static void print(String token, double previous, double current, double cached) {
+        System.out.printf("%-10s %18.2f %18.2f %18.2f%n", token, previous, current, cached);
+    }
+}
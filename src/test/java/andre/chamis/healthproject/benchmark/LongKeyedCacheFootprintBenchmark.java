@@ -0,0 +1,115 @@
+package andre.chamis.healthproject.benchmark;
+
+import andre.chamis.healthproject.cache.InMemoryCache;
+import andre.chamis.healthproject.cache.LongKeyedInMemoryCache;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Measures heap used per entry and bytes allocated per lookup for 1M entries, comparing
+ * {@link InMemoryCache InMemoryCache&lt;Long, V&gt;} with {@link LongKeyedInMemoryCache}.
+ * <p>
+ * Values are allocated once and shared, so only the cost of the cache structure itself is measured. Run with a
+ * fixed heap for stable numbers:
+ * <pre>
+ * java -Xms2g -Xmx2g -cp target/classes:target/test-classes \
+ *     andre.chamis.healthproject.benchmark.LongKeyedCacheFootprintBenchmark
+ * </pre>
+ */
+public class LongKeyedCacheFootprintBenchmark {
+    private static final int ENTRIES = 1_000_000;
+    private static final int MAX_SIZE = 2_000_000;
+    private static final int LOOKUPS = 10_000_000;
+
+    private record Value(Long id) {
+    }
+
+    private static class BoxedKeyCache extends InMemoryCache<Long, Value> {
+        BoxedKeyCache() {
+            super(Value::id, MAX_SIZE, value -> null);
+        }
+    }
+
+    private static class PrimitiveKeyCache extends LongKeyedInMemoryCache<Value> {
+        PrimitiveKeyCache() {
+            super(Value::id, MAX_SIZE, value -> null);
+        }
+    }
+
+    public static void main(String[] args) {
+        Value[] values = new Value[ENTRIES];
+        for (int i = 0; i < ENTRIES; i++) {
+            values[i] = new Value((long) i);
+        }
+
+        long baseline = usedHeap();
+        BoxedKeyCache boxedKeyCache = new BoxedKeyCache();
+        for (Value value : values) {
+            boxedKeyCache.put(value);
+        }
+        long boxedBytes = usedHeap() - baseline;
+        long boxedAllocation = allocationPerLookup(key -> boxedKeyCache.get(key).isPresent());
+        boxedKeyCache.initializeCache(java.util.List.of());
+
+        baseline = usedHeap();
+        PrimitiveKeyCache primitiveKeyCache = new PrimitiveKeyCache();
+        for (Value value : values) {
+            primitiveKeyCache.put(value);
+        }
+        long primitiveBytes = usedHeap() - baseline;
+        long primitiveAllocation = allocationPerLookup(key -> primitiveKeyCache.getIfPresent(key) != null);
+
+        System.out.printf("%-32s %16s %16s %20s%n", "cache", "heap (MB)", "bytes/entry", "bytes alloc/lookup");
+        print("InMemoryCache<Long, V>", boxedBytes, boxedAllocation);
+        print("LongKeyedInMemoryCache<V>", primitiveBytes, primitiveAllocation);
+
+        // Keep both caches reachable until measured
+        System.out.println(boxedKeyCache.getSize() + primitiveKeyCache.getSize() > 0 ? "" : "empty");
+    }
+
+    private interface Lookup {
+        boolean find(long key);
+    }
+
+    private static long allocationPerLookup(Lookup lookup) {
+        com.sun.management.ThreadMXBean threadMXBean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        int found = 0;
+        for (int i = 0; i < LOOKUPS; i++) {
+            found += lookup.find(i % ENTRIES) ? 1 : 0; // Warm up
+        }
+
+        long before = threadMXBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < LOOKUPS; i++) {
+            found += lookup.find(i % ENTRIES) ? 1 : 0;
+        }
+        long after = threadMXBean.getThreadAllocatedBytes(threadId);
+
+        if (found == 0) {
+            throw new IllegalStateException("No entries found");
+        }
+
+        return Math.round((after - before) / (double) LOOKUPS);
+    }
+
+    private static void print(String name, long bytes, long allocation) {
+        System.out.printf(
+                "%-32s %16.1f %16.1f %20d%n",
+                name,
+                bytes / (1024.0 * 1024.0),
+                bytes / (double) ENTRIES,
+                allocation
+        );
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+        }
+
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,154 @@
+package andre.chamis.healthproject.benchmark;
+
+import andre.chamis.healthproject.domain.auth.dto.TokensDTO;
+import andre.chamis.healthproject.domain.health.attendance.dto.GetAttendanceWithUsernameDTO;
+import andre.chamis.healthproject.domain.health.patient.dto.GetPatientSummaryDTO;
+import andre.chamis.healthproject.domain.user.dto.GetUserDTO;
+import andre.chamis.healthproject.infra.request.response.Metadata;
+import andre.chamis.healthproject.infra.request.response.PaginatedResponse;
+import andre.chamis.healthproject.infra.request.response.ResponseMessage;
+import andre.chamis.healthproject.infra.request.response.serialization.ResponseSerializersModule;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compares the throughput and allocation of serializing the hottest responses with the default reflective Jackson
+ * serializers against {@link ResponseSerializersModule}.
+ * <p>
+ * Each response is written to a stream that only counts bytes, as the message converter writes to the servlet
+ * response, with dates as ISO strings as Spring Boot configures them. Allocation is read from the JVM's per-thread
+ * allocation counter. Run with:
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=andre.chamis.healthproject.benchmark.ResponseSerializationBenchmark
+ * </pre>
+ */
+public class ResponseSerializationBenchmark {
+    private static final long DURATION_MILLIS = 2_000;
+    private static final int PAGE_SIZE = 20;
+
+    private static class CountingOutputStream extends OutputStream {
+        private long bytes;
+
+        @Override
+        public void write(int b) {
+            bytes++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            bytes += len;
+        }
+    }
+
+    private record Result(double megabytesPerSecond, double responsesPerSecond, long bytesAllocatedPerResponse) {
+    }
+
+    public static void main(String[] args) throws IOException {
+        ObjectWriter defaultWriter = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build()
+                .writer();
+        ObjectWriter streamingWriter = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .modulesToInstall(new ResponseSerializersModule())
+                .build()
+                .writer();
+
+        System.out.printf(
+                "%-30s %12s %14s %12s %14s %12s%n",
+                "response", "default MB/s", "default B/resp", "stream MB/s", "stream B/resp", "speedup"
+        );
+
+        // Warm both writers up on every response first, so neither is measured while the other is being compiled
+        Map<String, ResponseMessage<?>> responses = buildResponses();
+        for (ResponseMessage<?> response : responses.values()) {
+            warmUp(defaultWriter, response);
+            warmUp(streamingWriter, response);
+        }
+
+        for (Map.Entry<String, ResponseMessage<?>> entry : responses.entrySet()) {
+            Result reflective = run(defaultWriter, entry.getValue());
+            Result streaming = run(streamingWriter, entry.getValue());
+            System.out.printf(
+                    "%-30s %12.1f %14d %12.1f %14d %11.2fx%n",
+                    entry.getKey(),
+                    reflective.megabytesPerSecond(),
+                    reflective.bytesAllocatedPerResponse(),
+                    streaming.megabytesPerSecond(),
+                    streaming.bytesAllocatedPerResponse(),
+                    streaming.responsesPerSecond() / reflective.responsesPerSecond()
+            );
+        }
+    }
+
+    private static Map<String, ResponseMessage<?>> buildResponses() {
+        List<GetPatientSummaryDTO> patients = new ArrayList<>();
+        List<GetAttendanceWithUsernameDTO> attendances = new ArrayList<>();
+        for (long i = 0; i < PAGE_SIZE; i++) {
+            Timestamp createdAt = new Timestamp(1_700_000_000_000L + i * 60_000);
+            patients.add(new GetPatientSummaryDTO(i, "Patient Surname " + i, 1L, i % 2 == 0, createdAt));
+            attendances.add(new GetAttendanceWithUsernameDTO(i, 1L, createdAt, null, "collaborator" + i));
+        }
+        GetUserDTO user = new GetUserDTO(1L, "tester", "tester@example.com", true, true, true, false, null);
+
+        Map<String, ResponseMessage<?>> responses = new LinkedHashMap<>();
+        responses.put("PaginatedResponse<patient>", wrap(new PaginatedResponse<>(5, patients)));
+        responses.put("PaginatedResponse<attendance>", wrap(new PaginatedResponse<>(5, attendances)));
+        responses.put("GetUserDTO", wrap(user));
+        responses.put("TokensDTO", wrap(new TokensDTO("a".repeat(180), "b".repeat(180), user)));
+        return responses;
+    }
+
+    private static <T> ResponseMessage<T> wrap(T body) {
+        ResponseMessage<T> message = new ResponseMessage<>();
+        Metadata metadata = new Metadata();
+        metadata.setMessages(List.of());
+        message.setMetadata(metadata);
+        message.setBody(body);
+        return message;
+    }
+
+    private static void warmUp(ObjectWriter writer, ResponseMessage<?> response) throws IOException {
+        CountingOutputStream out = new CountingOutputStream();
+        long deadline = System.nanoTime() + DURATION_MILLIS * 1_000_000 / 2;
+        while (System.nanoTime() < deadline) {
+            writer.writeValue(out, response);
+        }
+    }
+
+    private static Result run(ObjectWriter writer, ResponseMessage<?> response) throws IOException {
+        CountingOutputStream out = new CountingOutputStream();
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        out.bytes = 0;
+        long responses = 0;
+        long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        long deadline = start + DURATION_MILLIS * 1_000_000;
+        while (System.nanoTime() < deadline) {
+            for (int i = 0; i < 64; i++) {
+                writer.writeValue(out, response);
+            }
+            responses += 64;
+        }
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+        long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+        return new Result(
+                out.bytes / elapsedSeconds / 1_000_000,
+                responses / elapsedSeconds,
+                allocated / responses
+        );
+    }
+}
@@ -0,0 +1,126 @@
+package andre.chamis.healthproject.benchmark;
+
+import andre.chamis.healthproject.context.ServiceContext;
+import org.slf4j.MDC;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Compares the throughput of {@link ServiceContext} against the previous implementation, whose static methods were
+ * all {@code synchronized} on the class, when 1 to 64 threads serve requests at the same time.
+ * <p>
+ * Each simulated request gets its context as many times as an authenticated request does across the interceptors,
+ * services and response builder, adds one message and clears it. Run with:
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=andre.chamis.healthproject.benchmark.ServiceContextContentionBenchmark
+ * </pre>
+ */
+public class ServiceContextContentionBenchmark {
+    private static final long DURATION_MILLIS = 2_000;
+    private static final int[] THREAD_COUNTS = {1, 2, 4, 8, 16, 32, 64};
+    private static final int LOOKUPS_PER_REQUEST = 12;
+
+    /**
+     * The previous implementation: a thread-local context reached through class-wide synchronized methods.
+     */
+    private static class SynchronizedContext {
+        private static final ThreadLocal<SynchronizedContext> threadLocal = new ThreadLocal<>();
+        private final List<String> metadataMessages = new ArrayList<>();
+        private Long userId;
+
+        synchronized static SynchronizedContext getContext() {
+            SynchronizedContext context = threadLocal.get();
+            if (context == null) {
+                context = new SynchronizedContext();
+                threadLocal.set(context);
+                MDC.put(ServiceContext.EXECUTION_ID_KEY, UUID.randomUUID().toString());
+            }
+
+            return context;
+        }
+
+        synchronized static void addMessage(String message) {
+            getContext().metadataMessages.add(message);
+        }
+
+        static void clearContext() {
+            threadLocal.remove();
+            MDC.remove(ServiceContext.EXECUTION_ID_KEY);
+        }
+    }
+
+    private interface Request {
+        void serve();
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        System.out.printf("%-8s %22s %22s %10s%n", "threads", "synchronized req/s", "thread-local req/s", "speedup");
+
+        for (int threads : THREAD_COUNTS) {
+            double synchronizedThroughput = run(threads, () -> {
+                SynchronizedContext.getContext().userId = 1L;
+                for (int i = 0; i < LOOKUPS_PER_REQUEST; i++) {
+                    SynchronizedContext.getContext();
+                }
+                SynchronizedContext.addMessage("message");
+                SynchronizedContext.clearContext();
+            });
+
+            double threadLocalThroughput = run(threads, () -> {
+                ServiceContext.getContext().setUserId(1L);
+                for (int i = 0; i < LOOKUPS_PER_REQUEST; i++) {
+                    ServiceContext.getContext();
+                }
+                ServiceContext.addMessage("message");
+                ServiceContext.clearContext();
+            });
+
+            System.out.printf(
+                    "%-8d %22.0f %22.0f %9.1fx%n",
+                    threads,
+                    synchronizedThroughput,
+                    threadLocalThroughput,
+                    threadLocalThroughput / synchronizedThroughput
+            );
+        }
+    }
+
+    private static double run(int threads, Request request) throws InterruptedException {
+        LongAdder completedRequests = new LongAdder();
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        long[] deadline = new long[1];
+
+        for (int t = 0; t < threads; t++) {
+            Thread thread = new Thread(() -> {
+                long requestsByThread = 0;
+                try {
+                    start.await();
+                    while (System.nanoTime() < deadline[0]) {
+                        for (int i = 0; i < 64; i++) {
+                            request.serve();
+                        }
+                        requestsByThread += 64;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    completedRequests.add(requestsByThread);
+                    done.countDown();
+                }
+            });
+            thread.start();
+        }
+
+        deadline[0] = System.nanoTime() + DURATION_MILLIS * 1_000_000;
+        start.countDown();
+        done.await();
+
+        return completedRequests.sum() / (DURATION_MILLIS / 1000.0);
+    }
+}
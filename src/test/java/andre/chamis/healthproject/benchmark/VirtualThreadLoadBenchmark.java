@@ -0,0 +1,131 @@
+package andre.chamis.healthproject.benchmark;
+
+import andre.chamis.healthproject.context.ServiceContext;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Compares the request throughput and latency of a fixed pool of 200 platform threads, as Tomcat uses by default,
+ * against one virtual thread per request, as {@code spring.threads.virtual.enabled} does, when requests mostly wait
+ * on blocking I/O.
+ * <p>
+ * Each simulated request does a little work with the {@link ServiceContext}, then blocks for 20 ms, like a few
+ * database queries or a call to Stripe. The I/O is capped at {@value #IO_CONCURRENCY} concurrent waits, like a
+ * connection pool. Clients keep 50 to 2000 requests in flight. Virtual threads need Java 21: on older runtimes only
+ * the platform pool is measured. Run with:
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=andre.chamis.healthproject.benchmark.VirtualThreadLoadBenchmark
+ * </pre>
+ */
+public class VirtualThreadLoadBenchmark {
+    private static final int PLATFORM_POOL_SIZE = 200;
+    private static final int IO_CONCURRENCY = 1_000;
+    private static final long IO_MILLIS = 20;
+    private static final int REQUESTS_PER_CLIENT = 20;
+    private static final int[] CLIENT_COUNTS = {50, 200, 500, 1_000, 2_000};
+
+    private record Result(double requestsPerSecond, long p50Millis, long p99Millis) {
+    }
+
+    public static void main(String[] args) throws Exception {
+        ExecutorService virtualExecutor = newVirtualThreadPerTaskExecutor();
+        if (virtualExecutor == null) {
+            System.out.println("Virtual threads need Java 21, measuring the platform pool only");
+        }
+
+        System.out.printf(
+                "%-8s %14s %8s %8s %14s %8s %8s%n",
+                "clients", "platform req/s", "p50 ms", "p99 ms", "virtual req/s", "p50 ms", "p99 ms"
+        );
+
+        for (int clients : CLIENT_COUNTS) {
+            ExecutorService platformExecutor = Executors.newFixedThreadPool(PLATFORM_POOL_SIZE);
+            Result platform = run(clients, platformExecutor);
+            platformExecutor.shutdown();
+
+            Result virtual = virtualExecutor == null ? null : run(clients, virtualExecutor);
+            System.out.printf(
+                    "%-8d %14.0f %8d %8d %14s %8s %8s%n",
+                    clients,
+                    platform.requestsPerSecond(),
+                    platform.p50Millis(),
+                    platform.p99Millis(),
+                    virtual == null ? "-" : String.format("%.0f", virtual.requestsPerSecond()),
+                    virtual == null ? "-" : Long.toString(virtual.p50Millis()),
+                    virtual == null ? "-" : Long.toString(virtual.p99Millis())
+            );
+        }
+
+        if (virtualExecutor != null) {
+            virtualExecutor.shutdown();
+        }
+    }
+
+    /**
+     * Looked up reflectively, so the benchmark still compiles for Java 17.
+     */
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    private static Result run(int clients, ExecutorService executor) throws InterruptedException {
+        Semaphore connections = new Semaphore(IO_CONCURRENCY);
+        int totalRequests = clients * REQUESTS_PER_CLIENT;
+        long[] latenciesNanos = new long[totalRequests];
+        AtomicInteger completedRequests = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(clients);
+
+        long start = System.nanoTime();
+        for (int c = 0; c < clients; c++) {
+            Thread client = new Thread(() -> {
+                try {
+                    for (int r = 0; r < REQUESTS_PER_CLIENT; r++) {
+                        long submittedAt = System.nanoTime();
+                        executor.submit(() -> serve(connections)).get();
+                        latenciesNanos[completedRequests.getAndIncrement()] = System.nanoTime() - submittedAt;
+                    }
+                } catch (Exception e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+            client.setDaemon(true);
+            client.start();
+        }
+        done.await();
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+
+        long[] latencies = Arrays.copyOf(latenciesNanos, completedRequests.get());
+        Arrays.sort(latencies);
+        return new Result(
+                latencies.length / elapsedSeconds,
+                TimeUnit.NANOSECONDS.toMillis(latencies[latencies.length / 2]),
+                TimeUnit.NANOSECONDS.toMillis(latencies[(int) (latencies.length * 0.99)])
+        );
+    }
+
+    private static Void serve(Semaphore connections) throws InterruptedException {
+        ServiceContext.getContext().setUserId(1L);
+        connections.acquire();
+        try {
+            Thread.sleep(IO_MILLIS);
+        } finally {
+            connections.release();
+        }
+        ServiceContext.addMessage("served");
+        ServiceContext.clearContext();
+        return null;
+    }
+}